@@ -16,9 +16,26 @@ import sun.misc.Cleaner;
  * @author Lee Rhodes
  */
 final class AllocateDirect implements AutoCloseable {
+  /**
+   * The alignment guaranteed by unsafe.allocateMemory().
+   */
+  static final long MIN_ALIGNMENT = 8;
+
   final ResourceState state;
+  private final Deallocator deallocator;
   private final Cleaner cleaner;
 
+  /**
+   * Returns native blocks to the OS. This is the Releaser used unless a MemoryManager supplies
+   * its own.
+   */
+  static final Releaser FREE_MEMORY = new Releaser() {
+    @Override
+    public void release(final long actualNativeBaseOffset, final long actualCapacity) {
+      unsafe.freeMemory(actualNativeBaseOffset);
+    }
+  };
+
   /**
    * Base Constructor for allocate native memory.
    *
@@ -26,53 +43,211 @@ final class AllocateDirect implements AutoCloseable {
    * leveraging the Memory interface.
    * The allocated memory will be 8-byte aligned, but may not be page aligned.
    * @param state contains the capacity and optionally the MemoryRequest
+   * @param actualNativeBaseOffset the address of the native block as it was obtained
+   * @param actualCapacity the size of the native block as it was obtained
+   * @param releaser receives the native block when this is closed or cleaned
    */
-  private AllocateDirect(final ResourceState state) {
+  private AllocateDirect(final ResourceState state, final long actualNativeBaseOffset,
+          final long actualCapacity, final Releaser releaser) {
     this.state = state;
-    cleaner = Cleaner.create(this, new Deallocator(state));
-    ResourceState.currentDirectMemoryAllocations_.incrementAndGet();
-    ResourceState.currentDirectMemoryAllocated_.addAndGet(state.getCapacity());
+    deallocator = new Deallocator(state, actualNativeBaseOffset, actualCapacity, releaser,
+            LeakDetector.sample("Direct memory", state.getCapacity()));
+    cleaner = Cleaner.create(this, deallocator);
+    ResourceState.currentDirectMemoryAllocations_.increment();
+    ResourceState.currentDirectMemoryAllocated_.add(state.getCapacity());
+    final AllocationTag tag = state.getTag();
+    if (tag != null) {
+      tag.allocated(state.getCapacity());
+    }
   }
 
   static AllocateDirect allocate(final ResourceState state) {
-    state.putNativeBaseOffset(unsafe.allocateMemory(state.getCapacity()));
-    return new AllocateDirect(state);
+    final long nativeBaseOffset = unsafe.allocateMemory(state.getCapacity());
+    state.putNativeBaseOffset(nativeBaseOffset);
+    return new AllocateDirect(state, nativeBaseOffset, state.getCapacity(), FREE_MEMORY);
+  }
+
+  /**
+   * Allocates native memory whose nativeBaseOffset is a multiple of the given alignment.
+   * The block is over-allocated by up to alignmentBytes - 1 bytes and the Deallocator frees the
+   * original, unaligned address.
+   * @param state contains the capacity and optionally the MemoryRequest
+   * @param alignmentBytes the desired alignment, which must be a power of two
+   * @return a new AllocateDirect
+   */
+  static AllocateDirect allocate(final ResourceState state, final long alignmentBytes) {
+    checkAlignment(alignmentBytes);
+    if (alignmentBytes <= MIN_ALIGNMENT) {
+      return allocate(state);
+    }
+    final long actualCapacity = state.getCapacity() + alignmentBytes - 1L;
+    final long actualNativeBaseOffset = unsafe.allocateMemory(actualCapacity);
+    state.putNativeBaseOffset(alignUp(actualNativeBaseOffset, alignmentBytes));
+    return new AllocateDirect(state, actualNativeBaseOffset, actualCapacity, FREE_MEMORY);
+  }
+
+  /**
+   * Takes ownership of a native block that was obtained by the caller, for example from a pool.
+   * The nativeBaseOffset of the given state must already point into the block.
+   * @param state contains the capacity and the nativeBaseOffset
+   * @param actualNativeBaseOffset the address of the block as it was obtained
+   * @param actualCapacity the size of the block as it was obtained
+   * @param releaser receives the block exactly once when this is closed or cleaned
+   * @return a new AllocateDirect
+   */
+  static AllocateDirect wrap(final ResourceState state, final long actualNativeBaseOffset,
+          final long actualCapacity, final Releaser releaser) {
+    return new AllocateDirect(state, actualNativeBaseOffset, actualCapacity, releaser);
+  }
+
+  /**
+   * Moves the native block of this AllocateDirect into a new AllocateDirect using
+   * unsafe.reallocateMemory(), which may extend the block in place. The contents up to the
+   * smaller of the two capacities are preserved. On success this AllocateDirect is closed without
+   * freeing the block, which invalidates its state.
+   *
+   * <p>Only blocks that were obtained from unsafe.allocateMemory() without alignment padding can
+   * be reallocated. Otherwise this returns null and nothing changes.</p>
+   *
+   * @param newState contains the new capacity
+   * @return the new AllocateDirect or null
+   */
+  AllocateDirect reallocate(final ResourceState newState) {
+    if (!state.isValid()) { return null; }
+    final long oldAddress = deallocator.detach();
+    if (oldAddress == 0L) { return null; }
+    final long newAddress;
+    try {
+      newAddress = unsafe.reallocateMemory(oldAddress, newState.getCapacity());
+    } catch (final OutOfMemoryError e) {
+      deallocator.attach(oldAddress); //the old block is still intact
+      throw e;
+    }
+    close(); //the Deallocator no longer owns the block, so this only invalidates
+    newState.putNativeBaseOffset(newAddress);
+    return new AllocateDirect(newState, newAddress, newState.getCapacity(), FREE_MEMORY);
+  }
+
+  /**
+   * Accounts this allocation to the given tag. An allocation can be tagged only once.
+   * @param tag the owner of this allocation
+   */
+  void tag(final AllocationTag tag) {
+    if (state.getTag() != null) {
+      throw new IllegalStateException("Allocation is already tagged " + state.getTag().getName());
+    }
+    state.putTag(tag);
+    deallocator.tag(tag);
+  }
+
+  static void checkAlignment(final long alignmentBytes) {
+    if ((alignmentBytes <= 0) || ((alignmentBytes & (alignmentBytes - 1L)) != 0)) {
+      throw new IllegalArgumentException(
+              "Alignment must be a positive power of two: " + alignmentBytes);
+    }
+  }
+
+  static long alignUp(final long address, final long alignmentBytes) {
+    return (address + alignmentBytes - 1L) & -alignmentBytes;
   }
 
   @Override
   public void close() {
     try {
-      if (state.isValid()) {
-        ResourceState.currentDirectMemoryAllocations_.decrementAndGet();
-        ResourceState.currentDirectMemoryAllocated_.addAndGet(-state.getCapacity());
-      }
+      deallocator.closed = true;
       cleaner.clean(); //sets invalid
     } catch (final Exception e) {
       throw e;
     }
   }
 
+  /**
+   * Receives a native block back from an AllocateDirect when it is closed or cleaned.
+   */
+  interface Releaser {
+
+    /**
+     * Disposes of the given native block. Called at most once per block.
+     * @param actualNativeBaseOffset the address of the block as it was obtained
+     * @param actualCapacity the size of the block as it was obtained
+     */
+    void release(long actualNativeBaseOffset, long actualCapacity);
+  }
+
+  //Must not reference the ResourceState, which references this AllocateDirect through its
+  //handle, or the Cleaner could never run for an AllocateDirect that is not closed.
   private static final class Deallocator implements Runnable {
-    //This is the only place the actual native offset is kept for use by unsafe.freeMemory();
+    //This is the only place the actual native offset is kept for use by the Releaser;
     //It can never be modified until it is deallocated.
     private long actualNativeBaseOffset; //
-    private final ResourceState parentStateRef;
+    private final long actualCapacity;
+    private final Releaser releaser;
+    private final long nativeBaseOffset;
+    private final long capacity;
+    private final StepBoolean valid;
+    private AllocationTag tag;
+    private final LeakDetector.AllocationSite site; //null unless sampled
+    volatile boolean closed = false; //true if run by close() rather than by the Cleaner
 
-    private Deallocator(final ResourceState state) {
-      actualNativeBaseOffset = state.getNativeBaseOffset();
+    private Deallocator(final ResourceState state, final long actualNativeBaseOffset,
+            final long actualCapacity, final Releaser releaser,
+            final LeakDetector.AllocationSite site) {
+      this.actualNativeBaseOffset = actualNativeBaseOffset;
       assert (actualNativeBaseOffset != 0);
-      parentStateRef = state;
+      this.actualCapacity = actualCapacity;
+      this.releaser = releaser;
+      nativeBaseOffset = state.getNativeBaseOffset();
+      capacity = state.getCapacity();
+      valid = state.getValidFlag();
+      tag = state.getTag();
+      this.site = site;
     }
 
-    @Override
-    public void run() {
-      if (actualNativeBaseOffset == 0) {
-        // Paranoia
-        return;
+    synchronized void tag(final AllocationTag tag) {
+      if (valid.get()) {
+        this.tag = tag;
+        tag.allocated(capacity);
       }
-      unsafe.freeMemory(actualNativeBaseOffset);
+    }
+
+    //Gives up ownership of an unpadded block obtained from unsafe.allocateMemory(),
+    //returns 0 if that is not what this owns. An aligned block is padded even if
+    //the allocator happened to return an already aligned address.
+    synchronized long detach() {
+      if ((releaser != FREE_MEMORY)
+              || (actualNativeBaseOffset != nativeBaseOffset)
+              || (actualCapacity != capacity)) {
+        return 0L;
+      }
+      final long address = actualNativeBaseOffset;
       actualNativeBaseOffset = 0L;
-      parentStateRef.setInvalid(); //The only place valid is set invalid.
+      return address;
+    }
+
+    synchronized void attach(final long address) {
+      actualNativeBaseOffset = address;
+    }
+
+    @Override
+    public synchronized void run() {
+      if (valid.get()) {
+        ResourceState.currentDirectMemoryAllocations_.decrement();
+        ResourceState.currentDirectMemoryAllocated_.add(-capacity);
+        if (tag != null) {
+          tag.freed(capacity);
+        }
+        if ((site != null) && !closed) {
+          LeakDetector.report(site);
+        }
+      }
+      valid.change(); //The only place valid is set invalid.
+      if (actualNativeBaseOffset != 0) { //zero if already released or detached
+        final long address = actualNativeBaseOffset;
+        actualNativeBaseOffset = 0L;
+        if ((releaser != FREE_MEMORY) || !BackgroundReclaimer.free(address, actualCapacity)) {
+          releaser.release(address, actualCapacity);
+        }
+      }
     }
   }
 
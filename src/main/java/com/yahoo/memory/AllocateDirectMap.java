@@ -36,13 +36,20 @@ import sun.nio.ch.FileChannelImpl;
  */
 class AllocateDirectMap implements Map {
   final ResourceState state;
+  private final Deallocator deallocator;
   final Cleaner cleaner;
 
   AllocateDirectMap(final ResourceState state) {
     this.state = state;
-    cleaner = Cleaner.create(this, new Deallocator(state));
-    ResourceState.currentDirectMemoryMapAllocations_.incrementAndGet();
-    ResourceState.currentDirectMemoryMapAllocated_.addAndGet(state.getCapacity());
+    deallocator = new Deallocator(state,
+            LeakDetector.sample("Memory map", state.getCapacity()));
+    cleaner = Cleaner.create(this, deallocator);
+    ResourceState.currentDirectMemoryMapAllocations_.increment();
+    ResourceState.currentDirectMemoryMapAllocated_.add(state.getCapacity());
+    final AllocationTag tag = state.getTag();
+    if (tag != null) {
+      tag.allocated(state.getCapacity());
+    }
   }
 
   /**
@@ -93,10 +100,7 @@ class AllocateDirectMap implements Map {
   @Override
   public void close() {
     try {
-      if (state.isValid()) {
-        ResourceState.currentDirectMemoryMapAllocations_.decrementAndGet();
-        ResourceState.currentDirectMemoryMapAllocated_.addAndGet(-state.getCapacity());
-      }
+      deallocator.closed = true;
       cleaner.clean(); //sets invalid
     } catch (final Exception e) {
       throw e;
@@ -203,8 +207,10 @@ class AllocateDirectMap implements Map {
     private long actualNativeBaseOffset;
     private final long myCapacity;
     private final ResourceState parentStateRef;
+    private final LeakDetector.AllocationSite site; //null unless sampled
+    volatile boolean closed = false; //true if run by close() rather than by the Cleaner
 
-    private Deallocator(final ResourceState state) {
+    private Deallocator(final ResourceState state, final LeakDetector.AllocationSite site) {
       myRaf = state.getRandomAccessFile();
       assert (myRaf != null);
       myFc = myRaf.getChannel();
@@ -213,15 +219,31 @@ class AllocateDirectMap implements Map {
       myCapacity = state.getCapacity();
       assert (myCapacity != 0);
       parentStateRef = state;
+      this.site = site;
     }
 
     @Override
     public void run() {
-      if (myFc != null) {
-        unmap();
+      if (parentStateRef.isValid()) {
+        ResourceState.currentDirectMemoryMapAllocations_.decrement();
+        ResourceState.currentDirectMemoryMapAllocated_.add(-myCapacity);
+        final AllocationTag tag = parentStateRef.getTag();
+        if (tag != null) {
+          tag.freed(myCapacity);
+        }
+        if ((site != null) && !closed) {
+          LeakDetector.report(site);
+        }
       }
-      actualNativeBaseOffset = 0L;
       parentStateRef.setInvalid(); //The only place valid is set invalid.
+      if ((myFc != null) && !BackgroundReclaimer.submit(myCapacity, new Runnable() {
+          @Override
+          public void run() {
+            unmap();
+          }
+        })) {
+        unmap();
+      }
     }
 
     /**
@@ -232,6 +254,7 @@ class AllocateDirectMap implements Map {
         final Method method = FileChannelImpl.class.getDeclaredMethod("unmap0", long.class, long.class);
         method.setAccessible(true);
         method.invoke(myFc, actualNativeBaseOffset, myCapacity);
+        actualNativeBaseOffset = 0L;
         myRaf.close();
       } catch (final Exception e) {
         throw new RuntimeException(
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+/**
+ * Specifies the initial contents of newly allocated direct memory.
+ *
+ * @author Lee Rhodes
+ */
+public enum AllocationMode {
+
+  /**
+   * The memory may contain garbage. This is the fastest mode.
+   */
+  UNINITIALIZED,
+
+  /**
+   * The memory is guaranteed to be all zeros.
+   */
+  ZEROED
+}
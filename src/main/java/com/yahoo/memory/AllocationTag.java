@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named owner of direct (native) memory allocations and memory maps, for example a subsystem or
+ * a cache. Each tag keeps its own live bytes, live count and high-water mark of live bytes, in
+ * addition to the global counters of {@link Memory}.
+ *
+ * <p>Tags are interned by name, so {@link #get(String)} always returns the same tag for the same
+ * name. As with the global counters, memory is counted as live until its handle is closed.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class AllocationTag {
+  private static final ConcurrentHashMap<String, AllocationTag> tags_ = new ConcurrentHashMap<>();
+
+  private final String name;
+  private final AtomicLong liveBytes = new AtomicLong();
+  private final LongAdder liveCount = new LongAdder();
+  private final AtomicLong highWaterBytes = new AtomicLong();
+
+  private AllocationTag(final String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the tag of the given name, creating it if it does not exist.
+   * @param name the name of the tag
+   * @return the tag of the given name
+   */
+  public static AllocationTag get(final String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Tag name may not be null.");
+    }
+    final AllocationTag tag = tags_.get(name);
+    return (tag != null) ? tag : tags_.computeIfAbsent(name, AllocationTag::new);
+  }
+
+  /**
+   * Returns a snapshot of every tag created so far.
+   * @return a snapshot of every tag created so far.
+   */
+  public static List<Snapshot> snapshotAll() {
+    final List<Snapshot> out = new ArrayList<>(tags_.size());
+    for (final AllocationTag tag : tags_.values()) {
+      out.add(tag.snapshot());
+    }
+    return out;
+  }
+
+  /**
+   * Returns a snapshot of the counters of this tag.
+   * @return a snapshot of the counters of this tag.
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(name, liveBytes.get(), liveCount.sum(), highWaterBytes.get());
+  }
+
+  /**
+   * Gets the name of this tag
+   * @return the name of this tag
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of bytes currently allocated under this tag.
+   * @return the number of bytes currently allocated under this tag.
+   */
+  public long getLiveBytes() {
+    return liveBytes.get();
+  }
+
+  /**
+   * Gets the number of allocations currently open under this tag.
+   * @return the number of allocations currently open under this tag.
+   */
+  public long getLiveCount() {
+    return liveCount.sum();
+  }
+
+  /**
+   * Gets the largest number of bytes that have been allocated under this tag at one time.
+   * @return the largest number of bytes that have been allocated under this tag at one time.
+   */
+  public long getHighWaterBytes() {
+    return highWaterBytes.get();
+  }
+
+  /**
+   * Resets the high-water mark to the current live bytes, for example at the start of a
+   * measurement interval.
+   */
+  public void resetHighWaterBytes() {
+    highWaterBytes.set(liveBytes.get());
+  }
+
+  void allocated(final long bytes) {
+    liveCount.increment();
+    final long live = liveBytes.addAndGet(bytes);
+    long high;
+    while ((live > (high = highWaterBytes.get())) && !highWaterBytes.compareAndSet(high, live)) {
+      //retry
+    }
+  }
+
+  void freed(final long bytes) {
+    liveCount.decrement();
+    liveBytes.addAndGet(-bytes);
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  /**
+   * An immutable copy of the counters of one tag at one time.
+   */
+  public static final class Snapshot {
+    private final String name;
+    private final long liveBytes;
+    private final long liveCount;
+    private final long highWaterBytes;
+
+    Snapshot(final String name, final long liveBytes, final long liveCount,
+            final long highWaterBytes) {
+      this.name = name;
+      this.liveBytes = liveBytes;
+      this.liveCount = liveCount;
+      this.highWaterBytes = highWaterBytes;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getLiveBytes() {
+      return liveBytes;
+    }
+
+    public long getLiveCount() {
+      return liveCount;
+    }
+
+    public long getHighWaterBytes() {
+      return highWaterBytes;
+    }
+
+    @Override
+    public String toString() {
+      return name + ": liveBytes=" + liveBytes + ", liveCount=" + liveCount
+              + ", highWaterBytes=" + highWaterBytes;
+    }
+  }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An optional background thread that frees large native blocks and unmaps large memory maps on
+ * behalf of the threads that close them.
+ *
+ * <p>While a reclaimer is running, closing a direct allocation or memory map of at least
+ * <i>minAsyncBytes</i> invalidates its Memory and updates the allocation counters immediately,
+ * then queues the free or unmap for the reclaimer thread and returns. If the bounded queue is
+ * full, the closing thread reclaims the resource itself. Blocks owned by a MemoryManager with its
+ * own Releaser, such as a PooledMemoryManager, are always returned synchronously.</p>
+ *
+ * <p>At most one reclaimer runs at a time. It is started with {@link #start(long, int)} and
+ * stopped with {@link #close()}, which waits until all queued resources are reclaimed.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class BackgroundReclaimer implements AutoCloseable {
+  private static volatile BackgroundReclaimer running_ = null;
+  private static final Reclaim STOP = new Reclaim(0L, 0L, null);
+
+  private final long minAsyncBytes;
+  private final ArrayBlockingQueue<Reclaim> queue;
+  private final Thread thread;
+  private final LongAdder reclaimedCount = new LongAdder();
+  private final LongAdder reclaimedBytes = new LongAdder();
+  private final LongAdder pendingBytes = new LongAdder();
+  private final LongAdder syncFallbacks = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private boolean closed = false;
+
+  private BackgroundReclaimer(final long minAsyncBytes, final int maxQueued) {
+    this.minAsyncBytes = minAsyncBytes;
+    queue = new ArrayBlockingQueue<>(maxQueued + 1); //room for STOP
+    thread = new Thread("BackgroundReclaimer") {
+      @Override
+      public void run() {
+        reclaimLoop();
+      }
+    };
+    thread.setDaemon(true);
+  }
+
+  /**
+   * Starts the background reclaimer.
+   * @param minAsyncBytes the smallest resource, in bytes, that is reclaimed in the background
+   * @param maxQueued the maximum number of resources waiting to be reclaimed
+   * @return the running reclaimer
+   */
+  public static synchronized BackgroundReclaimer start(final long minAsyncBytes,
+          final int maxQueued) {
+    if ((minAsyncBytes < 0) || (maxQueued <= 0)) {
+      throw new IllegalArgumentException(
+              "minAsyncBytes: " + minAsyncBytes + ", maxQueued: " + maxQueued);
+    }
+    if (running_ != null) {
+      throw new IllegalStateException("A BackgroundReclaimer is already running.");
+    }
+    final BackgroundReclaimer reclaimer = new BackgroundReclaimer(minAsyncBytes, maxQueued);
+    reclaimer.thread.start();
+    running_ = reclaimer;
+    return reclaimer;
+  }
+
+  /**
+   * Gets the running reclaimer
+   * @return the running reclaimer, or null if none is running
+   */
+  public static BackgroundReclaimer getRunning() {
+    return running_;
+  }
+
+  /**
+   * Stops accepting resources, waits until all queued resources are reclaimed and stops the
+   * reclaimer thread.
+   */
+  @Override
+  public void close() {
+    synchronized (BackgroundReclaimer.class) {
+      if (running_ == this) { running_ = null; }
+    }
+    synchronized (this) {
+      if (closed) { return; }
+      closed = true;
+    }
+    queue.add(STOP); //never full, no offers are accepted after closed
+    boolean interrupted = false;
+    while (thread.isAlive()) {
+      try {
+        thread.join();
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) { Thread.currentThread().interrupt(); }
+  }
+
+  /**
+   * Gets the number of resources reclaimed by the background thread.
+   * @return the number of resources reclaimed by the background thread.
+   */
+  public long getReclaimedCount() {
+    return reclaimedCount.sum();
+  }
+
+  /**
+   * Gets the number of bytes reclaimed by the background thread.
+   * @return the number of bytes reclaimed by the background thread.
+   */
+  public long getReclaimedBytes() {
+    return reclaimedBytes.sum();
+  }
+
+  /**
+   * Gets the number of bytes closed but not yet reclaimed.
+   * @return the number of bytes closed but not yet reclaimed.
+   */
+  public long getPendingBytes() {
+    return pendingBytes.sum();
+  }
+
+  /**
+   * Gets the number of resources waiting to be reclaimed.
+   * @return the number of resources waiting to be reclaimed.
+   */
+  public int getQueuedCount() {
+    return queue.size();
+  }
+
+  /**
+   * Gets the number of resources that were reclaimed by the closing thread because the queue
+   * was full.
+   * @return the number of resources reclaimed synchronously because the queue was full.
+   */
+  public long getSyncFallbackCount() {
+    return syncFallbacks.sum();
+  }
+
+  /**
+   * Gets the number of resources whose reclamation threw an exception.
+   * @return the number of resources whose reclamation threw an exception.
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  //Returns true if the running reclaimer accepted the native block for freeing
+  static boolean free(final long address, final long bytes) {
+    final BackgroundReclaimer reclaimer = running_;
+    return (reclaimer != null) && reclaimer.offer(new Reclaim(address, bytes, null));
+  }
+
+  //Returns true if the running reclaimer accepted the task, for example an unmap
+  static boolean submit(final long bytes, final Runnable task) {
+    final BackgroundReclaimer reclaimer = running_;
+    return (reclaimer != null) && reclaimer.offer(new Reclaim(0L, bytes, task));
+  }
+
+  private boolean offer(final Reclaim reclaim) {
+    if (reclaim.bytes < minAsyncBytes) { return false; }
+    synchronized (this) {
+      if (closed) { return false; }
+      if (queue.remainingCapacity() <= 1) { //keep room for STOP
+        syncFallbacks.increment();
+        return false;
+      }
+      pendingBytes.add(reclaim.bytes);
+      queue.add(reclaim);
+    }
+    return true;
+  }
+
+  private void reclaimLoop() {
+    while (true) {
+      final Reclaim reclaim;
+      try {
+        reclaim = queue.take();
+      } catch (final InterruptedException e) {
+        continue; //only close() stops this thread
+      }
+      if (reclaim == STOP) { return; }
+      try {
+        if (reclaim.task == null) {
+          unsafe.freeMemory(reclaim.address);
+        } else {
+          reclaim.task.run();
+        }
+        reclaimedCount.increment();
+        reclaimedBytes.add(reclaim.bytes);
+      } catch (final RuntimeException e) {
+        failures.increment();
+      } finally {
+        pendingBytes.add(-reclaim.bytes);
+      }
+    }
+  }
+
+  private static final class Reclaim {
+    final long address;
+    final long bytes;
+    final Runnable task;
+
+    Reclaim(final long address, final long bytes, final Runnable task) {
+      this.address = address;
+      this.bytes = bytes;
+      this.task = task;
+    }
+  }
+
+}
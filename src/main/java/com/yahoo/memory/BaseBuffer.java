@@ -137,10 +137,33 @@ class BaseBuffer {
     return (end - pos) > 0;
   }
 
+  /**
+   * Checks the invariants with a Java assert, or, if {@link UnsafeUtil#CHECK_BOUNDS} is set, with
+   * {@link #checkInvariants(long, long, long, long)} instead.
+   */
   static final void assertInvariants(final long start, final long pos, final long end,
       final long cap) {
+    if (UnsafeUtil.CHECK_BOUNDS) {
+      checkInvariants(start, pos, end, cap);
+      return;
+    }
     assert (start | pos | end | cap | (pos - start) | (end - pos) | (cap - end) ) >= 0L
-        : "Violation of Invariants: "
+        : invariantsMessage(start, pos, end, cap);
+  }
+
+  /**
+   * Throws an IllegalArgumentException unless {@code 0 <= start <= pos <= end <= cap}.
+   */
+  static final void checkInvariants(final long start, final long pos, final long end,
+      final long cap) {
+    if ((start | pos | end | cap | (pos - start) | (end - pos) | (cap - end) ) < 0L) {
+      throw new IllegalArgumentException(invariantsMessage(start, pos, end, cap));
+    }
+  }
+
+  private static String invariantsMessage(final long start, final long pos, final long end,
+      final long cap) {
+    return "Violation of Invariants: "
         + "start: " + start
         + " <= pos: " + pos
         + " <= end: " + end
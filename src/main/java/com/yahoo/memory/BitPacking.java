@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.CompareAndCopy.getLongLE;
+import static com.yahoo.memory.CompareAndCopy.putLongLE;
+import static com.yahoo.memory.UnsafeUtil.assertBounds;
+
+/**
+ * Stores arrays of unsigned integers of 1 to 64 bits each contiguously in a region of Memory.
+ *
+ * <p>The region is a sequence of little-endian 64-bit words, so the layout is the same for every
+ * kind of resource and byte order. Value <i>i</i> occupies bits <i>[i * bits, (i + 1) * bits)</i>
+ * of the region, where bit <i>k</i> is bit <i>(k &amp; 63)</i> of word <i>k &gt;&gt;&gt; 6</i>.
+ * A region of <i>count</i> values takes {@link #packedBytes(long, int)} bytes, which is always a
+ * whole number of words.</p>
+ *
+ * <p>The bulk methods read and write whole words. Widths that divide 64 use a kernel with a
+ * fixed number of values per word and no values spanning words. Other widths use a kernel that
+ * carries the bits that spill across each word boundary, so it never branches per value on
+ * anything but the word boundary.</p>
+ *
+ * <p>The random access {@link #set(WritableMemory, long, int, long, long)} is a plain
+ * read-modify-write and is not safe for concurrent writers of neighboring values.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class BitPacking {
+
+  private BitPacking() { }
+
+  /**
+   * Returns the number of bytes needed to pack the given number of values, rounded up to a whole
+   * number of 64-bit words.
+   * @param count the number of values
+   * @param bitsPerValue the number of bits per value, from 1 to 64
+   * @return the number of bytes needed to pack the given number of values
+   */
+  public static long packedBytes(final long count, final int bitsPerValue) {
+    checkBitsPerValue(bitsPerValue);
+    return ((count * bitsPerValue) + 63L) >>> 6 << 3;
+  }
+
+  /**
+   * Packs values from the given array into the region of the given Memory starting at
+   * dstOffsetBytes. Each value is truncated to its low <i>bitsPerValue</i> bits. Exactly
+   * <i>packedBytes(length, bitsPerValue)</i> bytes are written, and the unused high bits of the
+   * last word are cleared.
+   * @param src the source array
+   * @param srcOffset the offset of the first value in the source array
+   * @param length the number of values to pack
+   * @param bitsPerValue the number of bits per value, from 1 to 64
+   * @param dst the destination Memory
+   * @param dstOffsetBytes the offset of the packed region in the destination
+   */
+  public static void pack(final long[] src, final int srcOffset, final int length,
+          final int bitsPerValue, final WritableMemory dst, final long dstOffsetBytes) {
+    final WritableMemoryImpl impl = (WritableMemoryImpl) dst;
+    impl.checkValid();
+    assertBounds(dstOffsetBytes, packedBytes(length, bitsPerValue), impl.capacity);
+    assertBounds(srcOffset, length, src.length);
+    final Object obj = impl.unsafeObj;
+    long p = impl.cumBaseOffset + dstOffsetBytes;
+    if (bitsPerValue == 64) {
+      for (int i = 0; i < length; i++, p += 8) {
+        putLongLE(obj, p, src[srcOffset + i]);
+      }
+      return;
+    }
+    final long mask = (1L << bitsPerValue) - 1L;
+    final int end = srcOffset + length;
+    int i = srcOffset;
+    if ((64 % bitsPerValue) == 0) {
+      final int perWord = 64 / bitsPerValue;
+      for ( ; i <= (end - perWord); p += 8) {
+        long word = 0;
+        for (int shift = 0; shift < 64; shift += bitsPerValue) {
+          word |= (src[i++] & mask) << shift;
+        }
+        putLongLE(obj, p, word);
+      }
+      if (i < end) {
+        long word = 0;
+        for (int shift = 0; i < end; shift += bitsPerValue) {
+          word |= (src[i++] & mask) << shift;
+        }
+        putLongLE(obj, p, word);
+      }
+      return;
+    }
+    long word = 0;
+    int used = 0; //bits of word already filled
+    for ( ; i < end; i++) {
+      final long v = src[i] & mask;
+      word |= v << used;
+      used += bitsPerValue;
+      if (used >= 64) {
+        putLongLE(obj, p, word);
+        p += 8;
+        used -= 64;
+        word = (used == 0) ? 0 : (v >>> (bitsPerValue - used));
+      }
+    }
+    if (used > 0) {
+      putLongLE(obj, p, word);
+    }
+  }
+
+  /**
+   * Unpacks values from the region of the given Memory starting at srcOffsetBytes into the given
+   * array.
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the packed region in the source
+   * @param bitsPerValue the number of bits per value, from 1 to 64
+   * @param dst the destination array
+   * @param dstOffset the offset of the first value in the destination array
+   * @param length the number of values to unpack
+   */
+  public static void unpack(final Memory src, final long srcOffsetBytes, final int bitsPerValue,
+          final long[] dst, final int dstOffset, final int length) {
+    final WritableMemoryImpl impl = (WritableMemoryImpl) src;
+    impl.checkValid();
+    assertBounds(srcOffsetBytes, packedBytes(length, bitsPerValue), impl.capacity);
+    assertBounds(dstOffset, length, dst.length);
+    final Object obj = impl.unsafeObj;
+    long p = impl.cumBaseOffset + srcOffsetBytes;
+    if (bitsPerValue == 64) {
+      for (int i = 0; i < length; i++, p += 8) {
+        dst[dstOffset + i] = getLongLE(obj, p);
+      }
+      return;
+    }
+    final long mask = (1L << bitsPerValue) - 1L;
+    final int end = dstOffset + length;
+    int i = dstOffset;
+    if ((64 % bitsPerValue) == 0) {
+      final int perWord = 64 / bitsPerValue;
+      for ( ; i <= (end - perWord); p += 8) {
+        final long word = getLongLE(obj, p);
+        for (int shift = 0; shift < 64; shift += bitsPerValue) {
+          dst[i++] = (word >>> shift) & mask;
+        }
+      }
+      if (i < end) {
+        final long word = getLongLE(obj, p);
+        for (int shift = 0; i < end; shift += bitsPerValue) {
+          dst[i++] = (word >>> shift) & mask;
+        }
+      }
+      return;
+    }
+    long word = 0;
+    int avail = 0; //bits of word not yet consumed
+    for ( ; i < end; i++) {
+      if (avail >= bitsPerValue) {
+        dst[i] = word & mask;
+        word >>>= bitsPerValue;
+        avail -= bitsPerValue;
+      } else {
+        final long next = getLongLE(obj, p);
+        p += 8;
+        dst[i] = (word | (next << avail)) & mask;
+        final int taken = bitsPerValue - avail; //from 1 to 63
+        word = next >>> taken;
+        avail = 64 - taken;
+      }
+    }
+  }
+
+  /**
+   * Gets the value with the given index from the packed region of the given Memory.
+   * @param mem the Memory
+   * @param offsetBytes the offset of the packed region
+   * @param bitsPerValue the number of bits per value, from 1 to 64
+   * @param index the index of the value
+   * @return the value
+   */
+  public static long get(final Memory mem, final long offsetBytes, final int bitsPerValue,
+          final long index) {
+    final WritableMemoryImpl impl = (WritableMemoryImpl) mem;
+    impl.checkValid();
+    final long mask = mask(bitsPerValue);
+    final long bitPos = index * bitsPerValue;
+    final int shift = (int) (bitPos & 63L);
+    final boolean spans = (shift + bitsPerValue) > 64;
+    final long wordOffset = offsetBytes + ((bitPos >>> 6) << 3);
+    assertBounds(wordOffset, spans ? 16 : 8, impl.capacity);
+    final long add = impl.cumBaseOffset + wordOffset;
+    long v = getLongLE(impl.unsafeObj, add) >>> shift;
+    if (spans) {
+      v |= getLongLE(impl.unsafeObj, add + 8) << (64 - shift);
+    }
+    return v & mask;
+  }
+
+  /**
+   * Sets the value with the given index in the packed region of the given Memory. The value is
+   * truncated to its low <i>bitsPerValue</i> bits.
+   * @param mem the Memory
+   * @param offsetBytes the offset of the packed region
+   * @param bitsPerValue the number of bits per value, from 1 to 64
+   * @param index the index of the value
+   * @param value the value
+   */
+  public static void set(final WritableMemory mem, final long offsetBytes, final int bitsPerValue,
+          final long index, final long value) {
+    final WritableMemoryImpl impl = (WritableMemoryImpl) mem;
+    impl.checkValid();
+    final long mask = mask(bitsPerValue);
+    final long v = value & mask;
+    final long bitPos = index * bitsPerValue;
+    final int shift = (int) (bitPos & 63L);
+    final int spill = (shift + bitsPerValue) - 64; //bits in the next word if positive
+    final long wordOffset = offsetBytes + ((bitPos >>> 6) << 3);
+    assertBounds(wordOffset, (spill > 0) ? 16 : 8, impl.capacity);
+    final Object obj = impl.unsafeObj;
+    final long add = impl.cumBaseOffset + wordOffset;
+    putLongLE(obj, add, (getLongLE(obj, add) & ~(mask << shift)) | (v << shift));
+    if (spill > 0) {
+      final long spillMask = (1L << spill) - 1L;
+      putLongLE(obj, add + 8,
+          (getLongLE(obj, add + 8) & ~spillMask) | (v >>> (bitsPerValue - spill)));
+    }
+  }
+
+  private static long mask(final int bitsPerValue) {
+    checkBitsPerValue(bitsPerValue);
+    return -1L >>> (64 - bitsPerValue);
+  }
+
+  static void checkBitsPerValue(final int bitsPerValue) {
+    if ((bitsPerValue < 1) || (bitsPerValue > 64)) {
+      throw new IllegalArgumentException("Bits per value must be from 1 to 64: " + bitsPerValue);
+    }
+  }
+
+}
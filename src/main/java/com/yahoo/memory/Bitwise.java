@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.CompareAndCopy.PARALLEL_LEAF_BYTES;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bitwise operations and population counts over ranges of bytes that are addressable by Unsafe.
+ *
+ * <p>The ranges are processed 64 bits at a time, with the word loops unrolled four times so that
+ * the JIT can overlap the independent loads and stores. A tail of fewer than eight bytes is
+ * processed one byte at a time. Because every operation acts on each bit position
+ * independently, the results do not depend on the byte order of either range.</p>
+ *
+ * <p>Very large ranges can be split across the threads of a ForkJoinPool, in word aligned pieces
+ * of at least PARALLEL_LEAF_BYTES bytes.</p>
+ *
+ * @author Lee Rhodes
+ */
+final class Bitwise {
+  static final int AND = 0;
+  static final int OR = 1;
+  static final int XOR = 2;
+  static final int AND_NOT = 3;
+
+  private Bitwise() { }
+
+  /**
+   * Combines the source range into the destination range with the given operation.
+   * The ranges may be identical, but must not otherwise overlap.
+   * @param op one of AND, OR, XOR or AND_NOT
+   * @param dstObj the array object of the destination, or null for native memory
+   * @param dstAdd the cumulative offset of the destination
+   * @param srcObj the array object of the source, or null for native memory
+   * @param srcAdd the cumulative offset of the source
+   * @param lengthBytes the number of bytes to combine
+   */
+  static void apply(final int op, final Object dstObj, final long dstAdd, final Object srcObj,
+          final long srcAdd, final long lengthBytes) {
+    final long words = lengthBytes & -8L;
+    switch (op) {
+      case AND: and(dstObj, dstAdd, srcObj, srcAdd, words); break;
+      case OR: or(dstObj, dstAdd, srcObj, srcAdd, words); break;
+      case XOR: xor(dstObj, dstAdd, srcObj, srcAdd, words); break;
+      case AND_NOT: andNot(dstObj, dstAdd, srcObj, srcAdd, words); break;
+      default: throw new IllegalArgumentException("Unknown operation: " + op);
+    }
+    for (long i = words; i < lengthBytes; i++) {
+      final long d = dstAdd + i;
+      final byte a = unsafe.getByte(dstObj, d);
+      final byte b = unsafe.getByte(srcObj, srcAdd + i);
+      final int v;
+      switch (op) {
+        case AND: v = a & b; break;
+        case OR: v = a | b; break;
+        case XOR: v = a ^ b; break;
+        default: v = a & ~b; break;
+      }
+      unsafe.putByte(dstObj, d, (byte) v);
+    }
+  }
+
+  /**
+   * Combines the source range into the destination range using the threads of the given pool.
+   * The ranges may be identical, but must not otherwise overlap.
+   * @param pool the ForkJoinPool that runs the operation
+   * @param op one of AND, OR, XOR or AND_NOT
+   * @param dstObj the array object of the destination, or null for native memory
+   * @param dstAdd the cumulative offset of the destination
+   * @param srcObj the array object of the source, or null for native memory
+   * @param srcAdd the cumulative offset of the source
+   * @param lengthBytes the number of bytes to combine
+   */
+  static void parallelApply(final ForkJoinPool pool, final int op, final Object dstObj,
+          final long dstAdd, final Object srcObj, final long srcAdd, final long lengthBytes) {
+    if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+      apply(op, dstObj, dstAdd, srcObj, srcAdd, lengthBytes);
+      return;
+    }
+    pool.invoke(new ApplyTask(op, dstObj, dstAdd, srcObj, srcAdd, lengthBytes));
+  }
+
+  /**
+   * Returns the number of one bits in the given range.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the length of the range
+   * @return the number of one bits in the given range
+   */
+  static long popCount(final Object obj, final long add, final long lengthBytes) {
+    long c0 = 0;
+    long c1 = 0;
+    long c2 = 0;
+    long c3 = 0;
+    long i = 0;
+    for ( ; i <= (lengthBytes - 32); i += 32) {
+      final long p = add + i;
+      c0 += Long.bitCount(unsafe.getLong(obj, p));
+      c1 += Long.bitCount(unsafe.getLong(obj, p + 8));
+      c2 += Long.bitCount(unsafe.getLong(obj, p + 16));
+      c3 += Long.bitCount(unsafe.getLong(obj, p + 24));
+    }
+    for ( ; i <= (lengthBytes - 8); i += 8) {
+      c0 += Long.bitCount(unsafe.getLong(obj, add + i));
+    }
+    for ( ; i < lengthBytes; i++) {
+      c0 += Integer.bitCount(unsafe.getByte(obj, add + i) & 0XFF);
+    }
+    return c0 + c1 + c2 + c3;
+  }
+
+  /**
+   * Returns the number of one bits in the given range using the threads of the given pool.
+   * @param pool the ForkJoinPool that runs the count
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the length of the range
+   * @return the number of one bits in the given range
+   */
+  static long parallelPopCount(final ForkJoinPool pool, final Object obj, final long add,
+          final long lengthBytes) {
+    if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+      return popCount(obj, add, lengthBytes);
+    }
+    return pool.invoke(new PopCountTask(obj, add, lengthBytes));
+  }
+
+  private static void and(final Object dstObj, final long dstAdd, final Object srcObj,
+          final long srcAdd, final long words) {
+    long i = 0;
+    for ( ; i <= (words - 32); i += 32) {
+      final long d = dstAdd + i;
+      final long s = srcAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) & unsafe.getLong(srcObj, s));
+      unsafe.putLong(dstObj, d + 8, unsafe.getLong(dstObj, d + 8) & unsafe.getLong(srcObj, s + 8));
+      unsafe.putLong(dstObj, d + 16,
+          unsafe.getLong(dstObj, d + 16) & unsafe.getLong(srcObj, s + 16));
+      unsafe.putLong(dstObj, d + 24,
+          unsafe.getLong(dstObj, d + 24) & unsafe.getLong(srcObj, s + 24));
+    }
+    for ( ; i < words; i += 8) {
+      final long d = dstAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) & unsafe.getLong(srcObj, srcAdd + i));
+    }
+  }
+
+  private static void or(final Object dstObj, final long dstAdd, final Object srcObj,
+          final long srcAdd, final long words) {
+    long i = 0;
+    for ( ; i <= (words - 32); i += 32) {
+      final long d = dstAdd + i;
+      final long s = srcAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) | unsafe.getLong(srcObj, s));
+      unsafe.putLong(dstObj, d + 8, unsafe.getLong(dstObj, d + 8) | unsafe.getLong(srcObj, s + 8));
+      unsafe.putLong(dstObj, d + 16,
+          unsafe.getLong(dstObj, d + 16) | unsafe.getLong(srcObj, s + 16));
+      unsafe.putLong(dstObj, d + 24,
+          unsafe.getLong(dstObj, d + 24) | unsafe.getLong(srcObj, s + 24));
+    }
+    for ( ; i < words; i += 8) {
+      final long d = dstAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) | unsafe.getLong(srcObj, srcAdd + i));
+    }
+  }
+
+  private static void xor(final Object dstObj, final long dstAdd, final Object srcObj,
+          final long srcAdd, final long words) {
+    long i = 0;
+    for ( ; i <= (words - 32); i += 32) {
+      final long d = dstAdd + i;
+      final long s = srcAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) ^ unsafe.getLong(srcObj, s));
+      unsafe.putLong(dstObj, d + 8, unsafe.getLong(dstObj, d + 8) ^ unsafe.getLong(srcObj, s + 8));
+      unsafe.putLong(dstObj, d + 16,
+          unsafe.getLong(dstObj, d + 16) ^ unsafe.getLong(srcObj, s + 16));
+      unsafe.putLong(dstObj, d + 24,
+          unsafe.getLong(dstObj, d + 24) ^ unsafe.getLong(srcObj, s + 24));
+    }
+    for ( ; i < words; i += 8) {
+      final long d = dstAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) ^ unsafe.getLong(srcObj, srcAdd + i));
+    }
+  }
+
+  private static void andNot(final Object dstObj, final long dstAdd, final Object srcObj,
+          final long srcAdd, final long words) {
+    long i = 0;
+    for ( ; i <= (words - 32); i += 32) {
+      final long d = dstAdd + i;
+      final long s = srcAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) & ~unsafe.getLong(srcObj, s));
+      unsafe.putLong(dstObj, d + 8,
+          unsafe.getLong(dstObj, d + 8) & ~unsafe.getLong(srcObj, s + 8));
+      unsafe.putLong(dstObj, d + 16,
+          unsafe.getLong(dstObj, d + 16) & ~unsafe.getLong(srcObj, s + 16));
+      unsafe.putLong(dstObj, d + 24,
+          unsafe.getLong(dstObj, d + 24) & ~unsafe.getLong(srcObj, s + 24));
+    }
+    for ( ; i < words; i += 8) {
+      final long d = dstAdd + i;
+      unsafe.putLong(dstObj, d, unsafe.getLong(dstObj, d) & ~unsafe.getLong(srcObj, srcAdd + i));
+    }
+  }
+
+  private static final class ApplyTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int op;
+    private final transient Object dstObj;
+    private final long dstAdd;
+    private final transient Object srcObj;
+    private final long srcAdd;
+    private final long lengthBytes;
+
+    ApplyTask(final int op, final Object dstObj, final long dstAdd, final Object srcObj,
+            final long srcAdd, final long lengthBytes) {
+      this.op = op;
+      this.dstObj = dstObj;
+      this.dstAdd = dstAdd;
+      this.srcObj = srcObj;
+      this.srcAdd = srcAdd;
+      this.lengthBytes = lengthBytes;
+    }
+
+    @Override
+    protected void compute() {
+      if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+        apply(op, dstObj, dstAdd, srcObj, srcAdd, lengthBytes);
+        return;
+      }
+      final long half = (lengthBytes >>> 1) & -8L; //keeps the halves word aligned
+      invokeAll(new ApplyTask(op, dstObj, dstAdd, srcObj, srcAdd, half),
+          new ApplyTask(op, dstObj, dstAdd + half, srcObj, srcAdd + half, lengthBytes - half));
+    }
+  }
+
+  private static final class PopCountTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+    private final transient Object obj;
+    private final long add;
+    private final long lengthBytes;
+
+    PopCountTask(final Object obj, final long add, final long lengthBytes) {
+      this.obj = obj;
+      this.add = add;
+      this.lengthBytes = lengthBytes;
+    }
+
+    @Override
+    protected Long compute() {
+      if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+        return popCount(obj, add, lengthBytes);
+      }
+      final long half = (lengthBytes >>> 1) & -8L; //keeps the halves word aligned
+      final PopCountTask high = new PopCountTask(obj, add + half, lengthBytes - half);
+      high.fork();
+      final long low = new PopCountTask(obj, add, half).compute();
+      return low + high.join();
+    }
+  }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import sun.misc.Cleaner;
+
+/**
+ * A MemoryManager that admits direct (native) allocations of a delegate MemoryManager only while
+ * they fit within a fixed byte budget.
+ *
+ * <p>When an allocation does not fit, the caller either fails immediately, waits until enough
+ * handles have been closed, or waits up to a timeout, depending on the maxWaitMillis given at
+ * construction. Failure throws a {@link MemoryBudgetException}. Waiting callers are admitted in
+ * arrival order, so a large request is not starved by a stream of small ones.</p>
+ *
+ * <p>The budget is charged the requested capacity and refunded when the handle is closed, or
+ * when it is reclaimed by the garbage collector if it never was. Memory held by the delegate
+ * itself, for example idle blocks of a PooledMemoryManager, is not charged.
+ * All requests, including {@link #request(long)}, are served from direct memory.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class BudgetedMemoryManager implements MemoryManager {
+  private final MemoryManager delegate;
+  private final long budgetBytes;
+  private final long maxWaitNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final ArrayDeque<Thread> waiters = new ArrayDeque<>();
+  private long availableBytes;
+
+  /**
+   * Creates a budget over the given MemoryManager.
+   * @param delegate the MemoryManager that performs the allocations
+   * @param budgetBytes the maximum number of bytes that may be allocated at any time
+   * @param maxWaitMillis how long an allocation may wait for budget: negative to wait
+   * indefinitely, zero to fail immediately, otherwise the timeout in milliseconds.
+   */
+  public BudgetedMemoryManager(final MemoryManager delegate, final long budgetBytes,
+          final long maxWaitMillis) {
+    if (budgetBytes <= 0) {
+      throw new IllegalArgumentException("Budget may not be negative or zero.");
+    }
+    this.delegate = delegate;
+    this.budgetBytes = budgetBytes;
+    maxWaitNanos = (maxWaitMillis < 0) ? -1L : TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    availableBytes = budgetBytes;
+  }
+
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes) {
+    acquire(capacityBytes);
+    final WritableDirectHandle handle;
+    try {
+      handle = delegate.allocateDirect(capacityBytes);
+    } catch (final RuntimeException | Error e) {
+      release(capacityBytes);
+      throw e;
+    }
+    return new BudgetedHandle(handle, capacityBytes);
+  }
+
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes, final long alignmentBytes) {
+    acquire(capacityBytes);
+    final WritableDirectHandle handle;
+    try {
+      handle = delegate.allocateDirect(capacityBytes, alignmentBytes);
+    } catch (final RuntimeException | Error e) {
+      release(capacityBytes);
+      throw e;
+    }
+    return new BudgetedHandle(handle, capacityBytes);
+  }
+
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes,
+          final AllocationMode mode) {
+    acquire(capacityBytes);
+    final WritableDirectHandle handle;
+    try {
+      handle = delegate.allocateDirect(capacityBytes, mode);
+    } catch (final RuntimeException | Error e) {
+      release(capacityBytes);
+      throw e;
+    }
+    return new BudgetedHandle(handle, capacityBytes);
+  }
+
+  @Override
+  public WritableMemory request(final long capacityBytes) {
+    return allocateDirect(capacityBytes).get();
+  }
+
+  @Override
+  public void requestClose(final WritableMemory memoryToClose, final WritableMemory newMemory) {
+    final WritableDirectHandle handle = memoryToClose.getHandle();
+    if (handle != null) {
+      handle.close();
+    }
+  }
+
+  /**
+   * Gets the budget in bytes
+   * @return the budget in bytes
+   */
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  /**
+   * Gets the number of bytes of the budget that are currently not allocated.
+   * @return the number of bytes of the budget that are currently not allocated.
+   */
+  public long getAvailableBytes() {
+    lock.lock();
+    try {
+      return availableBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the number of threads currently waiting for budget.
+   * @return the number of threads currently waiting for budget.
+   */
+  public int getWaitingThreads() {
+    lock.lock();
+    try {
+      return waiters.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void acquire(final long bytes) {
+    if ((bytes <= 0) || (bytes > budgetBytes)) {
+      throw new IllegalArgumentException(
+              "Request of " + bytes + " bytes can never fit in a budget of " + budgetBytes);
+    }
+    lock.lock();
+    try {
+      if (waiters.isEmpty() && (bytes <= availableBytes)) {
+        availableBytes -= bytes;
+        return;
+      }
+      if (maxWaitNanos == 0) {
+        throw new MemoryBudgetException("Request of " + bytes + " bytes exceeds the "
+                + availableBytes + " bytes available in the budget.");
+      }
+      final Thread me = Thread.currentThread();
+      waiters.addLast(me);
+      try {
+        long nanos = maxWaitNanos;
+        while ((waiters.peekFirst() != me) || (bytes > availableBytes)) {
+          if (maxWaitNanos < 0) {
+            released.await();
+          } else {
+            if (nanos <= 0) {
+              throw new MemoryBudgetException("Timed out waiting for " + bytes
+                      + " bytes of budget, " + availableBytes + " bytes are available.");
+            }
+            nanos = released.awaitNanos(nanos);
+          }
+        }
+        availableBytes -= bytes;
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MemoryBudgetException("Interrupted waiting for " + bytes + " bytes of budget.", e);
+      } finally {
+        waiters.remove(me);
+        released.signalAll(); //the next in line may proceed
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void release(final long bytes) {
+    lock.lock();
+    try {
+      availableBytes += bytes;
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A handle that refunds its charge to the budget exactly once, when it is closed or when it is
+   * reclaimed by the garbage collector.
+   */
+  private final class BudgetedHandle extends WritableDirectHandle {
+    private final Cleaner cleaner;
+
+    BudgetedHandle(final WritableDirectHandle handle, final long bytes) {
+      super(handle.direct, handle.wMem);
+      cleaner = Cleaner.create(this, new Refund(BudgetedMemoryManager.this, bytes));
+      wMem.setMemoryRequest(BudgetedMemoryManager.this);
+      wMem.setHandle(this);
+    }
+
+    @Override
+    public void close() {
+      try {
+        super.close();
+      } finally {
+        cleaner.clean();
+      }
+    }
+  }
+
+  private static final class Refund implements Runnable {
+    private final BudgetedMemoryManager budget;
+    private final long bytes;
+
+    Refund(final BudgetedMemoryManager budget, final long bytes) {
+      this.budget = budget;
+      this.bytes = bytes;
+    }
+
+    @Override
+    public void run() {
+      budget.release(bytes);
+    }
+  }
+
+}
@@ -5,6 +5,7 @@
 
 package com.yahoo.memory;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -33,7 +34,7 @@ public abstract class Buffer extends BaseBuffer {
     final ResourceState state = new ResourceState();
     state.putByteBuffer(byteBuf);
     AccessByteBuffer.wrap(state);
-    return new WritableBufferImpl(state);
+    return WritableBufferImpl.newInstance(state);
   }
 
   //MAP XXX
@@ -257,6 +258,69 @@ public abstract class Buffer extends BaseBuffer {
    */
   public abstract void getShortArray(short[] dstArray, int dstOffset, int length);
 
+  //VARIABLE LENGTH INTEGERS XXX
+  /**
+   * Gets the unsigned LEB128 variable length long at the current position. Increments the
+   * position by the length of the encoded value.
+   * @return the decoded long
+   * @throws IllegalArgumentException if the encoding runs past the end position or is longer
+   * than 10 bytes
+   */
+  public abstract long getVarLong();
+
+  /**
+   * Gets the unsigned LEB128 variable length int at the current position. Increments the
+   * position by the length of the encoded value.
+   * @return the decoded int
+   */
+  public int getVarInt() {
+    return (int) getVarLong();
+  }
+
+  /**
+   * Gets the zigzag encoded variable length long at the current position. Increments the
+   * position by the length of the encoded value.
+   * @return the decoded long
+   */
+  public long getZigZagVarLong() {
+    return VarInt.decodeZigZag(getVarLong());
+  }
+
+  /**
+   * Gets the zigzag encoded variable length int at the current position. Increments the
+   * position by the length of the encoded value.
+   * @return the decoded int
+   */
+  public int getZigZagVarInt() {
+    return (int) VarInt.decodeZigZag(getVarLong() & 0XFFFFFFFFL);
+  }
+
+  //UTF-8 XXX
+  /**
+   * Decodes the given number of UTF-8 bytes at the current position and appends the chars to the
+   * destination. Increments the position by <i>utf8LengthBytes</i>.
+   * @param utf8LengthBytes the number of encoded bytes
+   * @param dst the destination of the decoded chars
+   * @throws IOException if thrown by the destination
+   * @throws IllegalArgumentException if the bytes are not well-formed UTF-8
+   */
+  public abstract void getUtf8(long utf8LengthBytes, Appendable dst) throws IOException;
+
+  /**
+   * Decodes the given number of UTF-8 bytes at the current position and appends the chars to the
+   * destination. Increments the position by <i>utf8LengthBytes</i>.
+   * @param utf8LengthBytes the number of encoded bytes
+   * @param dst the destination of the decoded chars
+   * @throws IllegalArgumentException if the bytes are not well-formed UTF-8
+   */
+  public void getUtf8(final long utf8LengthBytes, final StringBuilder dst) {
+    try {
+      getUtf8(utf8LengthBytes, (Appendable) dst);
+    } catch (final IOException e) {
+      throw new RuntimeException(e); //StringBuilder does not throw IOException
+    }
+  }
+
   //OTHER PRIMITIVE READ METHODS: copyTo, compareTo XXX
   /**
    * Compares the bytes of this Memory to <i>that</i> Memory.  This uses absolute offsets not
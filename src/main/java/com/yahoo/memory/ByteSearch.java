@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.CompareAndCopy.getLongLE;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+/**
+ * Searches ranges of bytes that are addressable by Unsafe, eight bytes at a time.
+ *
+ * <p>Each step reads one little-endian word and XORs it with the target byte broadcast to all
+ * eight lanes, so matching bytes become zero. The zero bytes are then marked, exactly and
+ * without borrows between lanes, by setting the high bit of each zero lane in
+ * <i>~(((x &amp; 0x7F..) + 0x7F..) | x | 0x7F..)</i>. The first match in address order is the
+ * lowest marked lane and the last match is the highest.</p>
+ *
+ * <p>Pattern searches filter candidate positions by both the first and the last byte of the
+ * pattern, one word at a time, and only compare the full pattern at the surviving candidates.</p>
+ *
+ * @author Lee Rhodes
+ */
+final class ByteSearch {
+  private static final long LOW_BITS = 0x0101010101010101L;
+  private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+  private ByteSearch() { }
+
+  /**
+   * Returns the index of the first occurrence of the given byte in the given range, or -1.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the length of the range
+   * @param value the byte to find
+   * @return the index of the first occurrence relative to add, or -1 if there is none.
+   */
+  static long indexOf(final Object obj, final long add, final long lengthBytes, final byte value) {
+    final long pattern = broadcast(value);
+    long i = 0;
+    for ( ; i <= (lengthBytes - 8); i += 8) {
+      final long zeros = zeroBytes(getLongLE(obj, add + i) ^ pattern);
+      if (zeros != 0) {
+        return i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+      }
+    }
+    for ( ; i < lengthBytes; i++) {
+      if (unsafe.getByte(obj, add + i) == value) { return i; }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the last occurrence of the given byte in the given range, or -1.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the length of the range
+   * @param value the byte to find
+   * @return the index of the last occurrence relative to add, or -1 if there is none.
+   */
+  static long lastIndexOf(final Object obj, final long add, final long lengthBytes,
+          final byte value) {
+    final long pattern = broadcast(value);
+    long i = lengthBytes - 8; //start of the last whole word
+    for ( ; i >= 0; i -= 8) {
+      final long zeros = zeroBytes(getLongLE(obj, add + i) ^ pattern);
+      if (zeros != 0) {
+        return i + 7 - (Long.numberOfLeadingZeros(zeros) >>> 3);
+      }
+    }
+    for (i += 7; i >= 0; i--) {
+      if (unsafe.getByte(obj, add + i) == value) { return i; }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the first occurrence of the given pattern in the given range, or -1.
+   * @param obj the array object of the range, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the length of the range
+   * @param patObj the array object of the pattern, or null for native memory
+   * @param patAdd the cumulative offset of the pattern
+   * @param patLengthBytes the length of the pattern, which must be at least 1
+   * @return the index of the first occurrence relative to add, or -1 if there is none.
+   */
+  static long indexOf(final Object obj, final long add, final long lengthBytes,
+          final Object patObj, final long patAdd, final long patLengthBytes) {
+    final long last = lengthBytes - patLengthBytes; //last possible start
+    if (last < 0) { return -1; }
+    final byte firstByte = unsafe.getByte(patObj, patAdd);
+    if (patLengthBytes == 1) {
+      return indexOf(obj, add, lengthBytes, firstByte);
+    }
+    final long lastOffset = patLengthBytes - 1;
+    final long first = broadcast(firstByte);
+    final long lastPattern = broadcast(unsafe.getByte(patObj, patAdd + lastOffset));
+    long i = 0;
+    for ( ; i <= (last - 7); i += 8) {
+      long candidates = zeroBytes(getLongLE(obj, add + i) ^ first)
+          & zeroBytes(getLongLE(obj, add + i + lastOffset) ^ lastPattern);
+      while (candidates != 0) {
+        final long j = i + (Long.numberOfTrailingZeros(candidates) >>> 3);
+        if (CompareAndCopy.mismatch(obj, add + j + 1, patObj, patAdd + 1, lastOffset - 1) < 0) {
+          return j;
+        }
+        candidates &= candidates - 1;
+      }
+    }
+    for ( ; i <= last; i++) {
+      if ((unsafe.getByte(obj, add + i) == firstByte)
+          && (CompareAndCopy.mismatch(obj, add + i, patObj, patAdd, patLengthBytes) < 0)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static long broadcast(final byte value) {
+    return (value & 0XFFL) * LOW_BITS;
+  }
+
+  //Returns a word with the high bit set in exactly the lanes of x that are zero
+  private static long zeroBytes(final long x) {
+    return ~(((x & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | x | LOW_SEVEN_BITS);
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+/**
+ * Copies arrays of 16, 32 or 64-bit elements between any two locations addressable by Unsafe,
+ * reversing the byte order of each element on the way. The loops move four elements per
+ * iteration with all loads ahead of the stores, which lets the JIT keep the pipeline full. The
+ * bytes are swapped with the reverseBytes intrinsics, a single instruction on most platforms.
+ * The source and destination may be identical but must not otherwise overlap.
+ *
+ * @author Lee Rhodes
+ */
+final class ByteSwap {
+
+  private ByteSwap() { }
+
+  static void copySwap16(final Object srcObj, final long srcAdd, final Object dstObj,
+          final long dstAdd, final long elements) {
+    long src = srcAdd;
+    long dst = dstAdd;
+    long n = elements;
+    for ( ; n >= 4; n -= 4, src += 8, dst += 8) {
+      final short v0 = unsafe.getShort(srcObj, src);
+      final short v1 = unsafe.getShort(srcObj, src + 2);
+      final short v2 = unsafe.getShort(srcObj, src + 4);
+      final short v3 = unsafe.getShort(srcObj, src + 6);
+      unsafe.putShort(dstObj, dst, Short.reverseBytes(v0));
+      unsafe.putShort(dstObj, dst + 2, Short.reverseBytes(v1));
+      unsafe.putShort(dstObj, dst + 4, Short.reverseBytes(v2));
+      unsafe.putShort(dstObj, dst + 6, Short.reverseBytes(v3));
+    }
+    for ( ; n > 0; n--, src += 2, dst += 2) {
+      unsafe.putShort(dstObj, dst, Short.reverseBytes(unsafe.getShort(srcObj, src)));
+    }
+  }
+
+  static void copySwap32(final Object srcObj, final long srcAdd, final Object dstObj,
+          final long dstAdd, final long elements) {
+    long src = srcAdd;
+    long dst = dstAdd;
+    long n = elements;
+    for ( ; n >= 4; n -= 4, src += 16, dst += 16) {
+      final int v0 = unsafe.getInt(srcObj, src);
+      final int v1 = unsafe.getInt(srcObj, src + 4);
+      final int v2 = unsafe.getInt(srcObj, src + 8);
+      final int v3 = unsafe.getInt(srcObj, src + 12);
+      unsafe.putInt(dstObj, dst, Integer.reverseBytes(v0));
+      unsafe.putInt(dstObj, dst + 4, Integer.reverseBytes(v1));
+      unsafe.putInt(dstObj, dst + 8, Integer.reverseBytes(v2));
+      unsafe.putInt(dstObj, dst + 12, Integer.reverseBytes(v3));
+    }
+    for ( ; n > 0; n--, src += 4, dst += 4) {
+      unsafe.putInt(dstObj, dst, Integer.reverseBytes(unsafe.getInt(srcObj, src)));
+    }
+  }
+
+  static void copySwap64(final Object srcObj, final long srcAdd, final Object dstObj,
+          final long dstAdd, final long elements) {
+    long src = srcAdd;
+    long dst = dstAdd;
+    long n = elements;
+    for ( ; n >= 4; n -= 4, src += 32, dst += 32) {
+      final long v0 = unsafe.getLong(srcObj, src);
+      final long v1 = unsafe.getLong(srcObj, src + 8);
+      final long v2 = unsafe.getLong(srcObj, src + 16);
+      final long v3 = unsafe.getLong(srcObj, src + 24);
+      unsafe.putLong(dstObj, dst, Long.reverseBytes(v0));
+      unsafe.putLong(dstObj, dst + 8, Long.reverseBytes(v1));
+      unsafe.putLong(dstObj, dst + 16, Long.reverseBytes(v2));
+      unsafe.putLong(dstObj, dst + 24, Long.reverseBytes(v3));
+    }
+    for ( ; n > 0; n--, src += 8, dst += 8) {
+      unsafe.putLong(dstObj, dst, Long.reverseBytes(unsafe.getLong(srcObj, src)));
+    }
+  }
+
+}
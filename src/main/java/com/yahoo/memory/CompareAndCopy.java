@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.UnsafeUtil.UNSAFE_COPY_THRESHOLD;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compares and copies ranges of bytes that are addressable by Unsafe.
+ *
+ * <p>Comparisons are eight bytes at a time. Equal words are skipped with a single comparison.
+ * For the first unequal word, the index of its first differing byte in address order is found
+ * from the XOR of the two words with numberOfTrailingZeros on little-endian platforms, or
+ * numberOfLeadingZeros on big-endian platforms. The result is the same as comparing one byte at
+ * a time.</p>
+ *
+ * <p>Copies and fills are made in chunks of at most UNSAFE_COPY_THRESHOLD bytes, because a single
+ * unsafe.copyMemory() or unsafe.setMemory() call does not reach a safepoint. Very large copies
+ * and fills can be split across the threads of a ForkJoinPool.</p>
+ *
+ * @author Lee Rhodes
+ */
+final class CompareAndCopy {
+  static final boolean NATIVE_LE = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+  /**
+   * The smallest number of bytes a parallel task copies or fills on one thread. Smaller copies
+   * are not worth splitting.
+   */
+  static final long PARALLEL_LEAF_BYTES = 1L << 24; //16MB
+
+  private CompareAndCopy() { }
+
+  /**
+   * Returns the eight bytes at the given address as a little-endian long, whatever the native
+   * byte order.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the first byte
+   * @return the little-endian long at the given address
+   */
+  static long getLongLE(final Object obj, final long add) {
+    final long v = unsafe.getLong(obj, add);
+    return NATIVE_LE ? v : Long.reverseBytes(v);
+  }
+
+  /**
+   * Returns the four bytes at the given address as a little-endian int, whatever the native
+   * byte order.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the first byte
+   * @return the little-endian int at the given address
+   */
+  static int getIntLE(final Object obj, final long add) {
+    final int v = unsafe.getInt(obj, add);
+    return NATIVE_LE ? v : Integer.reverseBytes(v);
+  }
+
+  /**
+   * Writes the given long as eight little-endian bytes at the given address, whatever the native
+   * byte order.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the first byte
+   * @param value the value to write
+   */
+  static void putLongLE(final Object obj, final long add, final long value) {
+    unsafe.putLong(obj, add, NATIVE_LE ? value : Long.reverseBytes(value));
+  }
+
+  /**
+   * Returns the index of the first byte that differs between the two ranges of the given length,
+   * or -1 if they are equal.
+   * @param aObj the array object of range a, or null for native memory
+   * @param aAdd the cumulative offset of range a
+   * @param bObj the array object of range b, or null for native memory
+   * @param bAdd the cumulative offset of range b
+   * @param lengthBytes the number of bytes to compare
+   * @return the index of the first differing byte, or -1 if the ranges are equal.
+   */
+  static long mismatch(final Object aObj, final long aAdd, final Object bObj, final long bAdd,
+          final long lengthBytes) {
+    long i = 0;
+    for ( ; i <= (lengthBytes - 8); i += 8) {
+      final long a = unsafe.getLong(aObj, aAdd + i);
+      final long b = unsafe.getLong(bObj, bAdd + i);
+      if (a != b) {
+        return i + firstDifferingByte(a ^ b);
+      }
+    }
+    for ( ; i < lengthBytes; i++) {
+      if (unsafe.getByte(aObj, aAdd + i) != unsafe.getByte(bObj, bAdd + i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compares two ranges as sequences of signed bytes. If one range is a prefix of the other, the
+   * shorter range is less.
+   * @param aObj the array object of range a, or null for native memory
+   * @param aAdd the cumulative offset of range a
+   * @param aLengthBytes the length of range a
+   * @param bObj the array object of range b, or null for native memory
+   * @param bAdd the cumulative offset of range b
+   * @param bLengthBytes the length of range b
+   * @return <i>(a &lt; b) ? -1 : (a &gt; b) ? 1 : 0;</i>
+   */
+  static int compare(final Object aObj, final long aAdd, final long aLengthBytes,
+          final Object bObj, final long bAdd, final long bLengthBytes) {
+    final long i = mismatch(aObj, aAdd, bObj, bAdd, Math.min(aLengthBytes, bLengthBytes));
+    if (i >= 0) {
+      return (unsafe.getByte(aObj, aAdd + i) < unsafe.getByte(bObj, bAdd + i)) ? -1 : 1;
+    }
+    return (aLengthBytes < bLengthBytes) ? -1 : (aLengthBytes > bLengthBytes) ? 1 : 0;
+  }
+
+  /**
+   * Copies bytes in chunks of at most UNSAFE_COPY_THRESHOLD bytes. The ranges must not overlap.
+   * @param srcObj the array object of the source, or null for native memory
+   * @param srcAdd the cumulative offset of the source
+   * @param dstObj the array object of the destination, or null for native memory
+   * @param dstAdd the cumulative offset of the destination
+   * @param lengthBytes the number of bytes to copy
+   */
+  static void copy(final Object srcObj, long srcAdd, final Object dstObj, long dstAdd,
+          final long lengthBytes) {
+    long lenBytes = lengthBytes;
+    while (lenBytes > 0) {
+      final long chunkBytes = Math.min(lenBytes, UNSAFE_COPY_THRESHOLD);
+      unsafe.copyMemory(srcObj, srcAdd, dstObj, dstAdd, chunkBytes);
+      lenBytes -= chunkBytes;
+      srcAdd += chunkBytes;
+      dstAdd += chunkBytes;
+    }
+  }
+
+  /**
+   * Copies bytes using the threads of the given pool. The ranges must not overlap.
+   * @param pool the ForkJoinPool that runs the copy
+   * @param srcObj the array object of the source, or null for native memory
+   * @param srcAdd the cumulative offset of the source
+   * @param dstObj the array object of the destination, or null for native memory
+   * @param dstAdd the cumulative offset of the destination
+   * @param lengthBytes the number of bytes to copy
+   */
+  static void parallelCopy(final ForkJoinPool pool, final Object srcObj, final long srcAdd,
+          final Object dstObj, final long dstAdd, final long lengthBytes) {
+    if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+      copy(srcObj, srcAdd, dstObj, dstAdd, lengthBytes);
+      return;
+    }
+    pool.invoke(new CopyTask(srcObj, srcAdd, dstObj, dstAdd, lengthBytes));
+  }
+
+  private static final class CopyTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final transient Object srcObj;
+    private final long srcAdd;
+    private final transient Object dstObj;
+    private final long dstAdd;
+    private final long lengthBytes;
+
+    CopyTask(final Object srcObj, final long srcAdd, final Object dstObj, final long dstAdd,
+            final long lengthBytes) {
+      this.srcObj = srcObj;
+      this.srcAdd = srcAdd;
+      this.dstObj = dstObj;
+      this.dstAdd = dstAdd;
+      this.lengthBytes = lengthBytes;
+    }
+
+    @Override
+    protected void compute() {
+      if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+        copy(srcObj, srcAdd, dstObj, dstAdd, lengthBytes);
+        return;
+      }
+      final long half = (lengthBytes >>> 1) & -8L; //keeps the halves word aligned
+      invokeAll(new CopyTask(srcObj, srcAdd, dstObj, dstAdd, half),
+          new CopyTask(srcObj, srcAdd + half, dstObj, dstAdd + half, lengthBytes - half));
+    }
+  }
+
+  /**
+   * Fills bytes in chunks of at most UNSAFE_COPY_THRESHOLD bytes.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the number of bytes to fill
+   * @param value the byte value to fill with
+   */
+  static void fill(final Object obj, long add, final long lengthBytes, final byte value) {
+    long lenBytes = lengthBytes;
+    while (lenBytes > 0) {
+      final long chunkBytes = Math.min(lenBytes, UNSAFE_COPY_THRESHOLD);
+      unsafe.setMemory(obj, add, chunkBytes, value);
+      lenBytes -= chunkBytes;
+      add += chunkBytes;
+    }
+  }
+
+  /**
+   * Fills bytes using the threads of the given pool.
+   * @param pool the ForkJoinPool that runs the fill
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the number of bytes to fill
+   * @param value the byte value to fill with
+   */
+  static void parallelFill(final ForkJoinPool pool, final Object obj, final long add,
+          final long lengthBytes, final byte value) {
+    if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+      fill(obj, add, lengthBytes, value);
+      return;
+    }
+    pool.invoke(new FillTask(obj, add, lengthBytes, value));
+  }
+
+  private static final class FillTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final transient Object obj;
+    private final long add;
+    private final long lengthBytes;
+    private final byte value;
+
+    FillTask(final Object obj, final long add, final long lengthBytes, final byte value) {
+      this.obj = obj;
+      this.add = add;
+      this.lengthBytes = lengthBytes;
+      this.value = value;
+    }
+
+    @Override
+    protected void compute() {
+      if (lengthBytes < (2 * PARALLEL_LEAF_BYTES)) {
+        fill(obj, add, lengthBytes, value);
+        return;
+      }
+      final long half = (lengthBytes >>> 1) & -8L; //keeps the halves word aligned
+      invokeAll(new FillTask(obj, add, half, value),
+          new FillTask(obj, add + half, lengthBytes - half, value));
+    }
+  }
+
+  //Returns the index, in address order, of the lowest addressed non-zero byte of the given XOR
+  private static int firstDifferingByte(final long xor) {
+    return (NATIVE_LE ? Long.numberOfTrailingZeros(xor) : Long.numberOfLeadingZeros(xor)) >>> 3;
+  }
+
+}
@@ -24,21 +24,26 @@ final class DefaultMemoryManager implements MemoryManager {
    * @return handler
    */
   @Override
-  @SuppressWarnings("resource")
   public WritableDirectHandle allocateDirect(final long capacityBytes) {
     final ResourceState state = new ResourceState();
     state.putCapacity(capacityBytes);
-    final AllocateDirect direct = AllocateDirect.allocate(state);
-    final WritableMemory wMem = new WritableMemoryImpl(state);
-    final WritableDirectHandle handler = new WritableDirectHandle(direct, wMem);
-    state.setMemoryRequestServer(this);
-    state.setHandle(handler);
-    return handler;
+    return WritableDirectHandle.create(AllocateDirect.allocate(state), this);
+  }
+
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes, final long alignmentBytes) {
+    final ResourceState state = new ResourceState();
+    state.putCapacity(capacityBytes);
+    return WritableDirectHandle.create(AllocateDirect.allocate(state, alignmentBytes), this);
   }
 
 
   @Override
   public WritableMemory request(final long capacityBytes) { //default allocate on heap
+    if (capacityBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Heap requests are limited to Integer.MAX_VALUE bytes, "
+              + "use ReallocatingMemoryManager for larger requests: " + capacityBytes);
+    }
     final WritableMemory mem = WritableMemory.allocate((int)capacityBytes);
     mem.setMemoryRequest(this);
     mem.setHandle(null);
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An opt-in detector of direct memory allocations and memory maps that are never closed.
+ *
+ * <p>When enabled, one in every <i>sampleInterval</i> allocations, chosen at random, records the
+ * stack trace of its allocation site. If a sampled resource is later reclaimed by its Cleaner
+ * after garbage collection instead of by an explicit <i>close()</i>, it is reported to the
+ * {@link LeakListener}, which by default prints the allocation site to System.err.</p>
+ *
+ * <p>The detector is disabled by default. It can be enabled with
+ * {@link #setSampleInterval(int)} or with the system property
+ * <i>com.yahoo.memory.leakDetection.sampleInterval</i>. When disabled an allocation costs one
+ * extra volatile read, and an unsampled allocation one random number.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class LeakDetector {
+  static final String SAMPLE_INTERVAL_PROPERTY = "com.yahoo.memory.leakDetection.sampleInterval";
+
+  /**
+   * The default LeakListener, which prints the allocation site to System.err.
+   */
+  public static final LeakListener PRINT_STACK_TRACE = new LeakListener() {
+    @Override
+    public void leaked(final AllocationSite site) {
+      site.printStackTrace();
+    }
+  };
+
+  private static volatile int sampleInterval_ = Integer.getInteger(SAMPLE_INTERVAL_PROPERTY, 0);
+  private static volatile LeakListener listener_ = PRINT_STACK_TRACE;
+  private static final LongAdder leaks_ = new LongAdder();
+
+  private LeakDetector() { }
+
+  /**
+   * Sets how many allocations there are per sampled allocation on average.
+   * @param sampleInterval 1 samples every allocation, 0 disables the detector.
+   */
+  public static void setSampleInterval(final int sampleInterval) {
+    if (sampleInterval < 0) {
+      throw new IllegalArgumentException("Sample interval may not be negative: " + sampleInterval);
+    }
+    sampleInterval_ = sampleInterval;
+  }
+
+  /**
+   * Gets the sample interval
+   * @return the sample interval, or 0 if the detector is disabled
+   */
+  public static int getSampleInterval() {
+    return sampleInterval_;
+  }
+
+  /**
+   * Sets the listener that receives the leaks
+   * @param listener the listener that receives the leaks
+   */
+  public static void setLeakListener(final LeakListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener may not be null.");
+    }
+    listener_ = listener;
+  }
+
+  /**
+   * Gets the number of sampled resources reported as leaked so far.
+   * @return the number of sampled resources reported as leaked so far.
+   */
+  public static long getLeakCount() {
+    return leaks_.sum();
+  }
+
+  //Returns the allocation site if this allocation is sampled, otherwise null
+  static AllocationSite sample(final String resource, final long capacityBytes) {
+    final int interval = sampleInterval_;
+    if ((interval == 0)
+            || ((interval > 1) && (ThreadLocalRandom.current().nextInt(interval) != 0))) {
+      return null;
+    }
+    return new AllocationSite(resource, capacityBytes);
+  }
+
+  //Called from a Deallocator run by the Cleaner, so it must not throw
+  static void report(final AllocationSite site) {
+    leaks_.increment();
+    try {
+      listener_.leaked(site);
+    } catch (final RuntimeException e) {
+      //a faulty listener must not break the Cleaner
+    }
+  }
+
+  /**
+   * Receives the sampled resources that were not closed.
+   */
+  public interface LeakListener {
+
+    /**
+     * Called on the Cleaner thread when a sampled resource is reclaimed without being closed.
+     * It should return quickly.
+     * @param site the allocation site of the resource
+     */
+    void leaked(AllocationSite site);
+  }
+
+  /**
+   * The stack trace of the allocation of a sampled resource.
+   */
+  public static final class AllocationSite extends Throwable {
+    private static final long serialVersionUID = 1L;
+    private final long capacityBytes;
+
+    AllocationSite(final String resource, final long capacityBytes) {
+      super(resource + " of " + capacityBytes + " bytes was not closed. Allocated at:");
+      this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Gets the capacity of the leaked resource
+     * @return the capacity of the leaked resource in bytes
+     */
+    public long getCapacityBytes() {
+      return capacityBytes;
+    }
+  }
+
+}
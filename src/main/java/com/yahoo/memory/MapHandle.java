@@ -25,7 +25,7 @@ public class MapHandle implements Map, Handle {
   @SuppressWarnings("resource") //called from memory
   static MapHandle map(final ResourceState state) throws Exception {
     final AllocateDirectMap dirMap = AllocateDirectMap.map(state);
-    final WritableMemoryImpl wMem = new WritableMemoryImpl(state);
+    final WritableMemoryImpl wMem = WritableMemoryImpl.newInstance(state);
     return new MapHandle(dirMap, wMem);
   }
 
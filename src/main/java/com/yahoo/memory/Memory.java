@@ -10,8 +10,10 @@ import static com.yahoo.memory.UnsafeUtil.assertBounds;
 import static com.yahoo.memory.UnsafeUtil.unsafe;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Provides read-only primitive and primitive array methods to any of the four resources
@@ -34,7 +36,7 @@ public abstract class Memory {
     final ResourceState state = new ResourceState();
     state.putByteBuffer(byteBuf);
     AccessByteBuffer.wrap(state);
-    return new WritableMemoryImpl(state);
+    return WritableMemoryImpl.newInstance(state);
   }
 
   //MAP XXX
@@ -62,11 +64,29 @@ public abstract class Memory {
   public static MapHandle map(final File file, final long fileOffset, final long capacity,
           final ByteOrder byteOrder)
                   throws Exception {
+    return map(file, fileOffset, capacity, byteOrder, null);
+  }
+
+  /**
+   * Allocates direct memory used to memory map files for read operations
+   * (including those &gt; 2GB). The map is accounted to the given tag until it is closed.
+   * @param file the given file to map
+   * @param fileOffset the position in the given file
+   * @param capacity the size of the allocated direct memory
+   * @param byteOrder the endianness of the given file.
+   * @param tag the owner of the map, or null
+   * @return MemoryMapHandler for managing this map
+   * @throws Exception file not found or RuntimeException, etc.
+   */
+  public static MapHandle map(final File file, final long fileOffset, final long capacity,
+          final ByteOrder byteOrder, final AllocationTag tag)
+                  throws Exception {
     final ResourceState state = new ResourceState();
     state.putFile(file);
     state.putFileOffset(fileOffset);
     state.putCapacity(capacity);
     state.order(byteOrder);
+    state.putTag(tag);
     return MapHandle.map(state);
   }
 
@@ -217,6 +237,19 @@ public abstract class Memory {
   public abstract void getCharArray(long offsetBytes, char[] dstArray, int dstOffset,
           int length);
 
+  /**
+   * Gets the char array at the given offset, whose elements are stored in the given byte order
+   * rather than in the byte order of this Memory. The elements are byte-swapped while they are
+   * copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param dstArray The preallocated destination array.
+   * @param dstOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order of the stored elements
+   */
+  public abstract void getCharArray(long offsetBytes, char[] dstArray, int dstOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Gets the double value at the given offset
    * @param offsetBytes offset bytes relative to this Memory start
@@ -234,6 +267,19 @@ public abstract class Memory {
   public abstract void getDoubleArray(long offsetBytes, double[] dstArray, int dstOffset,
           int length);
 
+  /**
+   * Gets the double array at the given offset, whose elements are stored in the given byte order
+   * rather than in the byte order of this Memory. The elements are byte-swapped while they are
+   * copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param dstArray The preallocated destination array.
+   * @param dstOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order of the stored elements
+   */
+  public abstract void getDoubleArray(long offsetBytes, double[] dstArray, int dstOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Gets the float value at the given offset
    * @param offsetBytes offset bytes relative to this Memory start
@@ -251,6 +297,19 @@ public abstract class Memory {
   public abstract void getFloatArray(long offsetBytes, float[] dstArray, int dstOffset,
           int length);
 
+  /**
+   * Gets the float array at the given offset, whose elements are stored in the given byte order
+   * rather than in the byte order of this Memory. The elements are byte-swapped while they are
+   * copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param dstArray The preallocated destination array.
+   * @param dstOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order of the stored elements
+   */
+  public abstract void getFloatArray(long offsetBytes, float[] dstArray, int dstOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Gets the int value at the given offset
    * @param offsetBytes offset bytes relative to this Memory start
@@ -268,6 +327,19 @@ public abstract class Memory {
   public abstract void getIntArray(long offsetBytes, int[] dstArray, int dstOffset,
           int length);
 
+  /**
+   * Gets the int array at the given offset, whose elements are stored in the given byte order
+   * rather than in the byte order of this Memory. The elements are byte-swapped while they are
+   * copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param dstArray The preallocated destination array.
+   * @param dstOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order of the stored elements
+   */
+  public abstract void getIntArray(long offsetBytes, int[] dstArray, int dstOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Gets the long value at the given offset
    * @param offsetBytes offset bytes relative to this Memory start
@@ -284,6 +356,19 @@ public abstract class Memory {
    */
   public abstract void getLongArray(long offsetBytes, long[] dstArray, int dstOffset, int length);
 
+  /**
+   * Gets the long array at the given offset, whose elements are stored in the given byte order
+   * rather than in the byte order of this Memory. The elements are byte-swapped while they are
+   * copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param dstArray The preallocated destination array.
+   * @param dstOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order of the stored elements
+   */
+  public abstract void getLongArray(long offsetBytes, long[] dstArray, int dstOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Gets the short value at the given offset
    * @param offsetBytes offset bytes relative to this Memory start
@@ -301,6 +386,115 @@ public abstract class Memory {
   public abstract void getShortArray(long offsetBytes, short[] dstArray, int dstOffset,
           int length);
 
+  /**
+   * Gets the short array at the given offset, whose elements are stored in the given byte order
+   * rather than in the byte order of this Memory. The elements are byte-swapped while they are
+   * copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param dstArray The preallocated destination array.
+   * @param dstOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order of the stored elements
+   */
+  public abstract void getShortArray(long offsetBytes, short[] dstArray, int dstOffset, int length,
+          ByteOrder dataOrder);
+
+  //VOLATILE READ METHODS XXX
+  /**
+   * Gets the int value at the given offset with volatile semantics. The offset should be a
+   * multiple of 4 relative to an aligned address, or the read may not be atomic.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the int at the given offset
+   */
+  public abstract int getIntVolatile(long offsetBytes);
+
+  /**
+   * Gets the long value at the given offset with volatile semantics. The offset should be a
+   * multiple of 8 relative to an aligned address, or the read may not be atomic.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the long at the given offset
+   */
+  public abstract long getLongVolatile(long offsetBytes);
+
+  //VARIABLE LENGTH INTEGERS XXX
+  /**
+   * Gets the unsigned LEB128 variable length long at the given offset.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the decoded long
+   * @throws IllegalArgumentException if the encoding runs past the end of this Memory or is
+   * longer than 10 bytes
+   */
+  public abstract long getVarLong(long offsetBytes);
+
+  /**
+   * Gets the length in bytes of the variable length integer at the given offset. This is the
+   * amount to advance past the value read by any of the getVar methods.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the length in bytes of the encoded value, from 1 to 10
+   * @throws IllegalArgumentException if the encoding runs past the end of this Memory or is
+   * longer than 10 bytes
+   */
+  public abstract int getVarLength(long offsetBytes);
+
+  /**
+   * Gets the unsigned LEB128 variable length int at the given offset.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the decoded int
+   */
+  public int getVarInt(final long offsetBytes) {
+    return (int) getVarLong(offsetBytes);
+  }
+
+  /**
+   * Gets the zigzag encoded variable length long at the given offset, as written by
+   * {@link WritableMemory#putZigZagVarLong(long, long)}.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the decoded long
+   */
+  public long getZigZagVarLong(final long offsetBytes) {
+    return VarInt.decodeZigZag(getVarLong(offsetBytes));
+  }
+
+  /**
+   * Gets the zigzag encoded variable length int at the given offset, as written by
+   * {@link WritableMemory#putZigZagVarInt(long, int)}.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @return the decoded int
+   */
+  public int getZigZagVarInt(final long offsetBytes) {
+    return (int) VarInt.decodeZigZag(getVarLong(offsetBytes) & 0XFFFFFFFFL);
+  }
+
+  //UTF-8 XXX
+  /**
+   * Decodes the given number of UTF-8 bytes at the given offset and appends the chars to the
+   * destination, without an intermediate byte array or String.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param utf8LengthBytes the number of encoded bytes
+   * @param dst the destination of the decoded chars
+   * @throws IOException if thrown by the destination
+   * @throws IllegalArgumentException if the bytes are not well-formed UTF-8
+   */
+  public abstract void getUtf8(long offsetBytes, long utf8LengthBytes, Appendable dst)
+          throws IOException;
+
+  /**
+   * Decodes the given number of UTF-8 bytes at the given offset and appends the chars to the
+   * destination, without an intermediate byte array or String.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param utf8LengthBytes the number of encoded bytes
+   * @param dst the destination of the decoded chars
+   * @throws IllegalArgumentException if the bytes are not well-formed UTF-8
+   */
+  public void getUtf8(final long offsetBytes, final long utf8LengthBytes,
+          final StringBuilder dst) {
+    try {
+      getUtf8(offsetBytes, utf8LengthBytes, (Appendable) dst);
+    } catch (final IOException e) {
+      throw new RuntimeException(e); //StringBuilder does not throw IOException
+    }
+  }
+
   //OTHER PRIMITIVE READ METHODS: copyTo, compareTo XXX
   /**
    * Compares the bytes of this Memory to <i>that</i> Memory.
@@ -317,6 +511,97 @@ public abstract class Memory {
   public abstract int compareTo(long thisOffsetBytes, long thisLengthBytes, Memory that,
           long thatOffsetBytes, long thatLengthBytes);
 
+  /**
+   * Finds the first byte that differs between a region of this Memory and a region of
+   * <i>that</i> Memory, comparing eight bytes at a time.
+   * @param thisOffsetBytes the starting offset for <i>this Memory</i>
+   * @param thisLengthBytes the length of the region from <i>this Memory</i>
+   * @param that the other Memory to compare with
+   * @param thatOffsetBytes the starting offset for <i>that Memory</i>
+   * @param thatLengthBytes the length of the region from <i>that Memory</i>
+   * @return the offset, relative to the start of both regions, of the first differing byte. If
+   * one region is a prefix of the other, the length of the shorter region. If the regions are
+   * equal, -1.
+   */
+  public abstract long mismatch(long thisOffsetBytes, long thisLengthBytes, Memory that,
+          long thatOffsetBytes, long thatLengthBytes);
+
+  /**
+   * Returns true if the given number of bytes of this Memory and of <i>that</i> Memory are equal.
+   * This is faster than <i>compareTo(...) == 0</i> because it stops at the first difference
+   * without ordering it.
+   * @param thisOffsetBytes the starting offset for <i>this Memory</i>
+   * @param that the other Memory to compare with
+   * @param thatOffsetBytes the starting offset for <i>that Memory</i>
+   * @param lengthBytes the number of bytes to compare
+   * @return true if the two regions are equal
+   */
+  public abstract boolean equalTo(long thisOffsetBytes, Memory that, long thatOffsetBytes,
+          long lengthBytes);
+
+  /**
+   * Returns the offset of the first occurrence of the given byte in the given range of this
+   * Memory, searching eight bytes at a time.
+   * @param value the byte to find
+   * @param fromOffsetBytes the offset of the start of the range, inclusive
+   * @param toOffsetBytes the offset of the end of the range, exclusive
+   * @return the offset relative to this Memory start of the first occurrence, or -1 if there is
+   * none.
+   */
+  public abstract long indexOf(byte value, long fromOffsetBytes, long toOffsetBytes);
+
+  /**
+   * Returns the offset of the last occurrence of the given byte in the given range of this
+   * Memory, searching eight bytes at a time from the end.
+   * @param value the byte to find
+   * @param fromOffsetBytes the offset of the start of the range, inclusive
+   * @param toOffsetBytes the offset of the end of the range, exclusive
+   * @return the offset relative to this Memory start of the last occurrence, or -1 if there is
+   * none.
+   */
+  public abstract long lastIndexOf(byte value, long fromOffsetBytes, long toOffsetBytes);
+
+  /**
+   * Returns the offset of the first occurrence of all the bytes of the given pattern in the given
+   * range of this Memory. The whole occurrence must lie within the range. Candidate positions are
+   * filtered eight at a time by the first and last bytes of the pattern.
+   * @param pattern the bytes to find, which is the whole capacity of the given Memory
+   * @param fromOffsetBytes the offset of the start of the range, inclusive
+   * @param toOffsetBytes the offset of the end of the range, exclusive
+   * @return the offset relative to this Memory start of the first occurrence, or -1 if there is
+   * none.
+   */
+  public abstract long indexOf(Memory pattern, long fromOffsetBytes, long toOffsetBytes);
+
+  /**
+   * Returns the number of one bits in a range of this Memory, counting 64 bits at a time.
+   * @param offsetBytes the starting offset of the range
+   * @param lengthBytes the length of the range in bytes
+   * @return the number of one bits in the range
+   */
+  public abstract long popCount(long offsetBytes, long lengthBytes);
+
+  /**
+   * Returns the number of one bits in a range of this Memory, splitting ranges of more than a few
+   * tens of megabytes across the threads of the common ForkJoinPool.
+   * @param offsetBytes the starting offset of the range
+   * @param lengthBytes the length of the range in bytes
+   * @return the number of one bits in the range
+   */
+  public long parallelPopCount(final long offsetBytes, final long lengthBytes) {
+    return parallelPopCount(offsetBytes, lengthBytes, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns the number of one bits in a range of this Memory, splitting ranges of more than a few
+   * tens of megabytes across the threads of the given pool.
+   * @param offsetBytes the starting offset of the range
+   * @param lengthBytes the length of the range in bytes
+   * @param pool the ForkJoinPool that runs the count
+   * @return the number of one bits in the range
+   */
+  public abstract long parallelPopCount(long offsetBytes, long lengthBytes, ForkJoinPool pool);
+
   /**
    * Copies bytes from a source range of this Memory to a destination range of the given Memory
    * using the same low-level system copy function as found in
@@ -329,6 +614,61 @@ public abstract class Memory {
   public abstract void copyTo(long srcOffsetBytes, WritableMemory destination, long dstOffsetBytes,
           long lengthBytes);
 
+  /**
+   * Copies bytes from a source range of this Memory to a destination range of the given Memory,
+   * splitting copies of more than a few tens of megabytes across the threads of the common
+   * ForkJoinPool. This is intended for snapshots of very large regions, where one thread cannot
+   * use all of the memory bandwidth.
+   * @param srcOffsetBytes the source offset for this Memory
+   * @param destination the destination Memory, which may not be Read-Only.
+   * @param dstOffsetBytes the destination offset
+   * @param lengthBytes the number of bytes to copy
+   * @throws IllegalArgumentException if the source and destination ranges overlap
+   */
+  public void parallelCopyTo(final long srcOffsetBytes, final WritableMemory destination,
+          final long dstOffsetBytes, final long lengthBytes) {
+    parallelCopyTo(srcOffsetBytes, destination, dstOffsetBytes, lengthBytes,
+            ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Copies bytes from a source range of this Memory to a destination range of the given Memory,
+   * splitting copies of more than a few tens of megabytes across the threads of the given pool.
+   * @param srcOffsetBytes the source offset for this Memory
+   * @param destination the destination Memory, which may not be Read-Only.
+   * @param dstOffsetBytes the destination offset
+   * @param lengthBytes the number of bytes to copy
+   * @param pool the ForkJoinPool that runs the copy
+   * @throws IllegalArgumentException if the source and destination ranges overlap
+   */
+  public abstract void parallelCopyTo(long srcOffsetBytes, WritableMemory destination,
+          long dstOffsetBytes, long lengthBytes, ForkJoinPool pool);
+
+  /**
+   * Returns the 64-bit xxHash64 of a range of this Memory. The bytes are read in place, so no
+   * copy is made and nothing is allocated. The result depends only on the bytes, not on the kind
+   * of resource, its byte order or the platform.
+   * @param offsetBytes the starting offset of the range
+   * @param lengthBytes the length of the range in bytes
+   * @param seed the seed
+   * @return the 64-bit hash
+   */
+  public abstract long xxHash64(long offsetBytes, long lengthBytes, long seed);
+
+  /**
+   * Computes the 128-bit MurmurHash3 x64_128 of a range of this Memory. The bytes are read in
+   * place, so no copy is made and nothing is allocated. The result depends only on the bytes, not
+   * on the kind of resource, its byte order or the platform.
+   * @param offsetBytes the starting offset of the range
+   * @param lengthBytes the length of the range in bytes
+   * @param seed the seed
+   * @param hashOut an array of at least two longs that receives the low 64 bits of the hash in
+   * element 0 and the high 64 bits in element 1
+   * @return hashOut
+   */
+  public abstract long[] murmurHash3(long offsetBytes, long lengthBytes, long seed,
+          long[] hashOut);
+
   //OTHER READ METHODS XXX
   /**
    * Gets the capacity of this Memory in bytes
@@ -336,6 +676,18 @@ public abstract class Memory {
    */
   public abstract long getCapacity();
 
+  /**
+   * Checks that this Memory is valid and that the given range is within its capacity, and throws
+   * if not, whatever the bounds checking mode. A loop over a range can call this once up front
+   * and then rely on the default assert-only checks for each access.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param lengthBytes the length of the range in bytes
+   * @throws IllegalStateException if this Memory is not valid
+   * @throws IllegalArgumentException if the range is not within this Memory
+   * @see UnsafeUtil#CHECK_BOUNDS
+   */
+  public abstract void checkValidAndBounds(long offsetBytes, long lengthBytes);
+
   /**
    * Returns the cumulative offset in bytes of this Memory including the given offsetBytes.
    *
@@ -448,12 +800,15 @@ public abstract class Memory {
   }
 
   //MONITORING
+  //The totals are summed from striped counters on each call. They are exact when no allocation
+  //or close is in progress.
+
   /**
    * Gets the current number of active direct memory allocations.
    * @return the current number of active direct memory allocations.
    */
   public static long getCurrentDirectMemoryAllocations() {
-    return ResourceState.currentDirectMemoryAllocations_.get();
+    return ResourceState.currentDirectMemoryAllocations_.sum();
   }
 
   /**
@@ -461,7 +816,7 @@ public abstract class Memory {
    * @return the current size of active direct memory allocated.
    */
   public static long getCurrentDirectMemoryAllocated() {
-    return ResourceState.currentDirectMemoryAllocated_.get();
+    return ResourceState.currentDirectMemoryAllocated_.sum();
   }
 
   /**
@@ -469,7 +824,7 @@ public abstract class Memory {
    * @return the current number of active direct memory map allocations.
    */
   public static long getCurrentDirectMemoryMapAllocations() {
-    return ResourceState.currentDirectMemoryMapAllocations_.get();
+    return ResourceState.currentDirectMemoryMapAllocations_.sum();
   }
 
   /**
@@ -477,7 +832,7 @@ public abstract class Memory {
    * @return the current size of active direct memory map allocated.
    */
   public static long getCurrentDirectMemoryMapAllocated() {
-    return ResourceState.currentDirectMemoryMapAllocated_.get();
+    return ResourceState.currentDirectMemoryMapAllocated_.sum();
   }
 
 }
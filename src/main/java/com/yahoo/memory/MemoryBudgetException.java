@@ -0,0 +1,24 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+/**
+ * The exception thrown when a {@link BudgetedMemoryManager} cannot admit an allocation within its
+ * byte budget in the allowed time.
+ *
+ * @author Lee Rhodes
+ */
+public class MemoryBudgetException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MemoryBudgetException(final String message) {
+      super(message);
+    }
+
+    public MemoryBudgetException(final String message, final Throwable cause) {
+      super(message, cause);
+    }
+}
@@ -16,4 +16,55 @@ public interface MemoryManager extends MemoryRequestServer {
 
   WritableDirectHandle allocateDirect(long capacityBytes);
 
+  /**
+   * Allocates direct memory whose start address is a multiple of the given alignment, for example
+   * 64 for a cache line or {@code unsafe.pageSize()} for a page. Unless overridden, this
+   * over-allocates by alignmentBytes - 1 bytes with {@link #allocateDirect(long)} and returns a
+   * handle to the aligned region of that block. Closing the handle frees the whole block.
+   * @param capacityBytes the size of the desired memory in bytes
+   * @param alignmentBytes the desired alignment in bytes, which must be a power of two
+   * @return WritableDirectHandle for this off-heap resource
+   */
+  default WritableDirectHandle allocateDirect(final long capacityBytes,
+          final long alignmentBytes) {
+    AllocateDirect.checkAlignment(alignmentBytes);
+    if (alignmentBytes == 1) {
+      return allocateDirect(capacityBytes);
+    }
+    final WritableDirectHandle block = allocateDirect(capacityBytes + alignmentBytes - 1L);
+    final WritableMemory blockMem = block.get();
+    final long address = blockMem.getCumulativeOffset(0);
+    final long padBytes = AllocateDirect.alignUp(address, alignmentBytes) - address;
+    return new WritableDirectHandle(block.direct,
+            blockMem.writableRegion(padBytes, capacityBytes));
+  }
+
+  /**
+   * Allocates direct memory with the given initial contents. Unless overridden, zeroed memory is
+   * cleared inline.
+   * @param capacityBytes the size of the desired memory in bytes
+   * @param mode whether the memory must be zeroed
+   * @return WritableDirectHandle for this off-heap resource
+   */
+  default WritableDirectHandle allocateDirect(final long capacityBytes,
+          final AllocationMode mode) {
+    final WritableDirectHandle handle = allocateDirect(capacityBytes);
+    if (mode == AllocationMode.ZEROED) {
+      handle.get().clear();
+    }
+    return handle;
+  }
+
+  /**
+   * Allocates direct memory that is accounted to the given tag until it is closed.
+   * @param capacityBytes the size of the desired memory in bytes
+   * @param tag the owner of the allocation
+   * @return WritableDirectHandle for this off-heap resource
+   */
+  default WritableDirectHandle allocateDirect(final long capacityBytes, final AllocationTag tag) {
+    final WritableDirectHandle handle = allocateDirect(capacityBytes);
+    handle.direct.tag(tag);
+    return handle;
+  }
+
 }
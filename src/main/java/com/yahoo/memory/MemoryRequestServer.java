@@ -20,6 +20,24 @@ public interface MemoryRequestServer {
    */
   WritableMemory request(long capacityBytes);
 
+  /**
+   * Request new WritableMemory with the given capacity that starts with the contents of the given
+   * currentMemory, up to the smaller of the two capacities. The caller should still call
+   * {@link #requestClose(WritableMemory, WritableMemory)} for the currentMemory afterwards.
+   *
+   * <p>This default implementation requests new memory and copies into it. Implementations may
+   * instead grow the current memory in place, in which case the currentMemory is invalidated.</p>
+   *
+   * @param currentMemory the WritableMemory to be grown or shrunk
+   * @param capacityBytes The capacity being requested
+   * @return new WritableMemory with the given capacity and the contents of currentMemory.
+   */
+  default WritableMemory request(final WritableMemory currentMemory, final long capacityBytes) {
+    final WritableMemory newMemory = request(capacityBytes);
+    currentMemory.copyTo(0, newMemory, 0, Math.min(currentMemory.getCapacity(), capacityBytes));
+    return newMemory;
+  }
+
   /**
    * Request to close the AutoCloseable resource.
    * This may be ignored depending on the implementation.
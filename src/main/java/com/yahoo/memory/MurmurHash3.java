@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.CompareAndCopy.getLongLE;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+/**
+ * The MurmurHash3 x64_128 algorithm by Austin Appleby, computed directly on any range of bytes
+ * addressable by Unsafe. Input is read as little-endian words, so the result depends only on the
+ * bytes and is the same on every platform and for every kind of resource. For seeds in the range
+ * of an unsigned int the result equals that of the reference implementation.
+ *
+ * @see <a href="https://github.com/aappleby/smhasher">SMHasher</a>
+ * @author Lee Rhodes
+ */
+final class MurmurHash3 {
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private MurmurHash3() { }
+
+  /**
+   * Computes the 128-bit MurmurHash3 of the given range.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the number of bytes to hash
+   * @param seed the seed
+   * @param hashOut receives the low 64 bits in element 0 and the high 64 bits in element 1
+   * @return hashOut
+   */
+  static long[] hash(final Object obj, final long add, final long lengthBytes, final long seed,
+          final long[] hashOut) {
+    long h1 = seed;
+    long h2 = seed;
+    long p = add;
+    final long blocksEnd = add + (lengthBytes & -16L);
+    for ( ; p < blocksEnd; p += 16) {
+      h1 ^= mixK1(getLongLE(obj, p));
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = (h1 * 5) + 0x52dce729;
+
+      h2 ^= mixK2(getLongLE(obj, p + 8));
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = (h2 * 5) + 0x38495ab5;
+    }
+    final int rem = (int) (lengthBytes & 15L);
+    if (rem > 0) {
+      long k1 = 0;
+      long k2 = 0;
+      if (rem > 8) {
+        k1 = getLongLE(obj, p);
+        for (int i = rem - 1; i >= 8; i--) {
+          k2 = (k2 << 8) | (unsafe.getByte(obj, p + i) & 0XFFL);
+        }
+        h2 ^= mixK2(k2);
+      } else {
+        for (int i = rem - 1; i >= 0; i--) {
+          k1 = (k1 << 8) | (unsafe.getByte(obj, p + i) & 0XFFL);
+        }
+      }
+      h1 ^= mixK1(k1);
+    }
+    h1 ^= lengthBytes;
+    h2 ^= lengthBytes;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    h1 += h2;
+    h2 += h1;
+    hashOut[0] = h1;
+    hashOut[1] = h2;
+    return hashOut;
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1;
+    k1 = Long.rotateLeft(k1, 31);
+    return k1 * C2;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2;
+    k2 = Long.rotateLeft(k2, 33);
+    return k2 * C1;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.UnsafeUtil.ARRAY_CHAR_BASE_OFFSET;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_DOUBLE_BASE_OFFSET;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_FLOAT_BASE_OFFSET;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_INT_BASE_OFFSET;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_LONG_BASE_OFFSET;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_SHORT_BASE_OFFSET;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_CHAR_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_DOUBLE_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_FLOAT_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_INT_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_LONG_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_SHORT_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.CHAR_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.DOUBLE_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.FLOAT_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.INT_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.LONG_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.SHORT_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.assertBounds;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+/**
+ * Implementation of WritableBuffer for resources whose byte order is not the native byte order.
+ * Every multi-byte primitive is byte-swapped on access, so the native order implementation,
+ * WritableBufferImpl, needs no per-access test of the byte order.
+ *
+ * @author Lee Rhodes
+ */
+final class NonNativeWritableBufferImpl extends WritableBufferImpl {
+
+  NonNativeWritableBufferImpl(final ResourceState state) {
+    super(state);
+    assert state.isSwapBytes();
+  }
+
+  //PRIMITIVE getXXX() and getXXXArray() XXX
+  @Override
+  public char getChar() {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_CHAR_INDEX_SCALE, getEnd());
+    final char ret = Character.reverseBytes(unsafe.getChar(unsafeObj, cumBaseOffset + pos));
+    incrementPosition(ARRAY_CHAR_INDEX_SCALE);
+    return ret;
+  }
+
+  @Override
+  public void getCharArray(final char[] dstArray, final int dstOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << CHAR_SHIFT;
+    assertBounds(pos, copyBytes, getEnd());
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap16(
+            unsafeObj,
+            cumBaseOffset + pos,
+            dstArray,
+            ARRAY_CHAR_BASE_OFFSET + (dstOffset << CHAR_SHIFT),
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public double getDouble() {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_DOUBLE_INDEX_SCALE, getEnd());
+    final long add = cumBaseOffset + pos;
+    final double ret = Double.longBitsToDouble(Long.reverseBytes(unsafe.getLong(unsafeObj, add)));
+    incrementPosition(ARRAY_DOUBLE_INDEX_SCALE);
+    return ret;
+  }
+
+  @Override
+  public void getDoubleArray(final double[] dstArray, final int dstOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << DOUBLE_SHIFT;
+    assertBounds(pos, copyBytes, getEnd());
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap64(
+            unsafeObj,
+            cumBaseOffset + pos,
+            dstArray,
+            ARRAY_DOUBLE_BASE_OFFSET + (dstOffset << DOUBLE_SHIFT),
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public float getFloat() {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_FLOAT_INDEX_SCALE, getEnd());
+    final long add = cumBaseOffset + pos;
+    final float ret = Float.intBitsToFloat(Integer.reverseBytes(unsafe.getInt(unsafeObj, add)));
+    incrementPosition(ARRAY_FLOAT_INDEX_SCALE);
+    return ret;
+  }
+
+  @Override
+  public void getFloatArray(final float[] dstArray, final int dstOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << FLOAT_SHIFT;
+    assertBounds(pos, copyBytes, getEnd());
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap32(
+            unsafeObj,
+            cumBaseOffset + pos,
+            dstArray,
+            ARRAY_FLOAT_BASE_OFFSET + (dstOffset << FLOAT_SHIFT),
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public int getInt() {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_INT_INDEX_SCALE, getEnd());
+    final int ret = Integer.reverseBytes(unsafe.getInt(unsafeObj, cumBaseOffset + pos));
+    incrementPosition(ARRAY_INT_INDEX_SCALE);
+    return ret;
+  }
+
+  @Override
+  public void getIntArray(final int[] dstArray, final int dstOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << INT_SHIFT;
+    assertBounds(pos, copyBytes, getEnd());
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap32(
+            unsafeObj,
+            cumBaseOffset + pos,
+            dstArray,
+            ARRAY_INT_BASE_OFFSET + (dstOffset << INT_SHIFT),
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public long getLong() {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_LONG_INDEX_SCALE, getEnd());
+    final long ret = Long.reverseBytes(unsafe.getLong(unsafeObj, cumBaseOffset + pos));
+    incrementPosition(ARRAY_LONG_INDEX_SCALE);
+    return ret;
+  }
+
+  @Override
+  public void getLongArray(final long[] dstArray, final int dstOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << LONG_SHIFT;
+    assertBounds(pos, copyBytes, getEnd());
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap64(
+            unsafeObj,
+            cumBaseOffset + pos,
+            dstArray,
+            ARRAY_LONG_BASE_OFFSET + (dstOffset << LONG_SHIFT),
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public short getShort() {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_SHORT_INDEX_SCALE, getEnd());
+    final short ret = Short.reverseBytes(unsafe.getShort(unsafeObj, cumBaseOffset + pos));
+    incrementPosition(ARRAY_SHORT_INDEX_SCALE);
+    return ret;
+  }
+
+  @Override
+  public void getShortArray(final short[] dstArray, final int dstOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << SHORT_SHIFT;
+    assertBounds(pos, copyBytes, getEnd());
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap16(
+            unsafeObj,
+            cumBaseOffset + pos,
+            dstArray,
+            ARRAY_SHORT_BASE_OFFSET + (dstOffset << SHORT_SHIFT),
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  //PRIMITIVE putXXX() and putXXXArray() implementations XXX
+  @Override
+  public void putChar(final char value) {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_CHAR_INDEX_SCALE, getEnd());
+    unsafe.putChar(unsafeObj, cumBaseOffset + pos, Character.reverseBytes(value));
+    incrementPosition(ARRAY_CHAR_INDEX_SCALE);
+  }
+
+  @Override
+  public void putCharArray(final char[] srcArray, final int srcOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << CHAR_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(pos, copyBytes, getEnd());
+    ByteSwap.copySwap16(
+            srcArray,
+            ARRAY_CHAR_BASE_OFFSET + (srcOffset << CHAR_SHIFT),
+            unsafeObj,
+            cumBaseOffset + pos,
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public void putDouble(final double value) {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_DOUBLE_INDEX_SCALE, getEnd());
+    final long add = cumBaseOffset + pos;
+    unsafe.putLong(unsafeObj, add, Long.reverseBytes(Double.doubleToRawLongBits(value)));
+    incrementPosition(ARRAY_DOUBLE_INDEX_SCALE);
+  }
+
+  @Override
+  public void putDoubleArray(final double[] srcArray, final int srcOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << DOUBLE_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(pos, copyBytes, getEnd());
+    ByteSwap.copySwap64(
+            srcArray,
+            ARRAY_DOUBLE_BASE_OFFSET + (srcOffset << DOUBLE_SHIFT),
+            unsafeObj,
+            cumBaseOffset + pos,
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public void putFloat(final float value) {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_FLOAT_INDEX_SCALE, getEnd());
+    final long add = cumBaseOffset + pos;
+    unsafe.putInt(unsafeObj, add, Integer.reverseBytes(Float.floatToRawIntBits(value)));
+    incrementPosition(ARRAY_FLOAT_INDEX_SCALE);
+  }
+
+  @Override
+  public void putFloatArray(final float[] srcArray, final int srcOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << FLOAT_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(pos, copyBytes, getEnd());
+    ByteSwap.copySwap32(
+            srcArray,
+            ARRAY_FLOAT_BASE_OFFSET + (srcOffset << FLOAT_SHIFT),
+            unsafeObj,
+            cumBaseOffset + pos,
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public void putInt(final int value) {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_INT_INDEX_SCALE, getEnd());
+    unsafe.putInt(unsafeObj, cumBaseOffset + pos, Integer.reverseBytes(value));
+    incrementPosition(ARRAY_INT_INDEX_SCALE);
+  }
+
+  @Override
+  public void putIntArray(final int[] srcArray, final int srcOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << INT_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(pos, copyBytes, getEnd());
+    ByteSwap.copySwap32(
+            srcArray,
+            ARRAY_INT_BASE_OFFSET + (srcOffset << INT_SHIFT),
+            unsafeObj,
+            cumBaseOffset + pos,
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public void putLong(final long value) {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_LONG_INDEX_SCALE, getEnd());
+    unsafe.putLong(unsafeObj, cumBaseOffset + pos, Long.reverseBytes(value));
+    incrementPosition(ARRAY_LONG_INDEX_SCALE);
+  }
+
+  @Override
+  public void putLongArray(final long[] srcArray, final int srcOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << LONG_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(pos, copyBytes, getEnd());
+    ByteSwap.copySwap64(
+            srcArray,
+            ARRAY_LONG_BASE_OFFSET + (srcOffset << LONG_SHIFT),
+            unsafeObj,
+            cumBaseOffset + pos,
+            length);
+    incrementPosition(copyBytes);
+  }
+
+  @Override
+  public void putShort(final short value) {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, ARRAY_SHORT_INDEX_SCALE, getEnd());
+    unsafe.putShort(unsafeObj, cumBaseOffset + pos, Short.reverseBytes(value));
+    incrementPosition(ARRAY_SHORT_INDEX_SCALE);
+  }
+
+  @Override
+  public void putShortArray(final short[] srcArray, final int srcOffset, final int length) {
+    checkValid();
+    final long pos = getPosition();
+    final long copyBytes = length << SHORT_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(pos, copyBytes, getEnd());
+    ByteSwap.copySwap16(
+            srcArray,
+            ARRAY_SHORT_BASE_OFFSET + (srcOffset << SHORT_SHIFT),
+            unsafeObj,
+            cumBaseOffset + pos,
+            length);
+    incrementPosition(copyBytes);
+  }
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.UnsafeUtil.ARRAY_CHAR_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_DOUBLE_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_FLOAT_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_INT_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_LONG_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.ARRAY_SHORT_INDEX_SCALE;
+import static com.yahoo.memory.UnsafeUtil.assertBounds;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+/**
+ * Implementation of WritableMemory for resources whose byte order is not the native byte order.
+ * Every multi-byte primitive is byte-swapped on access, so the native order implementation,
+ * WritableMemoryImpl, needs no per-access test of the byte order.
+ *
+ * @author Lee Rhodes
+ */
+final class NonNativeWritableMemoryImpl extends WritableMemoryImpl {
+
+  NonNativeWritableMemoryImpl(final ResourceState state) {
+    super(state);
+    assert state.isSwapBytes();
+  }
+
+  //PRIMITIVE getXXX() and getXXXArray() XXX
+  @Override
+  public char getChar(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_CHAR_INDEX_SCALE, capacity);
+    return Character.reverseBytes(unsafe.getChar(unsafeObj, cumBaseOffset + offsetBytes));
+  }
+
+  @Override
+  public void getCharArray(final long offsetBytes, final char[] dstArray, final int dstOffset,
+          final int length) {
+    getSwappedCharArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public double getDouble(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_DOUBLE_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    return Double.longBitsToDouble(Long.reverseBytes(unsafe.getLong(unsafeObj, add)));
+  }
+
+  @Override
+  public void getDoubleArray(final long offsetBytes, final double[] dstArray, final int dstOffset,
+          final int length) {
+    getSwappedDoubleArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public float getFloat(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_FLOAT_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    return Float.intBitsToFloat(Integer.reverseBytes(unsafe.getInt(unsafeObj, add)));
+  }
+
+  @Override
+  public void getFloatArray(final long offsetBytes, final float[] dstArray, final int dstOffset,
+          final int length) {
+    getSwappedFloatArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public int getInt(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    return Integer.reverseBytes(unsafe.getInt(unsafeObj, cumBaseOffset + offsetBytes));
+  }
+
+  @Override
+  public void getIntArray(final long offsetBytes, final int[] dstArray, final int dstOffset,
+          final int length) {
+    getSwappedIntArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public long getLong(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    return Long.reverseBytes(unsafe.getLong(unsafeObj, cumBaseOffset + offsetBytes));
+  }
+
+  @Override
+  public void getLongArray(final long offsetBytes, final long[] dstArray, final int dstOffset,
+          final int length) {
+    getSwappedLongArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public short getShort(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_SHORT_INDEX_SCALE, capacity);
+    return Short.reverseBytes(unsafe.getShort(unsafeObj, cumBaseOffset + offsetBytes));
+  }
+
+  @Override
+  public void getShortArray(final long offsetBytes, final short[] dstArray, final int dstOffset,
+          final int length) {
+    getSwappedShortArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  //VOLATILE READ METHODS XXX
+  @Override
+  public int getIntVolatile(final long offsetBytes) {
+    return Integer.reverseBytes(super.getIntVolatile(offsetBytes));
+  }
+
+  @Override
+  public long getLongVolatile(final long offsetBytes) {
+    return Long.reverseBytes(super.getLongVolatile(offsetBytes));
+  }
+
+  //PRIMITIVE putXXX() and putXXXArray() implementations XXX
+  @Override
+  public void putChar(final long offsetBytes, final char value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_CHAR_INDEX_SCALE, capacity);
+    unsafe.putChar(unsafeObj, cumBaseOffset + offsetBytes, Character.reverseBytes(value));
+  }
+
+  @Override
+  public void putCharArray(final long offsetBytes, final char[] srcArray, final int srcOffset,
+          final int length) {
+    putSwappedCharArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putDouble(final long offsetBytes, final double value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_DOUBLE_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    unsafe.putLong(unsafeObj, add, Long.reverseBytes(Double.doubleToRawLongBits(value)));
+  }
+
+  @Override
+  public void putDoubleArray(final long offsetBytes, final double[] srcArray, final int srcOffset,
+          final int length) {
+    putSwappedDoubleArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putFloat(final long offsetBytes, final float value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_FLOAT_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    unsafe.putInt(unsafeObj, add, Integer.reverseBytes(Float.floatToRawIntBits(value)));
+  }
+
+  @Override
+  public void putFloatArray(final long offsetBytes, final float[] srcArray, final int srcOffset,
+          final int length) {
+    putSwappedFloatArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putInt(final long offsetBytes, final int value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    unsafe.putInt(unsafeObj, cumBaseOffset + offsetBytes, Integer.reverseBytes(value));
+  }
+
+  @Override
+  public void putIntArray(final long offsetBytes, final int[] srcArray, final int srcOffset,
+          final int length) {
+    putSwappedIntArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putLong(final long offsetBytes, final long value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    unsafe.putLong(unsafeObj, cumBaseOffset + offsetBytes, Long.reverseBytes(value));
+  }
+
+  @Override
+  public void putLongArray(final long offsetBytes, final long[] srcArray, final int srcOffset,
+          final int length) {
+    putSwappedLongArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putShort(final long offsetBytes, final short value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_SHORT_INDEX_SCALE, capacity);
+    unsafe.putShort(unsafeObj, cumBaseOffset + offsetBytes, Short.reverseBytes(value));
+  }
+
+  @Override
+  public void putShortArray(final long offsetBytes, final short[] srcArray, final int srcOffset,
+          final int length) {
+    putSwappedShortArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  //Atomic Write Methods XXX
+  @Override
+  public long getAndAddLong(final long offsetBytes, final long delta) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    long oldValue;
+    do {
+      oldValue = unsafe.getLongVolatile(unsafeObj, add);
+    } while (!unsafe.compareAndSwapLong(unsafeObj, add, oldValue,
+            Long.reverseBytes(Long.reverseBytes(oldValue) + delta)));
+    return Long.reverseBytes(oldValue) + delta;
+  }
+
+  @Override
+  public long getAndSetLong(final long offsetBytes, final long newValue) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    return Long.reverseBytes(
+            UnsafeUtil.compatibilityMethods.getAndSetLong(unsafeObj, add,
+                    Long.reverseBytes(newValue)));
+  }
+
+  @Override
+  public boolean compareAndSwapLong(final long offsetBytes, final long expect, final long update) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    return unsafe.compareAndSwapLong(unsafeObj, cumBaseOffset + offsetBytes,
+            Long.reverseBytes(expect), Long.reverseBytes(update));
+  }
+
+  @Override
+  public int getAndAddInt(final long offsetBytes, final int delta) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    int oldValue;
+    do {
+      oldValue = unsafe.getIntVolatile(unsafeObj, add);
+    } while (!unsafe.compareAndSwapInt(unsafeObj, add, oldValue,
+            Integer.reverseBytes(Integer.reverseBytes(oldValue) + delta)));
+    return Integer.reverseBytes(oldValue) + delta;
+  }
+
+  @Override
+  public int getAndSetInt(final long offsetBytes, final int newValue) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    return Integer.reverseBytes(
+            UnsafeUtil.compatibilityMethods.getAndSetInt(unsafeObj, add,
+                    Integer.reverseBytes(newValue)));
+  }
+
+  @Override
+  public boolean compareAndSwapInt(final long offsetBytes, final int expect, final int update) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    return unsafe.compareAndSwapInt(unsafeObj, cumBaseOffset + offsetBytes,
+            Integer.reverseBytes(expect), Integer.reverseBytes(update));
+  }
+
+  @Override
+  public void putIntVolatile(final long offsetBytes, final int value) {
+    super.putIntVolatile(offsetBytes, Integer.reverseBytes(value));
+  }
+
+  @Override
+  public void putLongVolatile(final long offsetBytes, final long value) {
+    super.putLongVolatile(offsetBytes, Long.reverseBytes(value));
+  }
+
+  @Override
+  public void putIntOrdered(final long offsetBytes, final int value) {
+    super.putIntOrdered(offsetBytes, Integer.reverseBytes(value));
+  }
+
+  @Override
+  public void putLongOrdered(final long offsetBytes, final long value) {
+    super.putLongOrdered(offsetBytes, Long.reverseBytes(value));
+  }
+
+  @Override
+  public long getAndSetBits(final long offsetBytes, final long bitMask) {
+    return Long.reverseBytes(super.getAndSetBits(offsetBytes, Long.reverseBytes(bitMask)));
+  }
+
+  @Override
+  public long getAndClearBits(final long offsetBytes, final long bitMask) {
+    return Long.reverseBytes(super.getAndClearBits(offsetBytes, Long.reverseBytes(bitMask)));
+  }
+
+  @Override
+  public long getAndFlipBits(final long offsetBytes, final long bitMask) {
+    return Long.reverseBytes(super.getAndFlipBits(offsetBytes, Long.reverseBytes(bitMask)));
+  }
+
+}
@@ -0,0 +1,585 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A MemoryManager that recycles direct (native) memory blocks instead of returning them to the OS.
+ *
+ * <p>Requests are rounded up to a power-of-two size class, from 64 bytes up to a configurable
+ * maximum. Each size class keeps a bounded free list of blocks. Closing a WritableDirectHandle
+ * obtained from this manager returns its block to the free list of its size class, where it is
+ * handed out again by the next request of that class. Only when the free list is full is the
+ * block freed. Requests larger than the largest size class are neither rounded nor pooled.</p>
+ *
+ * <p>The capacity of the returned WritableMemory is always the requested capacity, not the size
+ * of the size class. As with any direct allocation, recycled memory is not cleared.</p>
+ *
+ * <p>Optionally each thread can keep a small magazine of recently freed blocks per size class in
+ * front of the shared free lists. A thread then allocates from, and frees into, its own magazine
+ * without contending with other threads. Only when its magazine runs empty or full does it move
+ * half a magazine of blocks from or to the shared free list in a single batch. A magazine is
+ * used only by its owning thread and takes no lock. Other threads never touch a live thread's
+ * magazines: {@link #trim()} only flags them, and the owner frees its cached blocks on its next
+ * allocation or free. A thread gets its magazines on its first allocation. The magazines of
+ * threads that have died are returned to the shared free lists when another thread gets its
+ * magazines, when a shared free list runs empty (at most once per millisecond), and by
+ * {@link #trim()}. Blocks freed by threads that have never allocated from this pool, such as the
+ * Cleaner, go straight to the shared free lists.</p>
+ *
+ * <p>Optionally a background thread can zero idle blocks of the shared free lists ahead of time
+ * and keep them in separate zeroed free lists. A request for {@link AllocationMode#ZEROED}
+ * memory is then served from a zeroed free list without an inline memset whenever one is
+ * available. The background thread is parked while there is nothing to zero, and is woken when
+ * blocks are added to a shared free list or taken from a zeroed free list. See
+ * {@link #startBackgroundZeroing(int)}.</p>
+ *
+ * <p>This class is thread-safe. Pooled blocks remain allocated until {@link #trim()} is called.
+ * The counts of pooled blocks and bytes include the magazines of other live threads only
+ * approximately.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class PooledMemoryManager implements MemoryManager {
+  static final int MIN_CLASS_SHIFT = 6; //64 bytes
+  static final int DEFAULT_MAX_BLOCKS_PER_CLASS = 64;
+  static final long DEFAULT_MAX_POOLED_BLOCK_BYTES = 1L << 24; //16MB
+  static final long DEAD_SWEEP_INTERVAL_NANOS = 1000000L; //1ms
+
+  private final SizeClass[] classes;
+  private final int magazineSize;
+  private final ThreadLocal<ThreadMagazines> magazines;
+  private final ConcurrentLinkedQueue<ThreadMagazines> allMagazines =
+          new ConcurrentLinkedQueue<>();
+  private volatile long nextDeadSweepNanos = System.nanoTime();
+  private volatile Zeroer zeroer = null;
+  private final AllocateDirect.Releaser releaser = new AllocateDirect.Releaser() {
+    @Override
+    public void release(final long actualNativeBaseOffset, final long actualCapacity) {
+      recycle(actualNativeBaseOffset, actualCapacity);
+    }
+  };
+
+  /**
+   * Creates a pool that keeps up to 64 idle blocks per size class for blocks up to 16MB.
+   */
+  public PooledMemoryManager() {
+    this(DEFAULT_MAX_BLOCKS_PER_CLASS, DEFAULT_MAX_POOLED_BLOCK_BYTES);
+  }
+
+  /**
+   * Creates a pool with the given limits.
+   * @param maxBlocksPerClass the maximum number of idle blocks kept per size class
+   * @param maxPooledBlockBytes the largest block that will be pooled. It is rounded up to a power
+   * of two and must be at least 64.
+   */
+  public PooledMemoryManager(final int maxBlocksPerClass, final long maxPooledBlockBytes) {
+    this(maxBlocksPerClass, maxPooledBlockBytes, 0);
+  }
+
+  /**
+   * Creates a pool with the given limits and per-thread magazines of the given size.
+   * @param maxBlocksPerClass the maximum number of idle blocks kept per size class in the shared
+   * free lists
+   * @param maxPooledBlockBytes the largest block that will be pooled. It is rounded up to a power
+   * of two and must be at least 64.
+   * @param magazineSize the maximum number of idle blocks each thread caches per size class.
+   * Zero disables the thread magazines.
+   */
+  public PooledMemoryManager(final int maxBlocksPerClass, final long maxPooledBlockBytes,
+          final int magazineSize) {
+    if ((maxBlocksPerClass < 0) || (maxPooledBlockBytes < (1L << MIN_CLASS_SHIFT))
+            || (maxPooledBlockBytes > (1L << 62)) || (magazineSize < 0)) {
+      throw new IllegalArgumentException("maxBlocksPerClass: " + maxBlocksPerClass
+              + ", maxPooledBlockBytes: " + maxPooledBlockBytes
+              + ", magazineSize: " + magazineSize);
+    }
+    final int numClasses = classIndex(maxPooledBlockBytes) + 1;
+    classes = new SizeClass[numClasses];
+    for (int i = 0; i < numClasses; i++) {
+      classes[i] = new SizeClass(1L << (i + MIN_CLASS_SHIFT), maxBlocksPerClass);
+    }
+    this.magazineSize = magazineSize;
+    magazines = (magazineSize == 0) ? null : new ThreadLocal<ThreadMagazines>();
+  }
+
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes) {
+    return allocateDirect(capacityBytes, AllocateDirect.MIN_ALIGNMENT);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The alignment padding is taken from the pooled block, so the request is pooled in the size
+   * class of capacityBytes + alignmentBytes - 1.</p>
+   */
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes, final long alignmentBytes) {
+    AllocateDirect.checkAlignment(alignmentBytes);
+    final ResourceState state = new ResourceState();
+    state.putCapacity(capacityBytes);
+    final long padBytes = (alignmentBytes <= AllocateDirect.MIN_ALIGNMENT) ? 0 : alignmentBytes - 1L;
+    final int index = classIndex(capacityBytes + padBytes);
+    if (index >= classes.length) {
+      return WritableDirectHandle.create(AllocateDirect.allocate(state, alignmentBytes), this);
+    }
+    final SizeClass sc = classes[index];
+    long address;
+    if (magazines == null) {
+      address = sc.poll();
+    } else {
+      final Magazine mag = ownMagazines().mags[index];
+      address = mag.poll(sc);
+      if ((address == 0L) && sweepDeadMagazines()) {
+        address = mag.poll(sc);
+      }
+    }
+    if (address == 0L) {
+      final Zeroer z = zeroer;
+      address = (z == null) ? 0L : z.zeroed[index].poll();
+      if (address != 0L) { LockSupport.unpark(z); } //room to zero another block
+    }
+    if (address == 0L) {
+      address = unsafe.allocateMemory(sc.blockBytes);
+    }
+    return wrap(state, alignmentBytes, sc, address);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>While background zeroing is running, zeroed memory is taken from a zeroed free list if
+   * one is available, otherwise it is cleared inline.</p>
+   */
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes,
+          final AllocationMode mode) {
+    if (mode == AllocationMode.ZEROED) {
+      final int index = classIndex(capacityBytes);
+      final Zeroer z = zeroer;
+      if ((z != null) && (index < classes.length)) {
+        final long address = z.zeroed[index].poll();
+        if (address != 0L) {
+          LockSupport.unpark(z); //room to zero another block
+          final ResourceState state = new ResourceState();
+          state.putCapacity(capacityBytes);
+          return wrap(state, AllocateDirect.MIN_ALIGNMENT, classes[index], address);
+        }
+      }
+      final WritableDirectHandle handle = allocateDirect(capacityBytes);
+      handle.get().clear();
+      return handle;
+    }
+    return allocateDirect(capacityBytes);
+  }
+
+  private WritableDirectHandle wrap(final ResourceState state, final long alignmentBytes,
+          final SizeClass sc, final long address) {
+    state.putNativeBaseOffset(AllocateDirect.alignUp(address, alignmentBytes));
+    return WritableDirectHandle.create(
+            AllocateDirect.wrap(state, address, sc.blockBytes, releaser), this);
+  }
+
+  /**
+   * Returns new pooled direct WritableMemory of the given capacity. Its handle is closed, and its
+   * block returned to this pool, by {@link #requestClose(WritableMemory, WritableMemory)}.
+   * @param capacityBytes The capacity being requested
+   * @return new direct WritableMemory with the given capacity.
+   */
+  @Override
+  public WritableMemory request(final long capacityBytes) {
+    return allocateDirect(capacityBytes).get();
+  }
+
+  @Override
+  public void requestClose(final WritableMemory memoryToClose, final WritableMemory newMemory) {
+    final WritableDirectHandle handle = memoryToClose.getHandle();
+    if (handle != null) {
+      handle.close();
+    }
+  }
+
+  /**
+   * Starts a daemon thread that moves idle blocks from the shared free lists to zeroed free lists,
+   * clearing them on the way, until each zeroed free list holds the given number of blocks.
+   * @param maxZeroedBlocksPerClass the maximum number of zeroed idle blocks kept per size class
+   */
+  public synchronized void startBackgroundZeroing(final int maxZeroedBlocksPerClass) {
+    if (maxZeroedBlocksPerClass <= 0) {
+      throw new IllegalArgumentException(
+              "maxZeroedBlocksPerClass must be positive: " + maxZeroedBlocksPerClass);
+    }
+    if (zeroer != null) {
+      throw new IllegalStateException("Background zeroing is already running.");
+    }
+    final Zeroer z = new Zeroer(maxZeroedBlocksPerClass);
+    zeroer = z;
+    z.start();
+  }
+
+  /**
+   * Stops the background zeroing thread, if running, and returns its zeroed blocks to the shared
+   * free lists.
+   */
+  public synchronized void stopBackgroundZeroing() {
+    final Zeroer z = zeroer;
+    if (z == null) { return; }
+    zeroer = null;
+    z.running = false;
+    LockSupport.unpark(z);
+    boolean interrupted = false;
+    while (z.isAlive()) {
+      try {
+        z.join();
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) { Thread.currentThread().interrupt(); }
+    for (int i = 0; i < classes.length; i++) {
+      long address;
+      while ((address = z.zeroed[i].poll()) != 0L) {
+        if (!classes[i].offer(address)) {
+          unsafe.freeMemory(address);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the number of zeroed idle blocks currently held by this pool.
+   * @return the number of zeroed idle blocks currently held by this pool.
+   */
+  public long getZeroedBlocks() {
+    final Zeroer z = zeroer;
+    if (z == null) { return 0; }
+    long blocks = 0;
+    for (int i = 0; i < classes.length; i++) {
+      blocks += z.zeroed[i].size();
+    }
+    return blocks;
+  }
+
+  /**
+   * Frees all idle blocks held by this pool. Blocks currently in use are not affected and will
+   * be pooled again when they are closed. The magazines of the calling thread and of threads that
+   * have died are freed at once. Those of other live threads are freed by their owners on their
+   * next allocation or free.
+   */
+  public void trim() {
+    final Thread self = Thread.currentThread();
+    for (final ThreadMagazines tm : allMagazines) {
+      if (tm.owner == self) {
+        tm.freeAll();
+      } else if (!tm.owner.isAlive()) {
+        if (allMagazines.remove(tm)) { tm.freeAll(); } //else claimed by another thread
+      } else {
+        tm.trimRequested = true;
+      }
+    }
+    for (int i = 0; i < classes.length; i++) {
+      final SizeClass sc = classes[i];
+      long address;
+      while ((address = sc.poll()) != 0L) {
+        unsafe.freeMemory(address);
+      }
+    }
+    final Zeroer z = zeroer;
+    if (z != null) {
+      for (int i = 0; i < classes.length; i++) {
+        long address;
+        while ((address = z.zeroed[i].poll()) != 0L) {
+          unsafe.freeMemory(address);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the number of idle blocks currently held by this pool.
+   * @return the number of idle blocks currently held by this pool.
+   */
+  public long getPooledBlocks() {
+    long blocks = 0;
+    for (final ThreadMagazines tm : allMagazines) {
+      final Magazine[] mags = tm.mags;
+      for (int i = 0; i < mags.length; i++) {
+        blocks += mags[i].size();
+      }
+    }
+    for (int i = 0; i < classes.length; i++) {
+      blocks += classes[i].size();
+    }
+    return blocks + getZeroedBlocks();
+  }
+
+  /**
+   * Gets the total size in bytes of the idle blocks currently held by this pool.
+   * @return the total size in bytes of the idle blocks currently held by this pool.
+   */
+  public long getPooledBytes() {
+    long bytes = 0;
+    for (final ThreadMagazines tm : allMagazines) {
+      final Magazine[] mags = tm.mags;
+      for (int i = 0; i < mags.length; i++) {
+        bytes += mags[i].size() * classes[i].blockBytes;
+      }
+    }
+    final Zeroer z = zeroer;
+    for (int i = 0; i < classes.length; i++) {
+      final long idle = classes[i].size() + ((z == null) ? 0 : z.zeroed[i].size());
+      bytes += idle * classes[i].blockBytes;
+    }
+    return bytes;
+  }
+
+  //Called from the Deallocator, either by close() or by the Cleaner
+  void recycle(final long address, final long blockBytes) {
+    final int index = classIndex(blockBytes);
+    if (index >= classes.length) {
+      unsafe.freeMemory(address);
+      return;
+    }
+    final ThreadMagazines tm = (magazines == null) ? null : magazines.get();
+    if (tm != null) {
+      if (tm.trimRequested) { tm.freeAll(); }
+      if (tm.mags[index].offer(address, classes[index])) {
+        wakeZeroer();
+      }
+    } else if (classes[index].offer(address)) { //not a thread that allocates from this pool
+      wakeZeroer();
+    } else {
+      unsafe.freeMemory(address);
+    }
+  }
+
+  //Called after blocks are added to a shared free list
+  private void wakeZeroer() {
+    final Zeroer z = zeroer;
+    if (z != null) {
+      LockSupport.unpark(z);
+    }
+  }
+
+  //Returns the magazines of the calling thread, creating them on its first allocation
+  private ThreadMagazines ownMagazines() {
+    ThreadMagazines tm = magazines.get();
+    if (tm == null) {
+      returnDeadMagazines();
+      tm = new ThreadMagazines(classes.length, magazineSize);
+      allMagazines.add(tm);
+      magazines.set(tm);
+    } else if (tm.trimRequested) {
+      tm.freeAll();
+    }
+    return tm;
+  }
+
+  //Called when a shared free list runs empty. Returns true if any dead magazines were returned.
+  private boolean sweepDeadMagazines() {
+    final long now = System.nanoTime();
+    if ((now - nextDeadSweepNanos) < 0) { return false; }
+    nextDeadSweepNanos = now + DEAD_SWEEP_INTERVAL_NANOS;
+    return returnDeadMagazines();
+  }
+
+  //Moves the blocks of the magazines of threads that have died to the shared free lists.
+  //Returns true if any were returned.
+  private boolean returnDeadMagazines() {
+    boolean returned = false;
+    for (final ThreadMagazines tm : allMagazines) {
+      //the removal claims the magazines, so that only one thread returns them
+      if (tm.owner.isAlive() || !allMagazines.remove(tm)) { continue; }
+      for (int i = 0; i < tm.mags.length; i++) {
+        tm.mags[i].returnAll(classes[i]);
+      }
+      returned = true;
+    }
+    if (returned) { wakeZeroer(); }
+    return returned;
+  }
+
+  /**
+   * Returns the index of the smallest size class that can hold the given capacity.
+   * @param capacityBytes the given capacity, which must be positive
+   * @return the index of the smallest size class that can hold the given capacity.
+   */
+  static int classIndex(final long capacityBytes) {
+    final int shift = 64 - Long.numberOfLeadingZeros(capacityBytes - 1L); //ceil(log2(capacity))
+    return (shift <= MIN_CLASS_SHIFT) ? 0 : shift - MIN_CLASS_SHIFT;
+  }
+
+  /**
+   * A bounded LIFO stack of idle blocks of one size. LIFO hands out the most recently used,
+   * and most likely cached, block first.
+   */
+  private static final class SizeClass {
+    final long blockBytes;
+    private final long[] free;
+    private int count = 0;
+
+    SizeClass(final long blockBytes, final int maxBlocks) {
+      this.blockBytes = blockBytes;
+      free = new long[maxBlocks];
+    }
+
+    synchronized long poll() {
+      return (count == 0) ? 0L : free[--count];
+    }
+
+    synchronized boolean offer(final long address) {
+      if (count == free.length) { return false; }
+      free[count++] = address;
+      return true;
+    }
+
+    synchronized int size() {
+      return count;
+    }
+
+    synchronized boolean isFull() {
+      return count == free.length;
+    }
+
+    //moves up to n blocks into the given magazine, which only the calling thread uses
+    synchronized void pollBatch(final Magazine mag, final int n) {
+      final int moves = Math.min(n, count);
+      count -= moves;
+      System.arraycopy(free, count, mag.blocks, mag.count, moves);
+      mag.count += moves;
+    }
+
+    //moves n blocks out of the given magazine, which only the calling thread uses. Blocks that
+    //do not fit into this free list are freed.
+    synchronized void offerBatch(final Magazine mag, final int n) {
+      final int moves = Math.min(n, free.length - count);
+      mag.count -= moves;
+      System.arraycopy(mag.blocks, mag.count, free, count, moves);
+      count += moves;
+      for (int i = moves; i < n; i++) {
+        unsafe.freeMemory(mag.blocks[--mag.count]);
+      }
+    }
+  }
+
+  /**
+   * The magazines of one thread, one per size class. Only the owner uses them while it is alive.
+   * Another thread may take them over only after the owner has died, and after claiming them by
+   * removing them from allMagazines. Thread termination makes the owner's last writes visible.
+   */
+  private static final class ThreadMagazines {
+    final Thread owner = Thread.currentThread();
+    final Magazine[] mags;
+    //set by trim() on another thread; the owner frees its cached blocks when it sees it
+    volatile boolean trimRequested = false;
+
+    ThreadMagazines(final int numClasses, final int magazineSize) {
+      mags = new Magazine[numClasses];
+      for (int i = 0; i < numClasses; i++) {
+        mags[i] = new Magazine(magazineSize);
+      }
+    }
+
+    void freeAll() {
+      trimRequested = false; //cleared first so that a concurrent request is not lost
+      for (int i = 0; i < mags.length; i++) {
+        mags[i].freeAll();
+      }
+    }
+  }
+
+  /**
+   * A per-thread cache of idle blocks of one size class. It takes no lock, see
+   * {@link ThreadMagazines}.
+   */
+  private static final class Magazine {
+    final long[] blocks;
+    int count = 0;
+
+    Magazine(final int magazineSize) {
+      blocks = new long[magazineSize];
+    }
+
+    long poll(final SizeClass sc) {
+      if (count == 0) {
+        sc.pollBatch(this, (blocks.length + 1) >>> 1);
+        if (count == 0) { return 0L; }
+      }
+      return blocks[--count];
+    }
+
+    //returns true if blocks were moved to the shared free list
+    boolean offer(final long address, final SizeClass sc) {
+      final boolean spill = count == blocks.length;
+      if (spill) {
+        sc.offerBatch(this, (blocks.length + 1) >>> 1);
+      }
+      blocks[count++] = address;
+      return spill;
+    }
+
+    //read without synchronization by the pool statistics, so it may be stale
+    int size() {
+      return count;
+    }
+
+    //moves all blocks to the given free list, freeing those that do not fit
+    void returnAll(final SizeClass sc) {
+      sc.offerBatch(this, count);
+    }
+
+    void freeAll() {
+      while (count > 0) {
+        unsafe.freeMemory(blocks[--count]);
+      }
+    }
+  }
+
+  /**
+   * Zeroes idle blocks of the shared free lists into the zeroed free lists, smallest size class
+   * first, and parks whenever there is nothing to do until the pool unparks it.
+   */
+  private final class Zeroer extends Thread {
+    final SizeClass[] zeroed = new SizeClass[classes.length];
+    volatile boolean running = true;
+
+    Zeroer(final int maxZeroedBlocksPerClass) {
+      super("PooledMemoryManager-Zeroer");
+      setDaemon(true);
+      for (int i = 0; i < zeroed.length; i++) {
+        zeroed[i] = new SizeClass(classes[i].blockBytes, maxZeroedBlocksPerClass);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        boolean idle = true;
+        for (int i = 0; (i < zeroed.length) && running; i++) {
+          final SizeClass clean = zeroed[i];
+          while (running && !clean.isFull()) {
+            final long address = classes[i].poll();
+            if (address == 0L) { break; }
+            unsafe.setMemory(address, clean.blockBytes, (byte) 0);
+            if (!clean.offer(address) && !classes[i].offer(address)) {
+              unsafe.freeMemory(address);
+            }
+            idle = false;
+          }
+        }
+        if (idle) {
+          LockSupport.park(this); //a permit from an unpark since the scan returns at once
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+/**
+ * A MemoryManager that serves all requests from direct (native) memory and grows existing
+ * direct memory with unsafe.reallocateMemory(), so that the system allocator can extend the
+ * block in place when the adjacent address space is free.
+ *
+ * <p>{@link #request(WritableMemory, long)} reallocates the given memory if it is the WritableMemory
+ * of a handle obtained from this manager, which invalidates it. Otherwise, for example for a
+ * region, aligned memory or memory from another manager, it falls back to allocate and copy.
+ * In both cases {@link #requestClose(WritableMemory, WritableMemory)} then releases whatever is
+ * left of the old memory. Requests are not limited to 2GB.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class ReallocatingMemoryManager implements MemoryManager {
+  private static final ReallocatingMemoryManager memMgr = new ReallocatingMemoryManager();
+
+  private ReallocatingMemoryManager() {}
+
+  /**
+   * Gets the ReallocatingMemoryManager
+   * @return the ReallocatingMemoryManager
+   */
+  public static ReallocatingMemoryManager getInstance() {
+    return memMgr;
+  }
+
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes) {
+    final ResourceState state = new ResourceState();
+    state.putCapacity(capacityBytes);
+    return WritableDirectHandle.create(AllocateDirect.allocate(state), this);
+  }
+
+  @Override
+  public WritableDirectHandle allocateDirect(final long capacityBytes, final long alignmentBytes) {
+    final ResourceState state = new ResourceState();
+    state.putCapacity(capacityBytes);
+    return WritableDirectHandle.create(AllocateDirect.allocate(state, alignmentBytes), this);
+  }
+
+  @Override
+  public WritableMemory request(final long capacityBytes) {
+    return allocateDirect(capacityBytes).get();
+  }
+
+  @Override
+  public WritableMemory request(final WritableMemory currentMemory, final long capacityBytes) {
+    final WritableDirectHandle handle = currentMemory.getHandle();
+    if ((handle != null) && (currentMemory.getMemoryRequestServer() == this)) {
+      final WritableDirectHandle newHandle = handle.reallocate(capacityBytes, this);
+      if (newHandle != null) {
+        return newHandle.get();
+      }
+    }
+    final WritableMemory newMemory = request(capacityBytes);
+    currentMemory.copyTo(0, newMemory, 0, Math.min(currentMemory.getCapacity(), capacityBytes));
+    return newMemory;
+  }
+
+  @Override
+  public void requestClose(final WritableMemory memoryToClose, final WritableMemory newMemory) {
+    final WritableDirectHandle handle = memoryToClose.getHandle();
+    if (handle != null) {
+      handle.close(); //does nothing if the memory was reallocated
+    }
+  }
+
+}
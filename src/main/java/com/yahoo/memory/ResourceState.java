@@ -10,7 +10,7 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Keeps the configuration state primarily for Resources.
@@ -24,11 +24,11 @@ final class ResourceState {
    */
   private static final ByteOrder nativeOrder_ = ByteOrder.nativeOrder();
 
-  //Monitoring
-  static AtomicLong currentDirectMemoryAllocations_ = new AtomicLong();
-  static AtomicLong currentDirectMemoryAllocated_ = new AtomicLong();
-  static AtomicLong currentDirectMemoryMapAllocations_ = new AtomicLong();
-  static AtomicLong currentDirectMemoryMapAllocated_ = new AtomicLong();
+  //Monitoring. Striped so that concurrent allocations and frees do not contend on one cache line.
+  static final LongAdder currentDirectMemoryAllocations_ = new LongAdder();
+  static final LongAdder currentDirectMemoryAllocated_ = new LongAdder();
+  static final LongAdder currentDirectMemoryMapAllocations_ = new LongAdder();
+  static final LongAdder currentDirectMemoryMapAllocated_ = new LongAdder();
 
   //FOUNDATION PARAMETERS
   /**
@@ -76,6 +76,12 @@ final class ResourceState {
    */
   private WritableDirectHandle handle_;
 
+  /**
+   * Only relevant when direct memory or a memory map is the backing resource. The owner of the
+   * resource for accounting, or null.
+   */
+  private AllocationTag tag_ = null;
+
   //FLAGS
   /**
    * Only set true if the backing resource has an independent read-only state and is, in fact,
@@ -159,6 +165,7 @@ final class ResourceState {
     out.capacity_ = capacity_;
     //cumBaseOffset is computed
     out.memReqSvr_ = memReqSvr_;
+    out.tag_ = tag_;
 
     //FLAGS
     out.resourceIsReadOnly_ = resourceIsReadOnly_;
@@ -256,6 +263,14 @@ final class ResourceState {
     handle_ = handler;
   }
 
+  AllocationTag getTag() {
+    return tag_;
+  }
+
+  void putTag(final AllocationTag tag) {
+    tag_ = tag;
+  }
+
   //FLAGS
   boolean isResourceReadOnly() {
     return resourceIsReadOnly_.get();
@@ -273,6 +288,11 @@ final class ResourceState {
     valid_.change();
   }
 
+  //Shared by all copies of this state
+  StepBoolean getValidFlag() {
+    return valid_;
+  }
+
   boolean isDirect() {
     return nativeBaseOffset_ > 0L;
   }
@@ -72,6 +72,16 @@ public final class UnsafeUtil {
    */
   public static final long UNSAFE_COPY_THRESHOLD = 1L << 20; //2^20
 
+  /**
+   * If true, every access checks that the Memory is valid and that the offset and length are
+   * within bounds, and throws if not, whether or not Java assertions are enabled. The same holds
+   * for the bounds of new regions and for the start, position and end of a Buffer. Otherwise
+   * these checks are Java asserts. It is set at startup by the system property
+   * <i>com.yahoo.memory.checkBounds</i>. Because it is a constant, the JIT can remove the branch
+   * that is not taken.
+   */
+  public static final boolean CHECK_BOUNDS = Boolean.getBoolean("com.yahoo.memory.checkBounds");
+
   static {
     try {
       //should work across JVMs, e.g., with Android:
@@ -130,7 +140,8 @@ public final class UnsafeUtil {
 
   /**
    * Perform bounds checking using java assert (if enabled) checking the requested offset and length
-   * against the allocated size.
+   * against the allocated size. If {@link #CHECK_BOUNDS} is set this is the same as
+   * {@link #checkBounds(long, long, long)} instead.
    * If reqOff + reqLen &gt; allocSize or any of the parameters are negative an exception will
    * be thrown.
    * @param reqOff the requested offset
@@ -138,6 +149,10 @@ public final class UnsafeUtil {
    * @param allocSize the allocated size.
    */
   public static void assertBounds(final long reqOff, final long reqLen, final long allocSize) {
+    if (CHECK_BOUNDS) {
+      checkBounds(reqOff, reqLen, allocSize);
+      return;
+    }
     assert ((reqOff | reqLen | (reqOff + reqLen) | (allocSize - (reqOff + reqLen))) >= 0) :
       "reqOffset: " + reqOff + ", reqLength: " + reqLen
       + ", (reqOff + reqLen): " + (reqOff + reqLen) + ", allocSize: " + allocSize;
@@ -153,12 +168,18 @@ public final class UnsafeUtil {
    */
   public static void checkBounds(final long reqOff, final long reqLen, final long allocSize) {
     if ((reqOff | reqLen | (reqOff + reqLen) | (allocSize - (reqOff + reqLen))) < 0) {
-      throw new IllegalArgumentException(
-          "reqOffset: " + reqOff + ", reqLength: "
-              + ", (reqOff + reqLen): " + (reqOff + reqLen) + ", allocSize: " + allocSize);
+      throw outOfBounds(reqOff, reqLen, allocSize);
     }
   }
 
+  //Kept out of checkBounds so that the check itself stays small enough to inline
+  private static IllegalArgumentException outOfBounds(final long reqOff, final long reqLen,
+          final long allocSize) {
+    return new IllegalArgumentException(
+        "reqOffset: " + reqOff + ", reqLength: " + reqLen
+            + ", (reqOff + reqLen): " + (reqOff + reqLen) + ", allocSize: " + allocSize);
+  }
+
   /**
    * Return true if the given offsets and length do not overlap.
    * @param srcOff the start of the source region
@@ -177,6 +198,10 @@ public final class UnsafeUtil {
     long getAndAddLong(Object obj, long address, long increment);
 
     long getAndSetLong(Object obj, long address, long value);
+
+    int getAndAddInt(Object obj, long address, int increment);
+
+    int getAndSetInt(Object obj, long address, int value);
   }
 
   private static class JDK8Compatible implements JDKCompatibility {
@@ -195,6 +220,16 @@ public final class UnsafeUtil {
     public long getAndSetLong(final Object obj, final long address, final long value) {
       return myUnsafe.getAndSetLong(obj, address, value);
     }
+
+    @Override
+    public int getAndAddInt(final Object obj, final long address, final int increment) {
+      return myUnsafe.getAndAddInt(obj, address, increment);
+    }
+
+    @Override
+    public int getAndSetInt(final Object obj, final long address, final int value) {
+      return myUnsafe.getAndSetInt(obj, address, value);
+    }
   }
 
   private static class JDK7Compatible implements JDKCompatibility {
@@ -223,6 +258,26 @@ public final class UnsafeUtil {
 
       return retVal;
     }
+
+    @Override
+    public int getAndAddInt(final Object obj, final long address, final int increment) {
+      int retVal;
+      do {
+        retVal = myUnsafe.getIntVolatile(obj, address);
+      } while (!myUnsafe.compareAndSwapInt(obj, address, retVal, retVal + increment));
+
+      return retVal;
+    }
+
+    @Override
+    public int getAndSetInt(final Object obj, final long address, final int value) {
+      int retVal;
+      do {
+        retVal = myUnsafe.getIntVolatile(obj, address);
+      } while (!myUnsafe.compareAndSwapInt(obj, address, retVal, value));
+
+      return retVal;
+    }
   }
 
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.CompareAndCopy.getLongLE;
+import static com.yahoo.memory.CompareAndCopy.putLongLE;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+import java.io.IOException;
+
+/**
+ * Encodes chars to UTF-8 and decodes UTF-8 to chars directly at any location addressable by
+ * Unsafe, without an intermediate byte array. Runs of ASCII are handled eight bytes at a time:
+ * eight chars below 0x80 are packed into one word and written with a single store, and a word
+ * of bytes without high bits is appended without further checks.
+ *
+ * <p>Only well-formed input is accepted. Unpaired surrogates when encoding, and malformed,
+ * overlong or truncated sequences when decoding, throw IllegalArgumentException.</p>
+ *
+ * @author Lee Rhodes
+ */
+final class Utf8 {
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private Utf8() { }
+
+  /**
+   * Returns the number of bytes needed to encode the given chars.
+   * @param src the chars to encode
+   * @return the number of bytes needed to encode the given chars
+   * @throws IllegalArgumentException if the chars contain an unpaired surrogate
+   */
+  static long utf8Length(final CharSequence src) {
+    final int n = src.length();
+    long bytes = n;
+    for (int i = 0; i < n; i++) {
+      final char c = src.charAt(i);
+      if (c < 0x80) { continue; }
+      if (c < 0x800) {
+        bytes += 1;
+      } else if (Character.isSurrogate(c)) {
+        checkSurrogatePair(src, i);
+        bytes += 2; //4 bytes for 2 chars
+        i++;
+      } else {
+        bytes += 2;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Encodes the given chars.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset to write to, which must have room for utf8Length(src) bytes
+   * @param src the chars to encode
+   * @return the number of bytes written
+   * @throws IllegalArgumentException if the chars contain an unpaired surrogate
+   */
+  static long putUtf8(final Object obj, final long add, final CharSequence src) {
+    final int n = src.length();
+    long p = add;
+    int i = 0;
+    while (i < n) {
+      for ( ; i <= (n - 8); i += 8, p += 8) {
+        final long c0 = src.charAt(i);
+        final long c1 = src.charAt(i + 1);
+        final long c2 = src.charAt(i + 2);
+        final long c3 = src.charAt(i + 3);
+        final long c4 = src.charAt(i + 4);
+        final long c5 = src.charAt(i + 5);
+        final long c6 = src.charAt(i + 6);
+        final long c7 = src.charAt(i + 7);
+        if ((c0 | c1 | c2 | c3 | c4 | c5 | c6 | c7) >= 0x80) { break; }
+        final long word = c0 | (c1 << 8) | (c2 << 16) | (c3 << 24)
+            | (c4 << 32) | (c5 << 40) | (c6 << 48) | (c7 << 56);
+        putLongLE(obj, p, word);
+      }
+      if (i >= n) { break; }
+      final char c = src.charAt(i++);
+      if (c < 0x80) {
+        unsafe.putByte(obj, p++, (byte) c);
+      } else if (c < 0x800) {
+        unsafe.putByte(obj, p++, (byte) (0xC0 | (c >>> 6)));
+        unsafe.putByte(obj, p++, (byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isSurrogate(c)) {
+        checkSurrogatePair(src, i - 1);
+        final int cp = Character.toCodePoint(c, src.charAt(i++));
+        unsafe.putByte(obj, p++, (byte) (0xF0 | (cp >>> 18)));
+        unsafe.putByte(obj, p++, (byte) (0x80 | ((cp >>> 12) & 0x3F)));
+        unsafe.putByte(obj, p++, (byte) (0x80 | ((cp >>> 6) & 0x3F)));
+        unsafe.putByte(obj, p++, (byte) (0x80 | (cp & 0x3F)));
+      } else {
+        unsafe.putByte(obj, p++, (byte) (0xE0 | (c >>> 12)));
+        unsafe.putByte(obj, p++, (byte) (0x80 | ((c >>> 6) & 0x3F)));
+        unsafe.putByte(obj, p++, (byte) (0x80 | (c & 0x3F)));
+      }
+    }
+    return p - add;
+  }
+
+  /**
+   * Decodes the given number of UTF-8 bytes and appends the chars to the destination.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the encoded bytes
+   * @param lengthBytes the number of bytes to decode
+   * @param dst the destination of the decoded chars
+   * @throws IOException if thrown by the destination
+   * @throws IllegalArgumentException if the bytes are not well-formed UTF-8
+   */
+  static void getUtf8(final Object obj, final long add, final long lengthBytes,
+          final Appendable dst) throws IOException {
+    final long end = add + lengthBytes;
+    long p = add;
+    while (p < end) {
+      for ( ; p <= (end - 8); p += 8) {
+        final long word = getLongLE(obj, p);
+        if ((word & HIGH_BITS) != 0) { break; }
+        for (int shift = 0; shift < 64; shift += 8) {
+          dst.append((char) ((word >>> shift) & 0XFF));
+        }
+      }
+      if (p >= end) { break; }
+      final int b0 = unsafe.getByte(obj, p);
+      if (b0 >= 0) {
+        dst.append((char) b0);
+        p++;
+      } else if ((b0 & 0xE0) == 0xC0) {
+        final int cp = ((b0 & 0x1F) << 6) | continuation(obj, p + 1, end);
+        if (cp < 0x80) { throw malformed(p, add); }
+        dst.append((char) cp);
+        p += 2;
+      } else if ((b0 & 0xF0) == 0xE0) {
+        final int cp = ((b0 & 0x0F) << 12) | (continuation(obj, p + 1, end) << 6)
+            | continuation(obj, p + 2, end);
+        if ((cp < 0x800) || Character.isSurrogate((char) cp)) { throw malformed(p, add); }
+        dst.append((char) cp);
+        p += 3;
+      } else if ((b0 & 0xF8) == 0xF0) {
+        final int cp = ((b0 & 0x07) << 18) | (continuation(obj, p + 1, end) << 12)
+            | (continuation(obj, p + 2, end) << 6) | continuation(obj, p + 3, end);
+        if ((cp < 0x10000) || (cp > Character.MAX_CODE_POINT)) { throw malformed(p, add); }
+        dst.append(Character.highSurrogate(cp));
+        dst.append(Character.lowSurrogate(cp));
+        p += 4;
+      } else {
+        throw malformed(p, add);
+      }
+    }
+  }
+
+  //Returns the six payload bits of the continuation byte at p
+  private static int continuation(final Object obj, final long p, final long end) {
+    if (p >= end) {
+      throw new IllegalArgumentException("Truncated UTF-8 sequence at end of range.");
+    }
+    final int b = unsafe.getByte(obj, p);
+    if ((b & 0xC0) != 0x80) {
+      throw new IllegalArgumentException("Malformed UTF-8 continuation byte: " + (b & 0XFF));
+    }
+    return b & 0x3F;
+  }
+
+  private static IllegalArgumentException malformed(final long p, final long add) {
+    return new IllegalArgumentException("Malformed UTF-8 sequence at byte " + (p - add));
+  }
+
+  private static void checkSurrogatePair(final CharSequence src, final int i) {
+    if (!Character.isHighSurrogate(src.charAt(i)) || ((i + 1) >= src.length())
+        || !Character.isLowSurrogate(src.charAt(i + 1))) {
+      throw new IllegalArgumentException("Unpaired surrogate at index " + i);
+    }
+  }
+
+}
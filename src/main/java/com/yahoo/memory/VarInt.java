@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.CompareAndCopy.getLongLE;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+/**
+ * Encodes and decodes unsigned LEB128 variable length integers at any location addressable by
+ * Unsafe. Each byte holds seven bits of the value, least significant first, and the high bit is
+ * set on every byte but the last. A long takes from 1 to 10 bytes.
+ *
+ * <p>When at least eight bytes are available, decoding reads them as one little-endian word. The
+ * length is found from the lowest clear high bit, and the seven bit groups are compacted in three
+ * shift-and-mask steps without a loop. Only values of nine or ten bytes fall back to reading the
+ * remaining bytes one at a time.</p>
+ *
+ * @author Lee Rhodes
+ */
+final class VarInt {
+  static final int MAX_VAR_LONG_BYTES = 10;
+  private static final long CONTINUATION_BITS = 0x8080808080808080L;
+
+  private VarInt() { }
+
+  /**
+   * Returns the number of bytes needed to encode the given value.
+   * @param value the value, which is treated as unsigned
+   * @return the number of bytes needed to encode the given value, from 1 to 10.
+   */
+  static int varLongSize(final long value) {
+    return 1 + ((63 - Long.numberOfLeadingZeros(value | 1L)) / 7);
+  }
+
+  /**
+   * Encodes the given value.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset to write to, which must have room for varLongSize(value)
+   * bytes
+   * @param value the value, which is treated as unsigned
+   * @return the number of bytes written
+   */
+  static int putVarLong(final Object obj, final long add, final long value) {
+    long v = value;
+    long p = add;
+    while ((v & ~0X7FL) != 0) {
+      unsafe.putByte(obj, p++, (byte) ((v & 0X7FL) | 0X80L));
+      v >>>= 7;
+    }
+    unsafe.putByte(obj, p++, (byte) v);
+    return (int) (p - add);
+  }
+
+  /**
+   * Returns the length in bytes of the encoded value at the given location.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the encoded value
+   * @param availableBytes the number of bytes that may be read
+   * @return the length in bytes of the encoded value
+   * @throws IllegalArgumentException if the encoded value is longer than the available bytes or
+   * longer than 10 bytes
+   */
+  static int getVarLength(final Object obj, final long add, final long availableBytes) {
+    int i = 0;
+    if (availableBytes >= 8) {
+      final long stops = ~getLongLE(obj, add) & CONTINUATION_BITS;
+      if (stops != 0) {
+        return (Long.numberOfTrailingZeros(stops) >>> 3) + 1;
+      }
+      i = 8;
+    }
+    final long limit = Math.min(availableBytes, MAX_VAR_LONG_BYTES);
+    for ( ; i < limit; i++) {
+      if (unsafe.getByte(obj, add + i) >= 0) {
+        return i + 1;
+      }
+    }
+    throw new IllegalArgumentException((limit < MAX_VAR_LONG_BYTES)
+        ? "Variable length integer is truncated at " + limit + " bytes."
+        : "Variable length integer is longer than " + MAX_VAR_LONG_BYTES + " bytes.");
+  }
+
+  /**
+   * Decodes the value of the given length at the given location.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the encoded value
+   * @param length the length from getVarLength()
+   * @param availableBytes the number of bytes that may be read
+   * @return the decoded value
+   */
+  static long getVarLong(final Object obj, final long add, final int length,
+          final long availableBytes) {
+    if ((length <= 8) && (availableBytes >= 8)) {
+      long x = getLongLE(obj, add) & (-1L >>> (64 - (length << 3))) & ~CONTINUATION_BITS;
+      x = (x & 0x007F007F007F007FL) | ((x & 0x7F007F007F007F00L) >>> 1);
+      x = (x & 0x00003FFF00003FFFL) | ((x & 0x3FFF00003FFF0000L) >>> 2);
+      return (x & 0x000000000FFFFFFFL) | ((x & 0x0FFFFFFF00000000L) >>> 4);
+    }
+    long v = 0;
+    for (int i = 0; i < length; i++) {
+      v |= (unsafe.getByte(obj, add + i) & 0X7FL) << (7 * i);
+    }
+    return v;
+  }
+
+  static long encodeZigZag(final long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long decodeZigZag(final long value) {
+    return (value >>> 1) ^ -(value & 1L);
+  }
+
+}
@@ -33,7 +33,7 @@ public abstract class WritableBuffer extends Buffer {
     final ResourceState state = new ResourceState();
     state.putByteBuffer(byteBuf);
     AccessByteBuffer.wrap(state);
-    return new WritableBufferImpl(state);
+    return WritableBufferImpl.newInstance(state);
   }
 
   //MAP XXX
@@ -286,6 +286,50 @@ public abstract class WritableBuffer extends Buffer {
   public abstract void putShortArray(short[] srcArray,
           final int srcOffset, final int length);
 
+  //VARIABLE LENGTH INTEGERS XXX
+  /**
+   * Puts the given long as an unsigned LEB128 variable length integer at the current position.
+   * Increments the position by the number of bytes written, from 1 to 10.
+   * @param value the value to put
+   */
+  public abstract void putVarLong(long value);
+
+  /**
+   * Puts the given int as an unsigned LEB128 variable length integer at the current position.
+   * Increments the position by the number of bytes written, from 1 to 5.
+   * @param value the value to put
+   */
+  public void putVarInt(final int value) {
+    putVarLong(value & 0XFFFFFFFFL);
+  }
+
+  /**
+   * Puts the given long zigzag encoded as a variable length integer at the current position.
+   * Increments the position by the number of bytes written, from 1 to 10.
+   * @param value the value to put
+   */
+  public void putZigZagVarLong(final long value) {
+    putVarLong(VarInt.encodeZigZag(value));
+  }
+
+  /**
+   * Puts the given int zigzag encoded as a variable length integer at the current position.
+   * Increments the position by the number of bytes written, from 1 to 5.
+   * @param value the value to put
+   */
+  public void putZigZagVarInt(final int value) {
+    putVarLong(VarInt.encodeZigZag(value) & 0XFFFFFFFFL);
+  }
+
+  //UTF-8 XXX
+  /**
+   * Encodes the given chars as UTF-8 at the current position. Increments the position by the
+   * number of bytes written.
+   * @param src the chars to encode
+   * @throws IllegalArgumentException if the chars contain an unpaired surrogate
+   */
+  public abstract void putUtf8(CharSequence src);
+
   //Atomic Methods XXX
   //Use WritableMemory for atomic methods
 
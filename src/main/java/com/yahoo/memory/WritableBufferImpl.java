@@ -24,6 +24,7 @@ import static com.yahoo.memory.UnsafeUtil.ARRAY_SHORT_INDEX_SCALE;
 import static com.yahoo.memory.UnsafeUtil.BOOLEAN_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.BYTE_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.CHAR_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.CHECK_BOUNDS;
 import static com.yahoo.memory.UnsafeUtil.DOUBLE_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.FLOAT_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.INT_SHIFT;
@@ -33,6 +34,7 @@ import static com.yahoo.memory.UnsafeUtil.SHORT_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.assertBounds;
 import static com.yahoo.memory.UnsafeUtil.unsafe;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -57,6 +59,17 @@ class WritableBufferImpl extends WritableBuffer {
     cumBaseOffset = state.getCumBaseOffset();
   }
 
+  /**
+   * Returns the implementation for the byte order of the given state. The choice is made once
+   * here, so the accessors never test the byte order.
+   * @param state the ResourceState
+   * @return a new WritableBufferImpl, or NonNativeWritableBufferImpl if the bytes must be swapped
+   */
+  static WritableBufferImpl newInstance(final ResourceState state) {
+    return state.isSwapBytes() ? new NonNativeWritableBufferImpl(state)
+                               : new WritableBufferImpl(state);
+  }
+
   //REGIONS/DUPLICATES XXX
   @Override
   public Buffer duplicate() {
@@ -86,13 +99,12 @@ class WritableBufferImpl extends WritableBuffer {
   private WritableBuffer regOrDup(final long offsetBytes, final long capacityBytes,
           final boolean dup) {
     checkValid();
-    assert (offsetBytes + capacityBytes) <= capacity
-            : "newOff + newCap: " + (offsetBytes + capacityBytes) + ", origCap: " + capacity;
+    assertBounds(offsetBytes, capacityBytes, capacity);
     final ResourceState newState = state.copy();
     newState.putRegionOffset(newState.getRegionOffset() + offsetBytes);
     newState.putCapacity(capacityBytes);
     if (!dup) { newState.putBaseBuffer(null); }
-    return new WritableBufferImpl(newState);
+    return newInstance(newState);
   }
 
 
@@ -100,13 +112,13 @@ class WritableBufferImpl extends WritableBuffer {
   @Override
   public Memory asMemory() {
     checkValid();
-    return new WritableMemoryImpl(state.copy());
+    return WritableMemoryImpl.newInstance(state.copy());
   }
 
   @Override
   public WritableMemory asWritableMemory() {
     checkValid();
-    return new WritableMemoryImpl(state.copy());
+    return WritableMemoryImpl.newInstance(state.copy());
   }
 
   //PRIMITIVE getXXX() and getXXXArray() XXX
@@ -114,7 +126,7 @@ class WritableBufferImpl extends WritableBuffer {
   public boolean getBoolean() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_BOOLEAN_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_BOOLEAN_INDEX_SCALE, getEnd());
     final boolean ret = unsafe.getBoolean(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_BOOLEAN_INDEX_SCALE);
     return ret;
@@ -125,7 +137,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << BOOLEAN_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -140,7 +152,7 @@ class WritableBufferImpl extends WritableBuffer {
   public byte getByte() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_BYTE_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_BYTE_INDEX_SCALE, getEnd());
     final byte ret = unsafe.getByte(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_BYTE_INDEX_SCALE);
     return ret;
@@ -151,7 +163,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << BYTE_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -166,7 +178,7 @@ class WritableBufferImpl extends WritableBuffer {
   public char getChar() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_CHAR_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_CHAR_INDEX_SCALE, getEnd());
     final char ret = unsafe.getChar(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_CHAR_INDEX_SCALE);
     return ret;
@@ -177,7 +189,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << CHAR_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -192,7 +204,7 @@ class WritableBufferImpl extends WritableBuffer {
   public double getDouble() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_DOUBLE_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_DOUBLE_INDEX_SCALE, getEnd());
     final double ret = unsafe.getDouble(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_DOUBLE_INDEX_SCALE);
     return ret;
@@ -203,7 +215,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << DOUBLE_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -218,7 +230,7 @@ class WritableBufferImpl extends WritableBuffer {
   public float getFloat() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_FLOAT_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_FLOAT_INDEX_SCALE, getEnd());
     final float ret = unsafe.getFloat(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_FLOAT_INDEX_SCALE);
     return ret;
@@ -229,7 +241,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << FLOAT_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -244,7 +256,7 @@ class WritableBufferImpl extends WritableBuffer {
   public int getInt() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_INT_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_INT_INDEX_SCALE, getEnd());
     final int ret = unsafe.getInt(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_INT_INDEX_SCALE);
     return ret;
@@ -255,7 +267,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << INT_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -270,7 +282,7 @@ class WritableBufferImpl extends WritableBuffer {
   public long getLong() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_LONG_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_LONG_INDEX_SCALE, getEnd());
     final long ret = unsafe.getLong(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_LONG_INDEX_SCALE);
     return ret;
@@ -281,7 +293,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << LONG_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -296,7 +308,7 @@ class WritableBufferImpl extends WritableBuffer {
   public short getShort() {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_SHORT_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_SHORT_INDEX_SCALE, getEnd());
     final short ret = unsafe.getShort(unsafeObj, cumBaseOffset + pos);
     incrementPosition(ARRAY_SHORT_INDEX_SCALE);
     return ret;
@@ -307,7 +319,7 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long copyBytes = length << SHORT_SHIFT;
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     assertBounds(dstOffset, length, dstArray.length);
     unsafe.copyMemory(
             unsafeObj,
@@ -318,6 +330,30 @@ class WritableBufferImpl extends WritableBuffer {
     incrementPosition(copyBytes);
   }
 
+  //VARIABLE LENGTH INTEGERS XXX
+  @Override
+  public long getVarLong() {
+    checkValid();
+    final long pos = getPosition();
+    final long avail = getEnd() - pos;
+    assertBounds(pos, ARRAY_BYTE_INDEX_SCALE, getEnd());
+    final long add = cumBaseOffset + pos;
+    final int length = VarInt.getVarLength(unsafeObj, add, avail);
+    final long ret = VarInt.getVarLong(unsafeObj, add, length, avail);
+    incrementPosition(length);
+    return ret;
+  }
+
+  //UTF-8 XXX
+  @Override
+  public void getUtf8(final long utf8LengthBytes, final Appendable dst) throws IOException {
+    checkValid();
+    final long pos = getPosition();
+    assertBounds(pos, utf8LengthBytes, getEnd());
+    Utf8.getUtf8(unsafeObj, cumBaseOffset + pos, utf8LengthBytes, dst);
+    incrementPosition(utf8LengthBytes);
+  }
+
   //OTHER PRIMITIVE READ METHODS: copyTo, compareTo XXX
   @Override
   public int compareTo(final long thisOffsetBytes, final long thisLengthBytes, final Buffer that,
@@ -326,20 +362,10 @@ class WritableBufferImpl extends WritableBuffer {
     ((WritableBufferImpl)that).checkValid();
     assertBounds(thisOffsetBytes, thisLengthBytes, capacity);
     assertBounds(thatOffsetBytes, thatLengthBytes, that.getCapacity());
-    final long thisAdd = getCumulativeOffset() + thisOffsetBytes;
-    final long thatAdd = that.getCumulativeOffset() + thatOffsetBytes;
-    final Object thisObj = (isDirect()) ? null : unsafeObj;
-    final Object thatObj = (that.isDirect()) ? null : ((WritableBuffer)that).getArray();
-    final long lenBytes = Math.min(thisLengthBytes, thatLengthBytes);
-    for (long i = 0; i < lenBytes; i++) {
-      final int thisByte = unsafe.getByte(thisObj, thisAdd + i);
-      final int thatByte = unsafe.getByte(thatObj, thatAdd + i);
-      if (thisByte < thatByte) { return -1; }
-      if (thisByte > thatByte) { return  1; }
-    }
-    if (thisLengthBytes < thatLengthBytes) { return -1; }
-    if (thisLengthBytes > thatLengthBytes) { return  1; }
-    return 0;
+    final WritableBufferImpl thatImpl = (WritableBufferImpl) that;
+    return CompareAndCopy.compare(
+            unsafeObj, cumBaseOffset + thisOffsetBytes, thisLengthBytes,
+            thatImpl.unsafeObj, thatImpl.cumBaseOffset + thatOffsetBytes, thatLengthBytes);
   }
 
 
@@ -416,7 +442,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putBoolean(final boolean value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_BOOLEAN_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_BOOLEAN_INDEX_SCALE, getEnd());
     unsafe.putBoolean(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_BOOLEAN_INDEX_SCALE);
   }
@@ -427,7 +453,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << BOOLEAN_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_BOOLEAN_BASE_OFFSET + (srcOffset << BOOLEAN_SHIFT),
@@ -442,7 +468,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putByte(final byte value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_BYTE_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_BYTE_INDEX_SCALE, getEnd());
     unsafe.putByte(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_BYTE_INDEX_SCALE);
   }
@@ -453,7 +479,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << BYTE_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_BYTE_BASE_OFFSET + (srcOffset << BYTE_SHIFT),
@@ -468,7 +494,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putChar(final char value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_CHAR_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_CHAR_INDEX_SCALE, getEnd());
     unsafe.putChar(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_CHAR_INDEX_SCALE);
   }
@@ -479,7 +505,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << CHAR_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_CHAR_BASE_OFFSET + (srcOffset << CHAR_SHIFT),
@@ -494,7 +520,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putDouble(final double value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_DOUBLE_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_DOUBLE_INDEX_SCALE, getEnd());
     unsafe.putDouble(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_DOUBLE_INDEX_SCALE);
   }
@@ -505,7 +531,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << DOUBLE_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_DOUBLE_BASE_OFFSET + (srcOffset << DOUBLE_SHIFT),
@@ -520,7 +546,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putFloat(final float value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_FLOAT_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_FLOAT_INDEX_SCALE, getEnd());
     unsafe.putFloat(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_FLOAT_INDEX_SCALE);
   }
@@ -531,7 +557,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << FLOAT_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_FLOAT_BASE_OFFSET + (srcOffset << FLOAT_SHIFT),
@@ -546,7 +572,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putInt(final int value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_INT_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_INT_INDEX_SCALE, getEnd());
     unsafe.putInt(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_INT_INDEX_SCALE);
   }
@@ -557,7 +583,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << INT_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_INT_BASE_OFFSET + (srcOffset << INT_SHIFT),
@@ -572,7 +598,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putLong(final long value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_LONG_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_LONG_INDEX_SCALE, getEnd());
     unsafe.putLong(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_LONG_INDEX_SCALE);
   }
@@ -583,7 +609,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << LONG_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_LONG_BASE_OFFSET + (srcOffset << LONG_SHIFT),
@@ -598,7 +624,7 @@ class WritableBufferImpl extends WritableBuffer {
   public void putShort(final short value) {
     checkValid();
     final long pos = getPosition();
-    assertBounds(pos, ARRAY_SHORT_INDEX_SCALE, capacity);
+    assertBounds(pos, ARRAY_SHORT_INDEX_SCALE, getEnd());
     unsafe.putShort(unsafeObj, cumBaseOffset + pos, value);
     incrementPosition(ARRAY_SHORT_INDEX_SCALE);
   }
@@ -609,7 +635,7 @@ class WritableBufferImpl extends WritableBuffer {
     final long pos = getPosition();
     final long copyBytes = length << SHORT_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
-    assertBounds(pos, copyBytes, capacity);
+    assertBounds(pos, copyBytes, getEnd());
     unsafe.copyMemory(
             srcArray,
             ARRAY_SHORT_BASE_OFFSET + (srcOffset << SHORT_SHIFT),
@@ -620,6 +646,28 @@ class WritableBufferImpl extends WritableBuffer {
     incrementPosition(copyBytes);
   }
 
+  //VARIABLE LENGTH INTEGERS XXX
+  @Override
+  public void putVarLong(final long value) {
+    checkValid();
+    final long pos = getPosition();
+    final int length = VarInt.varLongSize(value);
+    assertBounds(pos, length, getEnd());
+    VarInt.putVarLong(unsafeObj, cumBaseOffset + pos, value);
+    incrementPosition(length);
+  }
+
+  //UTF-8 XXX
+  @Override
+  public void putUtf8(final CharSequence src) {
+    checkValid();
+    final long pos = getPosition();
+    final long lengthBytes = Utf8.utf8Length(src);
+    assertBounds(pos, lengthBytes, getEnd());
+    Utf8.putUtf8(unsafeObj, cumBaseOffset + pos, src);
+    incrementPosition(lengthBytes);
+  }
+
   //Atomic Write Methods XXX
   //Use WritableMemory for atomic methods
 
@@ -646,12 +694,16 @@ class WritableBufferImpl extends WritableBuffer {
     checkValid();
     final long pos = getPosition();
     final long len = getEnd() - pos;
-    assertBounds(pos, len, capacity);
-    unsafe.setMemory(unsafeObj, cumBaseOffset + pos, len, value);
+    assertBounds(pos, len, getEnd());
+    CompareAndCopy.fill(unsafeObj, cumBaseOffset + pos, len, value);
   }
 
   //RESTRICTED READ AND WRITE XXX
-  private final void checkValid() { //applies to both readable and writable
+  final void checkValid() { //applies to both readable and writable
+    if (CHECK_BOUNDS) {
+      if (!state.isValid()) { throw new IllegalStateException("Memory not valid."); }
+      return;
+    }
     assert state.isValid() : "Memory not valid.";
   }
 }
@@ -22,6 +22,41 @@ public class WritableDirectHandle implements AutoCloseable, WritableHandle {
     this.wMem = wMem;
   }
 
+  /**
+   * Creates the WritableMemory and its handle for the given direct resource and registers both
+   * with the resource state.
+   * @param direct the direct resource
+   * @param memReqSvr the MemoryRequestServer that owns the direct resource
+   * @return a new WritableDirectHandle
+   */
+  static WritableDirectHandle create(final AllocateDirect direct,
+          final MemoryRequestServer memReqSvr) {
+    final ResourceState state = direct.state;
+    final WritableMemory wMem = new WritableMemoryImpl(state);
+    final WritableDirectHandle handle = new WritableDirectHandle(direct, wMem);
+    state.setMemoryRequestServer(memReqSvr);
+    state.setHandle(handle);
+    return handle;
+  }
+
+  /**
+   * Grows or shrinks the direct resource of this handle in place where the allocator allows,
+   * otherwise by moving it. On success this handle and its WritableMemory are invalidated.
+   * @param capacityBytes the new capacity
+   * @param memReqSvr the MemoryRequestServer of the new WritableMemory
+   * @return a handle for the reallocated resource, or null if the resource cannot be reallocated.
+   */
+  WritableDirectHandle reallocate(final long capacityBytes, final MemoryRequestServer memReqSvr) {
+    if (direct == null) { return null; }
+    final ResourceState newState = new ResourceState();
+    newState.putCapacity(capacityBytes);
+    newState.putTag(direct.state.getTag());
+    final AllocateDirect newDirect = direct.reallocate(newState);
+    if (newDirect == null) { return null; }
+    direct = null;
+    return create(newDirect, memReqSvr);
+  }
+
   @Override
   public WritableMemory get() {
     return wMem;
@@ -25,7 +25,7 @@ public final class WritableMapHandler implements WritableMap, WritableHandle {
   @SuppressWarnings("resource") //called from memory
   static WritableMapHandler map(final ResourceState state) throws Exception {
     final AllocateDirectWritableMap dirMap = AllocateDirectWritableMap.map(state);
-    final WritableMemoryImpl wMem = new WritableMemoryImpl(state);
+    final WritableMemoryImpl wMem = WritableMemoryImpl.newInstance(state);
     return new WritableMapHandler(dirMap, wMem);
   }
 
@@ -8,6 +8,7 @@ package com.yahoo.memory;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Provides read and write primitive and primitive array access to any of the four resources
@@ -31,7 +32,7 @@ public abstract class WritableMemory extends Memory {
     final ResourceState state = new ResourceState();
     state.putByteBuffer(byteBuf);
     AccessByteBuffer.wrap(state);
-    return new WritableMemoryImpl(state);
+    return WritableMemoryImpl.newInstance(state);
   }
 
   //MAP XXX
@@ -58,11 +59,29 @@ public abstract class WritableMemory extends Memory {
    */
   public static WritableMapHandler writableMap(final File file, final long fileOffset,
           final long capacity, final ByteOrder byteOrder) throws Exception {
+    return writableMap(file, fileOffset, capacity, byteOrder, null);
+  }
+
+  /**
+   * Allocates direct memory used to memory map files for write operations
+   * (including those &gt; 2GB). The map is accounted to the given tag until it is closed.
+   * @param file the given file to map
+   * @param fileOffset the position in the given file
+   * @param capacity the size of the allocated direct memory
+   * @param byteOrder the endianness of the given file.
+   * @param tag the owner of the map, or null
+   * @return WritableMemoryMapHandler for managing this map
+   * @throws Exception file not found or RuntimeException, etc.
+   */
+  public static WritableMapHandler writableMap(final File file, final long fileOffset,
+          final long capacity, final ByteOrder byteOrder, final AllocationTag tag)
+                  throws Exception {
     final ResourceState state = new ResourceState();
     state.putFile(file);
     state.putFileOffset(fileOffset);
     state.putCapacity(capacity);
     state.order(byteOrder);
+    state.putTag(tag);
     return WritableMapHandler.map(state);
   }
 
@@ -84,6 +103,81 @@ public abstract class WritableMemory extends Memory {
     return memMgr.allocateDirect(capacityBytes);
   }
 
+  /**
+   * Allocates and provides access to capacityBytes directly in native (off-heap) memory
+   * leveraging the WritableMemory API. The start of the allocated memory will be a multiple of
+   * the given alignment, for example 64 to keep concurrently updated fields on separate cache
+   * lines, or {@code UnsafeUtil.unsafe.pageSize()} for page aligned structures.
+   *
+   * <p><b>NOTE:</b> Native/Direct memory acquired using Unsafe may have garbage in it.
+   * It is the responsibility of the using class to clear this memory, if required,
+   * and to call <i>close()</i> when done.</p>
+   *
+   * @param capacityBytes the size of the desired memory in bytes
+   * @param alignmentBytes the desired alignment in bytes, which must be a power of two
+   * @return WritableDirectHandle for this off-heap resource
+   */
+  public static WritableDirectHandle allocateDirect(final long capacityBytes,
+          final long alignmentBytes) {
+    final MemoryManager memMgr = DefaultMemoryManager.getInstance();
+    return memMgr.allocateDirect(capacityBytes, alignmentBytes);
+  }
+
+  /**
+   * Allocates and provides access to capacityBytes directly in native (off-heap) memory
+   * obtained from the given MemoryManager, for example a {@link PooledMemoryManager}.
+   * The given MemoryManager also becomes the MemoryRequestServer of the returned WritableMemory.
+   *
+   * <p><b>NOTE:</b> Native/Direct memory acquired using Unsafe may have garbage in it.
+   * It is the responsibility of the using class to clear this memory, if required,
+   * and to call <i>close()</i> when done.</p>
+   *
+   * @param capacityBytes the size of the desired memory in bytes
+   * @param memMgr the MemoryManager that provides and later reclaims the native memory
+   * @return WritableDirectHandle for this off-heap resource
+   */
+  public static WritableDirectHandle allocateDirect(final long capacityBytes,
+          final MemoryManager memMgr) {
+    return memMgr.allocateDirect(capacityBytes);
+  }
+
+  /**
+   * Allocates and provides access to capacityBytes directly in native (off-heap) memory
+   * leveraging the WritableMemory API. With {@link AllocationMode#ZEROED} the memory is
+   * guaranteed to be all zeros, otherwise it may have garbage in it.
+   *
+   * <p><b>NOTE:</b> It is the responsibility of the using class to call <i>close()</i> when
+   * done.</p>
+   *
+   * @param capacityBytes the size of the desired memory in bytes
+   * @param mode whether the memory must be zeroed
+   * @return WritableDirectHandle for this off-heap resource
+   */
+  public static WritableDirectHandle allocateDirect(final long capacityBytes,
+          final AllocationMode mode) {
+    final MemoryManager memMgr = DefaultMemoryManager.getInstance();
+    return memMgr.allocateDirect(capacityBytes, mode);
+  }
+
+  /**
+   * Allocates and provides access to capacityBytes directly in native (off-heap) memory
+   * leveraging the WritableMemory API. The allocation is accounted to the given tag, as well as
+   * to the global counters, until it is closed.
+   *
+   * <p><b>NOTE:</b> Native/Direct memory acquired using Unsafe may have garbage in it.
+   * It is the responsibility of the using class to clear this memory, if required,
+   * and to call <i>close()</i> when done.</p>
+   *
+   * @param capacityBytes the size of the desired memory in bytes
+   * @param tag the owner of the allocation
+   * @return WritableDirectHandle for this off-heap resource
+   */
+  public static WritableDirectHandle allocateDirect(final long capacityBytes,
+          final AllocationTag tag) {
+    final MemoryManager memMgr = DefaultMemoryManager.getInstance();
+    return memMgr.allocateDirect(capacityBytes, tag);
+  }
+
   //REGIONS/DUPLICATES XXX
   /**
    * Returns a writable duplicate view of this Memory.
@@ -243,6 +337,19 @@ public abstract class WritableMemory extends Memory {
   public abstract void putCharArray(long offsetBytes, char[] srcArray, int srcOffset,
           int length);
 
+  /**
+   * Puts the char array at the given offset, storing its elements in the given byte order rather
+   * than in the byte order of this <i>WritableMemory</i>. The elements are byte-swapped while
+   * they are copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param srcArray The source array.
+   * @param srcOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order in which the elements are stored
+   */
+  public abstract void putCharArray(long offsetBytes, char[] srcArray, int srcOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Puts the double value at the given offset
    * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
@@ -260,6 +367,19 @@ public abstract class WritableMemory extends Memory {
   public abstract void putDoubleArray(long offsetBytes, double[] srcArray,
           final int srcOffset, final int length);
 
+  /**
+   * Puts the double array at the given offset, storing its elements in the given byte order rather
+   * than in the byte order of this <i>WritableMemory</i>. The elements are byte-swapped while
+   * they are copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param srcArray The source array.
+   * @param srcOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order in which the elements are stored
+   */
+  public abstract void putDoubleArray(long offsetBytes, double[] srcArray, int srcOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Puts the float value at the given offset
    * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
@@ -277,6 +397,19 @@ public abstract class WritableMemory extends Memory {
   public abstract void putFloatArray(long offsetBytes, float[] srcArray,
           final int srcOffset, final int length);
 
+  /**
+   * Puts the float array at the given offset, storing its elements in the given byte order rather
+   * than in the byte order of this <i>WritableMemory</i>. The elements are byte-swapped while
+   * they are copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param srcArray The source array.
+   * @param srcOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order in which the elements are stored
+   */
+  public abstract void putFloatArray(long offsetBytes, float[] srcArray, int srcOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Puts the int value at the given offset
    * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
@@ -294,6 +427,19 @@ public abstract class WritableMemory extends Memory {
   public abstract void putIntArray(long offsetBytes, int[] srcArray,
           final int srcOffset, final int length);
 
+  /**
+   * Puts the int array at the given offset, storing its elements in the given byte order rather
+   * than in the byte order of this <i>WritableMemory</i>. The elements are byte-swapped while
+   * they are copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param srcArray The source array.
+   * @param srcOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order in which the elements are stored
+   */
+  public abstract void putIntArray(long offsetBytes, int[] srcArray, int srcOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Puts the long value at the given offset
    * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
@@ -311,6 +457,19 @@ public abstract class WritableMemory extends Memory {
   public abstract void putLongArray(long offsetBytes, long[] srcArray,
           final int srcOffset, final int length);
 
+  /**
+   * Puts the long array at the given offset, storing its elements in the given byte order rather
+   * than in the byte order of this <i>WritableMemory</i>. The elements are byte-swapped while
+   * they are copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param srcArray The source array.
+   * @param srcOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order in which the elements are stored
+   */
+  public abstract void putLongArray(long offsetBytes, long[] srcArray, int srcOffset, int length,
+          ByteOrder dataOrder);
+
   /**
    * Puts the short value at the given offset
    * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
@@ -328,6 +487,72 @@ public abstract class WritableMemory extends Memory {
   public abstract void putShortArray(long offsetBytes, short[] srcArray,
           final int srcOffset, final int length);
 
+  /**
+   * Puts the short array at the given offset, storing its elements in the given byte order rather
+   * than in the byte order of this <i>WritableMemory</i>. The elements are byte-swapped while
+   * they are copied if the given order is not the native order.
+   * @param offsetBytes offset bytes relative to this <i>WritableMemory</i> start
+   * @param srcArray The source array.
+   * @param srcOffset offset in array units
+   * @param length number of array units to transfer
+   * @param dataOrder the byte order in which the elements are stored
+   */
+  public abstract void putShortArray(long offsetBytes, short[] srcArray, int srcOffset, int length,
+          ByteOrder dataOrder);
+
+  //VARIABLE LENGTH INTEGERS XXX
+  /**
+   * Puts the given long as an unsigned LEB128 variable length integer at the given offset.
+   * Negative values take 10 bytes; use {@link #putZigZagVarLong(long, long)} for signed values.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   * @return the number of bytes written, from 1 to 10
+   */
+  public abstract int putVarLong(long offsetBytes, long value);
+
+  /**
+   * Puts the given int as an unsigned LEB128 variable length integer at the given offset.
+   * Negative values take 5 bytes; use {@link #putZigZagVarInt(long, int)} for signed values.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   * @return the number of bytes written, from 1 to 5
+   */
+  public int putVarInt(final long offsetBytes, final int value) {
+    return putVarLong(offsetBytes, value & 0XFFFFFFFFL);
+  }
+
+  /**
+   * Puts the given long zigzag encoded as a variable length integer at the given offset, so that
+   * values of small magnitude take few bytes whatever their sign.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   * @return the number of bytes written, from 1 to 10
+   */
+  public int putZigZagVarLong(final long offsetBytes, final long value) {
+    return putVarLong(offsetBytes, VarInt.encodeZigZag(value));
+  }
+
+  /**
+   * Puts the given int zigzag encoded as a variable length integer at the given offset, so that
+   * values of small magnitude take few bytes whatever their sign.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   * @return the number of bytes written, from 1 to 5
+   */
+  public int putZigZagVarInt(final long offsetBytes, final int value) {
+    return putVarLong(offsetBytes, VarInt.encodeZigZag(value) & 0XFFFFFFFFL);
+  }
+
+  //UTF-8 XXX
+  /**
+   * Encodes the given chars as UTF-8 at the given offset, without an intermediate byte array.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param src the chars to encode
+   * @return the number of bytes written
+   * @throws IllegalArgumentException if the chars contain an unpaired surrogate
+   */
+  public abstract long putUtf8(long offsetBytes, CharSequence src);
+
   //Atomic Methods XXX
   /**
    * Atomically adds the given value to the long located at offsetBytes.
@@ -356,6 +581,281 @@ public abstract class WritableMemory extends Memory {
    */
   public abstract long getAndSetLong(long offsetBytes, long newValue);
 
+  /**
+   * Atomically adds the given value to the int located at offsetBytes.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param delta the amount to add
+   * @return the modified value
+   */
+  public abstract int getAndAddInt(long offsetBytes, int delta);
+
+  /**
+   * Atomically sets the current value at the memory location to the given updated value
+   * if and only if the current value {@code ==} the expected value.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param expect the expected value
+   * @param update the new value
+   * @return {@code true} if successful. False return indicates that
+   * the current value at the memory location was not equal to the expected value.
+   */
+  public abstract boolean compareAndSwapInt(long offsetBytes, int expect, int update);
+
+  /**
+   * Atomically exchanges the given value with the current value located at offsetBytes.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param newValue new value
+   * @return the previous value
+   */
+  public abstract int getAndSetInt(long offsetBytes, int newValue);
+
+  /**
+   * Puts the int value at the given offset with volatile semantics.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   */
+  public abstract void putIntVolatile(long offsetBytes, int value);
+
+  /**
+   * Puts the long value at the given offset with volatile semantics.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   */
+  public abstract void putLongVolatile(long offsetBytes, long value);
+
+  /**
+   * Puts the int value at the given offset with release semantics, like
+   * {@link java.util.concurrent.atomic.AtomicInteger#lazySet(int)}. Earlier writes cannot be
+   * reordered after this one, but the write may not be visible to other threads immediately.
+   * This is cheaper than {@link #putIntVolatile(long, int)} on most platforms.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   */
+  public abstract void putIntOrdered(long offsetBytes, int value);
+
+  /**
+   * Puts the long value at the given offset with release semantics, like
+   * {@link java.util.concurrent.atomic.AtomicLong#lazySet(long)}. Earlier writes cannot be
+   * reordered after this one, but the write may not be visible to other threads immediately.
+   * This is cheaper than {@link #putLongVolatile(long, long)} on most platforms.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param value the value to put
+   */
+  public abstract void putLongOrdered(long offsetBytes, long value);
+
+  /**
+   * Atomically sets the bits defined by the bitMask in the long located at offsetBytes.
+   * If all of those bits are already set, the memory is not written.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param bitMask the bits set to one will be set
+   * @return the previous value of the long
+   */
+  public abstract long getAndSetBits(long offsetBytes, long bitMask);
+
+  /**
+   * Atomically clears the bits defined by the bitMask in the long located at offsetBytes.
+   * If all of those bits are already clear, the memory is not written.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param bitMask the bits set to one will be cleared
+   * @return the previous value of the long
+   */
+  public abstract long getAndClearBits(long offsetBytes, long bitMask);
+
+  /**
+   * Atomically flips the bits defined by the bitMask in the long located at offsetBytes.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param bitMask the bits set to one will be flipped
+   * @return the previous value of the long
+   */
+  public abstract long getAndFlipBits(long offsetBytes, long bitMask);
+
+  /**
+   * Atomically sets a single bit of this Memory viewed as a bitmap of longs. The bit with index
+   * <i>i</i> is bit <i>(i &amp; 63)</i> of the long at offset <i>(i &gt;&gt;&gt; 6) &lt;&lt; 3</i>.
+   * @param bitIndex the index of the bit from the start of this Memory
+   * @return true if the bit was already set
+   */
+  public abstract boolean testAndSetBit(long bitIndex);
+
+  /**
+   * Atomically clears a single bit of this Memory viewed as a bitmap of longs. The bit with index
+   * <i>i</i> is bit <i>(i &amp; 63)</i> of the long at offset <i>(i &gt;&gt;&gt; 6) &lt;&lt; 3</i>.
+   * @param bitIndex the index of the bit from the start of this Memory
+   * @return true if the bit was set
+   */
+  public abstract boolean testAndClearBit(long bitIndex);
+
+  /**
+   * Atomically ORs a range of longs from the source into this Memory, one long at a time. Each
+   * long is updated atomically, but the range as a whole is not. Zero source longs are skipped.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source of the bits to set
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the range, which must be a multiple of 8
+   */
+  public abstract void atomicOr(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes);
+
+  /**
+   * Atomically clears the bits of a range of this Memory that are set in the source, one long at
+   * a time. Each long is updated atomically, but the range as a whole is not. Zero source longs
+   * are skipped.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source of the bits to clear
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the range, which must be a multiple of 8
+   */
+  public abstract void atomicAndNot(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes);
+
+  //BITWISE OPERATIONS XXX
+  /**
+   * Sets a range of this Memory to the bitwise AND of itself and a range of the source, 64 bits
+   * at a time. The result does not depend on the byte order of either Memory. The ranges may be
+   * the same, but must not otherwise overlap.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public abstract void and(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes);
+
+  /**
+   * Sets a range of this Memory to the bitwise OR of itself and a range of the source, 64 bits
+   * at a time. The result does not depend on the byte order of either Memory. The ranges may be
+   * the same, but must not otherwise overlap.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public abstract void or(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes);
+
+  /**
+   * Sets a range of this Memory to the bitwise XOR of itself and a range of the source, 64 bits
+   * at a time. The result does not depend on the byte order of either Memory. The ranges may be
+   * the same, but must not otherwise overlap.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public abstract void xor(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes);
+
+  /**
+   * Clears the bits of a range of this Memory that are set in a range of the source, 64 bits at
+   * a time. The result does not depend on the byte order of either Memory. The ranges may be the
+   * same, but must not otherwise overlap.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public abstract void andNot(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes);
+
+  /**
+   * Performs {@link #and(long, Memory, long, long)}, splitting ranges of more than a few tens of
+   * megabytes across the threads of the common ForkJoinPool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public void parallelAnd(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    parallelAnd(dstOffsetBytes, src, srcOffsetBytes, lengthBytes, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Performs {@link #and(long, Memory, long, long)}, splitting ranges of more than a few tens of
+   * megabytes across the threads of the given pool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   * @param pool the ForkJoinPool that runs the operation
+   */
+  public abstract void parallelAnd(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes, ForkJoinPool pool);
+
+  /**
+   * Performs {@link #or(long, Memory, long, long)}, splitting ranges of more than a few tens of
+   * megabytes across the threads of the common ForkJoinPool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public void parallelOr(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    parallelOr(dstOffsetBytes, src, srcOffsetBytes, lengthBytes, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Performs {@link #or(long, Memory, long, long)}, splitting ranges of more than a few tens of
+   * megabytes across the threads of the given pool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   * @param pool the ForkJoinPool that runs the operation
+   */
+  public abstract void parallelOr(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes, ForkJoinPool pool);
+
+  /**
+   * Performs {@link #xor(long, Memory, long, long)}, splitting ranges of more than a few tens of
+   * megabytes across the threads of the common ForkJoinPool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public void parallelXor(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    parallelXor(dstOffsetBytes, src, srcOffsetBytes, lengthBytes, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Performs {@link #xor(long, Memory, long, long)}, splitting ranges of more than a few tens of
+   * megabytes across the threads of the given pool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   * @param pool the ForkJoinPool that runs the operation
+   */
+  public abstract void parallelXor(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes, ForkJoinPool pool);
+
+  /**
+   * Performs {@link #andNot(long, Memory, long, long)}, splitting ranges of more than a few tens
+   * of megabytes across the threads of the common ForkJoinPool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   */
+  public void parallelAndNot(final long dstOffsetBytes, final Memory src,
+          final long srcOffsetBytes, final long lengthBytes) {
+    parallelAndNot(dstOffsetBytes, src, srcOffsetBytes, lengthBytes, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Performs {@link #andNot(long, Memory, long, long)}, splitting ranges of more than a few tens
+   * of megabytes across the threads of the given pool.
+   * @param dstOffsetBytes the offset of the range in this Memory
+   * @param src the source Memory
+   * @param srcOffsetBytes the offset of the range in the source
+   * @param lengthBytes the length of the ranges in bytes
+   * @param pool the ForkJoinPool that runs the operation
+   */
+  public abstract void parallelAndNot(long dstOffsetBytes, Memory src, long srcOffsetBytes,
+          long lengthBytes, ForkJoinPool pool);
+
   //OTHER WRITE METHODS XXX
   /**
    * Returns the primitive backing array, otherwise null.
@@ -402,6 +902,36 @@ public abstract class WritableMemory extends Memory {
    */
   public abstract void fill(long offsetBytes, long lengthBytes, byte value);
 
+  /**
+   * Clears all bytes of this Memory to zero, splitting regions of more than a few tens of
+   * megabytes across the threads of the common ForkJoinPool.
+   */
+  public void parallelClear() {
+    parallelFill(0, getCapacity(), (byte) 0, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Fills a portion of this Memory region to the given byte value, splitting regions of more than
+   * a few tens of megabytes across the threads of the common ForkJoinPool.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param lengthBytes the length in bytes
+   * @param value the given byte value
+   */
+  public void parallelFill(final long offsetBytes, final long lengthBytes, final byte value) {
+    parallelFill(offsetBytes, lengthBytes, value, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Fills a portion of this Memory region to the given byte value, splitting regions of more than
+   * a few tens of megabytes across the threads of the given pool.
+   * @param offsetBytes offset bytes relative to this Memory start
+   * @param lengthBytes the length in bytes
+   * @param value the given byte value
+   * @param pool the ForkJoinPool that runs the fill
+   */
+  public abstract void parallelFill(long offsetBytes, long lengthBytes, byte value,
+          ForkJoinPool pool);
+
   /**
    * Sets the bits defined by the bitMask
    * @param offsetBytes offset bytes relative to this Memory start
@@ -24,19 +24,22 @@ import static com.yahoo.memory.UnsafeUtil.ARRAY_SHORT_INDEX_SCALE;
 import static com.yahoo.memory.UnsafeUtil.BOOLEAN_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.BYTE_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.CHAR_SHIFT;
+import static com.yahoo.memory.UnsafeUtil.CHECK_BOUNDS;
 import static com.yahoo.memory.UnsafeUtil.DOUBLE_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.FLOAT_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.INT_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.LONG_SHIFT;
 import static com.yahoo.memory.UnsafeUtil.LS;
 import static com.yahoo.memory.UnsafeUtil.SHORT_SHIFT;
-import static com.yahoo.memory.UnsafeUtil.UNSAFE_COPY_THRESHOLD;
 import static com.yahoo.memory.UnsafeUtil.assertBounds;
+import static com.yahoo.memory.UnsafeUtil.checkBounds;
 import static com.yahoo.memory.UnsafeUtil.checkOverlap;
 import static com.yahoo.memory.UnsafeUtil.unsafe;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implementation of WritableMemory
@@ -58,6 +61,17 @@ class WritableMemoryImpl extends WritableMemory {
     cumBaseOffset = state.getCumBaseOffset();
   }
 
+  /**
+   * Returns the implementation for the byte order of the given state. The choice is made once
+   * here, so the accessors never test the byte order.
+   * @param state the ResourceState
+   * @return a new WritableMemoryImpl, or NonNativeWritableMemoryImpl if the bytes must be swapped
+   */
+  static WritableMemoryImpl newInstance(final ResourceState state) {
+    return state.isSwapBytes() ? new NonNativeWritableMemoryImpl(state)
+                               : new WritableMemoryImpl(state);
+  }
+
   //REGIONS/DUPLICATES XXX
   @Override
   public Memory duplicate() {
@@ -78,23 +92,22 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public WritableMemory writableRegion(final long offsetBytes, final long capacityBytes) {
     checkValid();
-    assert (offsetBytes + capacityBytes) <= capacity
-            : "newOff + newCap: " + (offsetBytes + capacityBytes) + ", origCap: " + capacity;
+    assertBounds(offsetBytes, capacityBytes, capacity);
     final ResourceState newState = state.copy();
     newState.putRegionOffset(newState.getRegionOffset() + offsetBytes);
     newState.putCapacity(capacityBytes);
-    return new WritableMemoryImpl(newState);
+    return newInstance(newState);
   }
 
   //BUFFER XXX
   @Override
   public Buffer asBuffer() {
-    return new WritableBufferImpl(state.copy());
+    return WritableBufferImpl.newInstance(state.copy());
   }
 
   @Override
   public WritableBuffer asWritableBuffer() {
-    return new WritableBufferImpl(state.copy());
+    return WritableBufferImpl.newInstance(state.copy());
   }
 
   ///PRIMITIVE getXXX() and getXXXArray() XXX
@@ -152,6 +165,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void getCharArray(final long offsetBytes, final char[] dstArray, final int dstOffset,
           final int length) {
+    getNativeCharArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public void getCharArray(final long offsetBytes, final char[] dstArray, final int dstOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      getNativeCharArray(offsetBytes, dstArray, dstOffset, length);
+    } else {
+      getSwappedCharArray(offsetBytes, dstArray, dstOffset, length);
+    }
+  }
+
+  final void getNativeCharArray(final long offsetBytes, final char[] dstArray,
+          final int dstOffset, final int length) {
     checkValid();
     final long copyBytes = length << CHAR_SHIFT;
     assertBounds(offsetBytes, copyBytes, capacity);
@@ -164,6 +192,20 @@ class WritableMemoryImpl extends WritableMemory {
             copyBytes);
   }
 
+  final void getSwappedCharArray(final long offsetBytes, final char[] dstArray,
+          final int dstOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << CHAR_SHIFT;
+    assertBounds(offsetBytes, copyBytes, capacity);
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap16(
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            dstArray,
+            ARRAY_CHAR_BASE_OFFSET + (dstOffset << CHAR_SHIFT),
+            length);
+  }
+
   @Override
   public double getDouble(final long offsetBytes) {
     checkValid();
@@ -174,6 +216,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void getDoubleArray(final long offsetBytes, final double[] dstArray, final int dstOffset,
           final int length) {
+    getNativeDoubleArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public void getDoubleArray(final long offsetBytes, final double[] dstArray, final int dstOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      getNativeDoubleArray(offsetBytes, dstArray, dstOffset, length);
+    } else {
+      getSwappedDoubleArray(offsetBytes, dstArray, dstOffset, length);
+    }
+  }
+
+  final void getNativeDoubleArray(final long offsetBytes, final double[] dstArray,
+          final int dstOffset, final int length) {
     checkValid();
     final long copyBytes = length << DOUBLE_SHIFT;
     assertBounds(offsetBytes, copyBytes, capacity);
@@ -186,6 +243,20 @@ class WritableMemoryImpl extends WritableMemory {
             copyBytes);
   }
 
+  final void getSwappedDoubleArray(final long offsetBytes, final double[] dstArray,
+          final int dstOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << DOUBLE_SHIFT;
+    assertBounds(offsetBytes, copyBytes, capacity);
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap64(
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            dstArray,
+            ARRAY_DOUBLE_BASE_OFFSET + (dstOffset << DOUBLE_SHIFT),
+            length);
+  }
+
   @Override
   public float getFloat(final long offsetBytes) {
     checkValid();
@@ -196,6 +267,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void getFloatArray(final long offsetBytes, final float[] dstArray, final int dstOffset,
           final int length) {
+    getNativeFloatArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public void getFloatArray(final long offsetBytes, final float[] dstArray, final int dstOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      getNativeFloatArray(offsetBytes, dstArray, dstOffset, length);
+    } else {
+      getSwappedFloatArray(offsetBytes, dstArray, dstOffset, length);
+    }
+  }
+
+  final void getNativeFloatArray(final long offsetBytes, final float[] dstArray,
+          final int dstOffset, final int length) {
     checkValid();
     final long copyBytes = length << FLOAT_SHIFT;
     assertBounds(offsetBytes, copyBytes, capacity);
@@ -208,6 +294,20 @@ class WritableMemoryImpl extends WritableMemory {
             copyBytes);
   }
 
+  final void getSwappedFloatArray(final long offsetBytes, final float[] dstArray,
+          final int dstOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << FLOAT_SHIFT;
+    assertBounds(offsetBytes, copyBytes, capacity);
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap32(
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            dstArray,
+            ARRAY_FLOAT_BASE_OFFSET + (dstOffset << FLOAT_SHIFT),
+            length);
+  }
+
   @Override
   public int getInt(final long offsetBytes) {
     checkValid();
@@ -218,6 +318,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void getIntArray(final long offsetBytes, final int[] dstArray, final int dstOffset,
           final int length) {
+    getNativeIntArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public void getIntArray(final long offsetBytes, final int[] dstArray, final int dstOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      getNativeIntArray(offsetBytes, dstArray, dstOffset, length);
+    } else {
+      getSwappedIntArray(offsetBytes, dstArray, dstOffset, length);
+    }
+  }
+
+  final void getNativeIntArray(final long offsetBytes, final int[] dstArray,
+          final int dstOffset, final int length) {
     checkValid();
     final long copyBytes = length << INT_SHIFT;
     assertBounds(offsetBytes, copyBytes, capacity);
@@ -230,6 +345,20 @@ class WritableMemoryImpl extends WritableMemory {
             copyBytes);
   }
 
+  final void getSwappedIntArray(final long offsetBytes, final int[] dstArray,
+          final int dstOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << INT_SHIFT;
+    assertBounds(offsetBytes, copyBytes, capacity);
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap32(
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            dstArray,
+            ARRAY_INT_BASE_OFFSET + (dstOffset << INT_SHIFT),
+            length);
+  }
+
   @Override
   public long getLong(final long offsetBytes) {
     checkValid();
@@ -240,6 +369,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void getLongArray(final long offsetBytes, final long[] dstArray, final int dstOffset,
           final int length) {
+    getNativeLongArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public void getLongArray(final long offsetBytes, final long[] dstArray, final int dstOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      getNativeLongArray(offsetBytes, dstArray, dstOffset, length);
+    } else {
+      getSwappedLongArray(offsetBytes, dstArray, dstOffset, length);
+    }
+  }
+
+  final void getNativeLongArray(final long offsetBytes, final long[] dstArray,
+          final int dstOffset, final int length) {
     checkValid();
     final long copyBytes = length << LONG_SHIFT;
     assertBounds(offsetBytes, copyBytes, capacity);
@@ -252,6 +396,20 @@ class WritableMemoryImpl extends WritableMemory {
             copyBytes);
   }
 
+  final void getSwappedLongArray(final long offsetBytes, final long[] dstArray,
+          final int dstOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << LONG_SHIFT;
+    assertBounds(offsetBytes, copyBytes, capacity);
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap64(
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            dstArray,
+            ARRAY_LONG_BASE_OFFSET + (dstOffset << LONG_SHIFT),
+            length);
+  }
+
   @Override
   public short getShort(final long offsetBytes) {
     checkValid();
@@ -262,6 +420,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void getShortArray(final long offsetBytes, final short[] dstArray, final int dstOffset,
           final int length) {
+    getNativeShortArray(offsetBytes, dstArray, dstOffset, length);
+  }
+
+  @Override
+  public void getShortArray(final long offsetBytes, final short[] dstArray, final int dstOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      getNativeShortArray(offsetBytes, dstArray, dstOffset, length);
+    } else {
+      getSwappedShortArray(offsetBytes, dstArray, dstOffset, length);
+    }
+  }
+
+  final void getNativeShortArray(final long offsetBytes, final short[] dstArray,
+          final int dstOffset, final int length) {
     checkValid();
     final long copyBytes = length << SHORT_SHIFT;
     assertBounds(offsetBytes, copyBytes, capacity);
@@ -274,6 +447,61 @@ class WritableMemoryImpl extends WritableMemory {
             copyBytes);
   }
 
+  final void getSwappedShortArray(final long offsetBytes, final short[] dstArray,
+          final int dstOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << SHORT_SHIFT;
+    assertBounds(offsetBytes, copyBytes, capacity);
+    assertBounds(dstOffset, length, dstArray.length);
+    ByteSwap.copySwap16(
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            dstArray,
+            ARRAY_SHORT_BASE_OFFSET + (dstOffset << SHORT_SHIFT),
+            length);
+  }
+
+  //VOLATILE READ METHODS XXX
+  @Override
+  public int getIntVolatile(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    return unsafe.getIntVolatile(unsafeObj, cumBaseOffset + offsetBytes);
+  }
+
+  @Override
+  public long getLongVolatile(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    return unsafe.getLongVolatile(unsafeObj, cumBaseOffset + offsetBytes);
+  }
+
+  //VARIABLE LENGTH INTEGERS XXX
+  @Override
+  public long getVarLong(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_BYTE_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    final long avail = capacity - offsetBytes;
+    return VarInt.getVarLong(unsafeObj, add, VarInt.getVarLength(unsafeObj, add, avail), avail);
+  }
+
+  @Override
+  public int getVarLength(final long offsetBytes) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_BYTE_INDEX_SCALE, capacity);
+    return VarInt.getVarLength(unsafeObj, cumBaseOffset + offsetBytes, capacity - offsetBytes);
+  }
+
+  //UTF-8 XXX
+  @Override
+  public void getUtf8(final long offsetBytes, final long utf8LengthBytes, final Appendable dst)
+          throws IOException {
+    checkValid();
+    assertBounds(offsetBytes, utf8LengthBytes, capacity);
+    Utf8.getUtf8(unsafeObj, cumBaseOffset + offsetBytes, utf8LengthBytes, dst);
+  }
+
   //OTHER PRIMITIVE READ METHODS: copyTo, compareTo XXX
   @Override
   public int compareTo(final long thisOffsetBytes, final long thisLengthBytes, final Memory that,
@@ -282,20 +510,87 @@ class WritableMemoryImpl extends WritableMemory {
     ((WritableMemoryImpl)that).checkValid();
     assertBounds(thisOffsetBytes, thisLengthBytes, capacity);
     assertBounds(thatOffsetBytes, thatLengthBytes, that.getCapacity());
-    final long thisAdd = getCumulativeOffset(thisOffsetBytes);
-    final long thatAdd = that.getCumulativeOffset(thatOffsetBytes);
-    final Object thisObj = (isDirect()) ? null : unsafeObj;
-    final Object thatObj = (that.isDirect()) ? null : ((WritableMemory)that).getArray();
+    final WritableMemoryImpl thatImpl = (WritableMemoryImpl) that;
+    return CompareAndCopy.compare(
+            unsafeObj, cumBaseOffset + thisOffsetBytes, thisLengthBytes,
+            thatImpl.unsafeObj, thatImpl.cumBaseOffset + thatOffsetBytes, thatLengthBytes);
+  }
+
+  @Override
+  public long mismatch(final long thisOffsetBytes, final long thisLengthBytes, final Memory that,
+          final long thatOffsetBytes, final long thatLengthBytes) {
+    checkValid();
+    ((WritableMemoryImpl)that).checkValid();
+    assertBounds(thisOffsetBytes, thisLengthBytes, capacity);
+    assertBounds(thatOffsetBytes, thatLengthBytes, that.getCapacity());
+    final WritableMemoryImpl thatImpl = (WritableMemoryImpl) that;
     final long lenBytes = Math.min(thisLengthBytes, thatLengthBytes);
-    for (long i = 0; i < lenBytes; i++) {
-      final int thisByte = unsafe.getByte(thisObj, thisAdd + i);
-      final int thatByte = unsafe.getByte(thatObj, thatAdd + i);
-      if (thisByte < thatByte) { return -1; }
-      if (thisByte > thatByte) { return  1; }
-    }
-    if (thisLengthBytes < thatLengthBytes) { return -1; }
-    if (thisLengthBytes > thatLengthBytes) { return  1; }
-    return 0;
+    final long i = CompareAndCopy.mismatch(
+            unsafeObj, cumBaseOffset + thisOffsetBytes,
+            thatImpl.unsafeObj, thatImpl.cumBaseOffset + thatOffsetBytes, lenBytes);
+    return ((i < 0) && (thisLengthBytes != thatLengthBytes)) ? lenBytes : i;
+  }
+
+  @Override
+  public boolean equalTo(final long thisOffsetBytes, final Memory that,
+          final long thatOffsetBytes, final long lengthBytes) {
+    checkValid();
+    ((WritableMemoryImpl)that).checkValid();
+    assertBounds(thisOffsetBytes, lengthBytes, capacity);
+    assertBounds(thatOffsetBytes, lengthBytes, that.getCapacity());
+    final WritableMemoryImpl thatImpl = (WritableMemoryImpl) that;
+    final long thisAdd = cumBaseOffset + thisOffsetBytes;
+    final long thatAdd = thatImpl.cumBaseOffset + thatOffsetBytes;
+    if ((unsafeObj == thatImpl.unsafeObj) && (thisAdd == thatAdd)) { return true; }
+    return CompareAndCopy.mismatch(
+            unsafeObj, thisAdd, thatImpl.unsafeObj, thatAdd, lengthBytes) < 0;
+  }
+
+  @Override
+  public long popCount(final long offsetBytes, final long lengthBytes) {
+    checkValid();
+    assertBounds(offsetBytes, lengthBytes, capacity);
+    return Bitwise.popCount(unsafeObj, cumBaseOffset + offsetBytes, lengthBytes);
+  }
+
+  @Override
+  public long parallelPopCount(final long offsetBytes, final long lengthBytes,
+          final ForkJoinPool pool) {
+    checkValid();
+    assertBounds(offsetBytes, lengthBytes, capacity);
+    return Bitwise.parallelPopCount(pool, unsafeObj, cumBaseOffset + offsetBytes, lengthBytes);
+  }
+
+  @Override
+  public long indexOf(final byte value, final long fromOffsetBytes, final long toOffsetBytes) {
+    checkValid();
+    final long lenBytes = toOffsetBytes - fromOffsetBytes;
+    assertBounds(fromOffsetBytes, lenBytes, capacity);
+    final long i = ByteSearch.indexOf(unsafeObj, cumBaseOffset + fromOffsetBytes, lenBytes, value);
+    return (i < 0) ? -1 : fromOffsetBytes + i;
+  }
+
+  @Override
+  public long lastIndexOf(final byte value, final long fromOffsetBytes, final long toOffsetBytes) {
+    checkValid();
+    final long lenBytes = toOffsetBytes - fromOffsetBytes;
+    assertBounds(fromOffsetBytes, lenBytes, capacity);
+    final long i = ByteSearch.lastIndexOf(unsafeObj, cumBaseOffset + fromOffsetBytes, lenBytes,
+            value);
+    return (i < 0) ? -1 : fromOffsetBytes + i;
+  }
+
+  @Override
+  public long indexOf(final Memory pattern, final long fromOffsetBytes,
+          final long toOffsetBytes) {
+    checkValid();
+    final WritableMemoryImpl pat = (WritableMemoryImpl) pattern;
+    pat.checkValid();
+    final long lenBytes = toOffsetBytes - fromOffsetBytes;
+    assertBounds(fromOffsetBytes, lenBytes, capacity);
+    final long i = ByteSearch.indexOf(unsafeObj, cumBaseOffset + fromOffsetBytes, lenBytes,
+            pat.unsafeObj, pat.cumBaseOffset, pat.capacity);
+    return (i < 0) ? -1 : fromOffsetBytes + i;
   }
 
   @Override
@@ -307,20 +602,40 @@ class WritableMemoryImpl extends WritableMemory {
     assert ((this == destination)
             ? checkOverlap(srcOffsetBytes, dstOffsetBytes, lengthBytes)
                     : true) : "Region Overlap" ;
+    final WritableMemoryImpl dst = (WritableMemoryImpl) destination;
+    CompareAndCopy.copy(unsafeObj, cumBaseOffset + srcOffsetBytes,
+            dst.unsafeObj, dst.cumBaseOffset + dstOffsetBytes, lengthBytes);
+  }
+
+  @Override
+  public void parallelCopyTo(final long srcOffsetBytes, final WritableMemory destination,
+          final long dstOffsetBytes, final long lengthBytes, final ForkJoinPool pool) {
+    checkValid();
+    ((WritableMemoryImpl)destination).checkValid();
+    assertBounds(srcOffsetBytes, lengthBytes, capacity);
+    assertBounds(dstOffsetBytes, lengthBytes, destination.getCapacity());
+    final WritableMemoryImpl dst = (WritableMemoryImpl) destination;
+    final long srcAdd = cumBaseOffset + srcOffsetBytes;
+    final long dstAdd = dst.cumBaseOffset + dstOffsetBytes;
+    if ((unsafeObj == dst.unsafeObj) && !checkOverlap(srcAdd, dstAdd, lengthBytes)) {
+      throw new IllegalArgumentException("Region Overlap");
+    }
+    CompareAndCopy.parallelCopy(pool, unsafeObj, srcAdd, dst.unsafeObj, dstAdd, lengthBytes);
+  }
 
-            long srcAdd = getCumulativeOffset(srcOffsetBytes);
-            long dstAdd = destination.getCumulativeOffset(dstOffsetBytes);
-            final Object srcParent = (isDirect()) ? null : unsafeObj;
-            final Object dstParent = (destination.isDirect()) ? null : destination.getArray();
-            long lenBytes = lengthBytes;
+  @Override
+  public long xxHash64(final long offsetBytes, final long lengthBytes, final long seed) {
+    checkValid();
+    assertBounds(offsetBytes, lengthBytes, capacity);
+    return XxHash64.hash(unsafeObj, cumBaseOffset + offsetBytes, lengthBytes, seed);
+  }
 
-            while (lenBytes > 0) {
-              final long chunkBytes = (lenBytes > UNSAFE_COPY_THRESHOLD) ? UNSAFE_COPY_THRESHOLD : lenBytes;
-              unsafe.copyMemory(srcParent, srcAdd, dstParent, dstAdd, lenBytes);
-              lenBytes -= chunkBytes;
-              srcAdd += chunkBytes;
-              dstAdd += chunkBytes;
-            }
+  @Override
+  public long[] murmurHash3(final long offsetBytes, final long lengthBytes, final long seed,
+          final long[] hashOut) {
+    checkValid();
+    assertBounds(offsetBytes, lengthBytes, capacity);
+    return MurmurHash3.hash(unsafeObj, cumBaseOffset + offsetBytes, lengthBytes, seed, hashOut);
   }
 
   //OTHER READ METHODS XXX
@@ -330,6 +645,12 @@ class WritableMemoryImpl extends WritableMemory {
     return capacity;
   }
 
+  @Override
+  public void checkValidAndBounds(final long offsetBytes, final long lengthBytes) {
+    if (!state.isValid()) { throw new IllegalStateException("Memory not valid."); }
+    checkBounds(offsetBytes, lengthBytes, capacity);
+  }
+
   @Override
   public long getCumulativeOffset(final long offsetBytes) {
     checkValid();
@@ -447,6 +768,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void putCharArray(final long offsetBytes, final char[] srcArray, final int srcOffset,
           final int length) {
+    putNativeCharArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putCharArray(final long offsetBytes, final char[] srcArray, final int srcOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      putNativeCharArray(offsetBytes, srcArray, srcOffset, length);
+    } else {
+      putSwappedCharArray(offsetBytes, srcArray, srcOffset, length);
+    }
+  }
+
+  final void putNativeCharArray(final long offsetBytes, final char[] srcArray,
+          final int srcOffset, final int length) {
     checkValid();
     final long copyBytes = length << CHAR_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
@@ -460,6 +796,20 @@ class WritableMemoryImpl extends WritableMemory {
             );
   }
 
+  final void putSwappedCharArray(final long offsetBytes, final char[] srcArray,
+          final int srcOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << CHAR_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(offsetBytes, copyBytes, capacity);
+    ByteSwap.copySwap16(
+            srcArray,
+            ARRAY_CHAR_BASE_OFFSET + (srcOffset << CHAR_SHIFT),
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            length);
+  }
+
   @Override
   public void putDouble(final long offsetBytes, final double value) {
     checkValid();
@@ -470,6 +820,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void putDoubleArray(final long offsetBytes, final double[] srcArray, final int srcOffset,
           final int length) {
+    putNativeDoubleArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putDoubleArray(final long offsetBytes, final double[] srcArray, final int srcOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      putNativeDoubleArray(offsetBytes, srcArray, srcOffset, length);
+    } else {
+      putSwappedDoubleArray(offsetBytes, srcArray, srcOffset, length);
+    }
+  }
+
+  final void putNativeDoubleArray(final long offsetBytes, final double[] srcArray,
+          final int srcOffset, final int length) {
     checkValid();
     final long copyBytes = length << DOUBLE_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
@@ -483,6 +848,20 @@ class WritableMemoryImpl extends WritableMemory {
             );
   }
 
+  final void putSwappedDoubleArray(final long offsetBytes, final double[] srcArray,
+          final int srcOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << DOUBLE_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(offsetBytes, copyBytes, capacity);
+    ByteSwap.copySwap64(
+            srcArray,
+            ARRAY_DOUBLE_BASE_OFFSET + (srcOffset << DOUBLE_SHIFT),
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            length);
+  }
+
   @Override
   public void putFloat(final long offsetBytes, final float value) {
     checkValid();
@@ -493,6 +872,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void putFloatArray(final long offsetBytes, final float[] srcArray, final int srcOffset,
           final int length) {
+    putNativeFloatArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putFloatArray(final long offsetBytes, final float[] srcArray, final int srcOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      putNativeFloatArray(offsetBytes, srcArray, srcOffset, length);
+    } else {
+      putSwappedFloatArray(offsetBytes, srcArray, srcOffset, length);
+    }
+  }
+
+  final void putNativeFloatArray(final long offsetBytes, final float[] srcArray,
+          final int srcOffset, final int length) {
     checkValid();
     final long copyBytes = length << FLOAT_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
@@ -506,6 +900,20 @@ class WritableMemoryImpl extends WritableMemory {
             );
   }
 
+  final void putSwappedFloatArray(final long offsetBytes, final float[] srcArray,
+          final int srcOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << FLOAT_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(offsetBytes, copyBytes, capacity);
+    ByteSwap.copySwap32(
+            srcArray,
+            ARRAY_FLOAT_BASE_OFFSET + (srcOffset << FLOAT_SHIFT),
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            length);
+  }
+
   @Override
   public void putInt(final long offsetBytes, final int value) {
     checkValid();
@@ -516,6 +924,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void putIntArray(final long offsetBytes, final int[] srcArray, final int srcOffset,
           final int length) {
+    putNativeIntArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putIntArray(final long offsetBytes, final int[] srcArray, final int srcOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      putNativeIntArray(offsetBytes, srcArray, srcOffset, length);
+    } else {
+      putSwappedIntArray(offsetBytes, srcArray, srcOffset, length);
+    }
+  }
+
+  final void putNativeIntArray(final long offsetBytes, final int[] srcArray,
+          final int srcOffset, final int length) {
     checkValid();
     final long copyBytes = length << INT_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
@@ -529,6 +952,20 @@ class WritableMemoryImpl extends WritableMemory {
             );
   }
 
+  final void putSwappedIntArray(final long offsetBytes, final int[] srcArray,
+          final int srcOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << INT_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(offsetBytes, copyBytes, capacity);
+    ByteSwap.copySwap32(
+            srcArray,
+            ARRAY_INT_BASE_OFFSET + (srcOffset << INT_SHIFT),
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            length);
+  }
+
   @Override
   public void putLong(final long offsetBytes, final long value) {
     checkValid();
@@ -539,6 +976,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void putLongArray(final long offsetBytes, final long[] srcArray, final int srcOffset,
           final int length) {
+    putNativeLongArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putLongArray(final long offsetBytes, final long[] srcArray, final int srcOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      putNativeLongArray(offsetBytes, srcArray, srcOffset, length);
+    } else {
+      putSwappedLongArray(offsetBytes, srcArray, srcOffset, length);
+    }
+  }
+
+  final void putNativeLongArray(final long offsetBytes, final long[] srcArray,
+          final int srcOffset, final int length) {
     checkValid();
     final long copyBytes = length << LONG_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
@@ -552,6 +1004,20 @@ class WritableMemoryImpl extends WritableMemory {
             );
   }
 
+  final void putSwappedLongArray(final long offsetBytes, final long[] srcArray,
+          final int srcOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << LONG_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(offsetBytes, copyBytes, capacity);
+    ByteSwap.copySwap64(
+            srcArray,
+            ARRAY_LONG_BASE_OFFSET + (srcOffset << LONG_SHIFT),
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            length);
+  }
+
   @Override
   public void putShort(final long offsetBytes, final short value) {
     checkValid();
@@ -562,6 +1028,21 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public void putShortArray(final long offsetBytes, final short[] srcArray, final int srcOffset,
           final int length) {
+    putNativeShortArray(offsetBytes, srcArray, srcOffset, length);
+  }
+
+  @Override
+  public void putShortArray(final long offsetBytes, final short[] srcArray, final int srcOffset,
+          final int length, final ByteOrder dataOrder) {
+    if (dataOrder == ByteOrder.nativeOrder()) {
+      putNativeShortArray(offsetBytes, srcArray, srcOffset, length);
+    } else {
+      putSwappedShortArray(offsetBytes, srcArray, srcOffset, length);
+    }
+  }
+
+  final void putNativeShortArray(final long offsetBytes, final short[] srcArray,
+          final int srcOffset, final int length) {
     checkValid();
     final long copyBytes = length << SHORT_SHIFT;
     assertBounds(srcOffset, length, srcArray.length);
@@ -575,6 +1056,37 @@ class WritableMemoryImpl extends WritableMemory {
             );
   }
 
+  final void putSwappedShortArray(final long offsetBytes, final short[] srcArray,
+          final int srcOffset, final int length) {
+    checkValid();
+    final long copyBytes = length << SHORT_SHIFT;
+    assertBounds(srcOffset, length, srcArray.length);
+    assertBounds(offsetBytes, copyBytes, capacity);
+    ByteSwap.copySwap16(
+            srcArray,
+            ARRAY_SHORT_BASE_OFFSET + (srcOffset << SHORT_SHIFT),
+            unsafeObj,
+            cumBaseOffset + offsetBytes,
+            length);
+  }
+
+  //VARIABLE LENGTH INTEGERS XXX
+  @Override
+  public int putVarLong(final long offsetBytes, final long value) {
+    checkValid();
+    final int length = VarInt.varLongSize(value);
+    assertBounds(offsetBytes, length, capacity);
+    return VarInt.putVarLong(unsafeObj, cumBaseOffset + offsetBytes, value);
+  }
+
+  //UTF-8 XXX
+  @Override
+  public long putUtf8(final long offsetBytes, final CharSequence src) {
+    checkValid();
+    assertBounds(offsetBytes, Utf8.utf8Length(src), capacity);
+    return Utf8.putUtf8(unsafeObj, cumBaseOffset + offsetBytes, src);
+  }
+
   //Atomic Write Methods XXX
   @Override
   public long getAndAddLong(final long offsetBytes, final long delta) { //JDK 8+
@@ -595,10 +1107,204 @@ class WritableMemoryImpl extends WritableMemory {
   @Override
   public boolean compareAndSwapLong(final long offsetBytes, final long expect, final long update) {
     checkValid();
-    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
     return unsafe.compareAndSwapLong(unsafeObj, cumBaseOffset + offsetBytes, expect, update);
   }
 
+  @Override
+  public int getAndAddInt(final long offsetBytes, final int delta) { //JDK 8+
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    return UnsafeUtil.compatibilityMethods.getAndAddInt(unsafeObj, add, delta) + delta;
+  }
+
+  @Override
+  public int getAndSetInt(final long offsetBytes, final int newValue) { //JDK 8+
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    return UnsafeUtil.compatibilityMethods.getAndSetInt(unsafeObj, add, newValue);
+  }
+
+  @Override
+  public boolean compareAndSwapInt(final long offsetBytes, final int expect, final int update) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    return unsafe.compareAndSwapInt(unsafeObj, cumBaseOffset + offsetBytes, expect, update);
+  }
+
+  @Override
+  public void putIntVolatile(final long offsetBytes, final int value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    unsafe.putIntVolatile(unsafeObj, cumBaseOffset + offsetBytes, value);
+  }
+
+  @Override
+  public void putLongVolatile(final long offsetBytes, final long value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    unsafe.putLongVolatile(unsafeObj, cumBaseOffset + offsetBytes, value);
+  }
+
+  @Override
+  public void putIntOrdered(final long offsetBytes, final int value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_INT_INDEX_SCALE, capacity);
+    unsafe.putOrderedInt(unsafeObj, cumBaseOffset + offsetBytes, value);
+  }
+
+  @Override
+  public void putLongOrdered(final long offsetBytes, final long value) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    unsafe.putOrderedLong(unsafeObj, cumBaseOffset + offsetBytes, value);
+  }
+
+  @Override
+  public long getAndSetBits(final long offsetBytes, final long bitMask) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    long oldValue;
+    do {
+      oldValue = unsafe.getLongVolatile(unsafeObj, add);
+      if ((oldValue | bitMask) == oldValue) { return oldValue; } //avoids dirtying the cache line
+    } while (!unsafe.compareAndSwapLong(unsafeObj, add, oldValue, oldValue | bitMask));
+    return oldValue;
+  }
+
+  @Override
+  public long getAndClearBits(final long offsetBytes, final long bitMask) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    long oldValue;
+    do {
+      oldValue = unsafe.getLongVolatile(unsafeObj, add);
+      if ((oldValue & bitMask) == 0) { return oldValue; } //avoids dirtying the cache line
+    } while (!unsafe.compareAndSwapLong(unsafeObj, add, oldValue, oldValue & ~bitMask));
+    return oldValue;
+  }
+
+  @Override
+  public long getAndFlipBits(final long offsetBytes, final long bitMask) {
+    checkValid();
+    assertBounds(offsetBytes, ARRAY_LONG_INDEX_SCALE, capacity);
+    final long add = cumBaseOffset + offsetBytes;
+    long oldValue;
+    do {
+      oldValue = unsafe.getLongVolatile(unsafeObj, add);
+    } while (!unsafe.compareAndSwapLong(unsafeObj, add, oldValue, oldValue ^ bitMask));
+    return oldValue;
+  }
+
+  @Override
+  public boolean testAndSetBit(final long bitIndex) {
+    final long bitMask = 1L << bitIndex; //shift distance is bitIndex & 63
+    return (getAndSetBits((bitIndex >>> 6) << 3, bitMask) & bitMask) != 0;
+  }
+
+  @Override
+  public boolean testAndClearBit(final long bitIndex) {
+    final long bitMask = 1L << bitIndex; //shift distance is bitIndex & 63
+    return (getAndClearBits((bitIndex >>> 6) << 3, bitMask) & bitMask) != 0;
+  }
+
+  @Override
+  public void atomicOr(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    checkLongMultiple(lengthBytes);
+    for (long i = 0; i < lengthBytes; i += 8) {
+      final long bits = src.getLong(srcOffsetBytes + i);
+      if (bits != 0) {
+        getAndSetBits(dstOffsetBytes + i, bits);
+      }
+    }
+  }
+
+  @Override
+  public void atomicAndNot(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    checkLongMultiple(lengthBytes);
+    for (long i = 0; i < lengthBytes; i += 8) {
+      final long bits = src.getLong(srcOffsetBytes + i);
+      if (bits != 0) {
+        getAndClearBits(dstOffsetBytes + i, bits);
+      }
+    }
+  }
+
+  //BITWISE OPERATIONS XXX
+  @Override
+  public void and(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    bitwise(Bitwise.AND, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, null);
+  }
+
+  @Override
+  public void or(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    bitwise(Bitwise.OR, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, null);
+  }
+
+  @Override
+  public void xor(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    bitwise(Bitwise.XOR, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, null);
+  }
+
+  @Override
+  public void andNot(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes) {
+    bitwise(Bitwise.AND_NOT, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, null);
+  }
+
+  @Override
+  public void parallelAnd(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes, final ForkJoinPool pool) {
+    bitwise(Bitwise.AND, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, pool);
+  }
+
+  @Override
+  public void parallelOr(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes, final ForkJoinPool pool) {
+    bitwise(Bitwise.OR, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, pool);
+  }
+
+  @Override
+  public void parallelXor(final long dstOffsetBytes, final Memory src, final long srcOffsetBytes,
+          final long lengthBytes, final ForkJoinPool pool) {
+    bitwise(Bitwise.XOR, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, pool);
+  }
+
+  @Override
+  public void parallelAndNot(final long dstOffsetBytes, final Memory src,
+          final long srcOffsetBytes, final long lengthBytes, final ForkJoinPool pool) {
+    bitwise(Bitwise.AND_NOT, dstOffsetBytes, src, srcOffsetBytes, lengthBytes, pool);
+  }
+
+  //A null pool runs the operation on the calling thread
+  private void bitwise(final int op, final long dstOffsetBytes, final Memory src,
+          final long srcOffsetBytes, final long lengthBytes, final ForkJoinPool pool) {
+    checkValid();
+    final WritableMemoryImpl srcImpl = (WritableMemoryImpl) src;
+    srcImpl.checkValid();
+    assertBounds(dstOffsetBytes, lengthBytes, capacity);
+    assertBounds(srcOffsetBytes, lengthBytes, srcImpl.capacity);
+    final long dstAdd = cumBaseOffset + dstOffsetBytes;
+    final long srcAdd = srcImpl.cumBaseOffset + srcOffsetBytes;
+    assert ((unsafeObj != srcImpl.unsafeObj) || (dstAdd == srcAdd)
+            || ((dstAdd + lengthBytes) <= srcAdd) || ((srcAdd + lengthBytes) <= dstAdd))
+            : "Region Overlap";
+    if (pool == null) {
+      Bitwise.apply(op, unsafeObj, dstAdd, srcImpl.unsafeObj, srcAdd, lengthBytes);
+    } else {
+      Bitwise.parallelApply(pool, op, unsafeObj, dstAdd, srcImpl.unsafeObj, srcAdd, lengthBytes);
+    }
+  }
+
   //OTHER WRITE METHODS XXX
   @Override
   public Object getArray() {
@@ -643,7 +1349,15 @@ class WritableMemoryImpl extends WritableMemory {
   public void fill(final long offsetBytes, final long lengthBytes, final byte value) {
     checkValid();
     assertBounds(offsetBytes, lengthBytes, capacity);
-    unsafe.setMemory(unsafeObj, cumBaseOffset + offsetBytes, lengthBytes, value);
+    CompareAndCopy.fill(unsafeObj, cumBaseOffset + offsetBytes, lengthBytes, value);
+  }
+
+  @Override
+  public void parallelFill(final long offsetBytes, final long lengthBytes, final byte value,
+          final ForkJoinPool pool) {
+    checkValid();
+    assertBounds(offsetBytes, lengthBytes, capacity);
+    CompareAndCopy.parallelFill(pool, unsafeObj, cumBaseOffset + offsetBytes, lengthBytes, value);
   }
 
   @Override
@@ -678,7 +1392,17 @@ class WritableMemoryImpl extends WritableMemory {
   }
 
   //RESTRICTED READ AND WRITE XXX
-  private final void checkValid() { //applies to both readable and writable
+  static final void checkLongMultiple(final long lengthBytes) {
+    if ((lengthBytes & 7L) != 0) {
+      throw new IllegalArgumentException("Length must be a multiple of 8: " + lengthBytes);
+    }
+  }
+
+  final void checkValid() { //applies to both readable and writable
+    if (CHECK_BOUNDS) {
+      if (!state.isValid()) { throw new IllegalStateException("Memory not valid."); }
+      return;
+    }
     assert state.isValid() : "Memory not valid.";
   }
 
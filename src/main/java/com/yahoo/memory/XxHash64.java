@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static com.yahoo.memory.CompareAndCopy.getIntLE;
+import static com.yahoo.memory.CompareAndCopy.getLongLE;
+import static com.yahoo.memory.UnsafeUtil.unsafe;
+
+/**
+ * The xxHash64 algorithm by Yann Collet, computed directly on any range of bytes addressable by
+ * Unsafe. Input is read eight bytes at a time as little-endian words, so the result depends only
+ * on the bytes and is the same on every platform and for every kind of resource.
+ *
+ * @see <a href="https://github.com/Cyan4973/xxHash">xxHash</a>
+ * @author Lee Rhodes
+ */
+final class XxHash64 {
+  private static final long P1 = 0x9E3779B185EBCA87L;
+  private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long P3 = 0x165667B19E3779F9L;
+  private static final long P4 = 0x85EBCA77C2B2AE63L;
+  private static final long P5 = 0x27D4EB2F165667C5L;
+
+  private XxHash64() { }
+
+  /**
+   * Returns the xxHash64 of the given range.
+   * @param obj the array object, or null for native memory
+   * @param add the cumulative offset of the range
+   * @param lengthBytes the number of bytes to hash
+   * @param seed the seed
+   * @return the 64-bit hash
+   */
+  static long hash(final Object obj, final long add, final long lengthBytes, final long seed) {
+    long p = add;
+    final long end = add + lengthBytes;
+    long h;
+    if (lengthBytes >= 32) {
+      long v1 = seed + P1 + P2;
+      long v2 = seed + P2;
+      long v3 = seed;
+      long v4 = seed - P1;
+      final long limit = end - 32;
+      do {
+        v1 = round(v1, getLongLE(obj, p));
+        v2 = round(v2, getLongLE(obj, p + 8));
+        v3 = round(v3, getLongLE(obj, p + 16));
+        v4 = round(v4, getLongLE(obj, p + 24));
+        p += 32;
+      } while (p <= limit);
+      h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+          + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+      h = mergeRound(h, v1);
+      h = mergeRound(h, v2);
+      h = mergeRound(h, v3);
+      h = mergeRound(h, v4);
+    } else {
+      h = seed + P5;
+    }
+    h += lengthBytes;
+    for ( ; p <= (end - 8); p += 8) {
+      h ^= round(0, getLongLE(obj, p));
+      h = (Long.rotateLeft(h, 27) * P1) + P4;
+    }
+    if (p <= (end - 4)) {
+      h ^= (getIntLE(obj, p) & 0XFFFFFFFFL) * P1;
+      h = (Long.rotateLeft(h, 23) * P2) + P3;
+      p += 4;
+    }
+    for ( ; p < end; p++) {
+      h ^= (unsafe.getByte(obj, p) & 0XFFL) * P5;
+      h = Long.rotateLeft(h, 11) * P1;
+    }
+    h ^= h >>> 33;
+    h *= P2;
+    h ^= h >>> 29;
+    h *= P3;
+    h ^= h >>> 32;
+    return h;
+  }
+
+  private static long round(long acc, final long input) {
+    acc += input * P2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * P1;
+  }
+
+  private static long mergeRound(long acc, final long val) {
+    acc ^= round(0, val);
+    return (acc * P1) + P4;
+  }
+
+}
@@ -6,6 +6,8 @@
 package com.yahoo.memory;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import org.testng.annotations.Test;
 
@@ -35,6 +37,159 @@ public class AllocateDirectMemoryTest {
     }
   }
 
+  @Test
+  public void checkAllocateDirectAligned() {
+    long[] alignments = {1, 8, 64, 4096};
+    for (long alignment : alignments) {
+      try (WritableDirectHandle wh = WritableMemory.allocateDirect(1000, alignment)) {
+        WritableMemory wMem = wh.get();
+        assertEquals(wMem.getCapacity(), 1000);
+        assertEquals(wMem.getCumulativeOffset(0) % alignment, 0);
+        wMem.fill((byte) 1);
+        assertEquals(wMem.getByte(999), 1);
+      }
+    }
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkDefaultAllocateDirectAligned() {
+    //implements only the abstract methods, as a manager outside this package would
+    MemoryManager memMgr = new MemoryManager() {
+      @Override
+      public WritableDirectHandle allocateDirect(long capacityBytes) {
+        return WritableMemory.allocateDirect(capacityBytes);
+      }
+
+      @Override
+      public WritableMemory request(long capacityBytes) {
+        return WritableMemory.allocate((int) capacityBytes);
+      }
+
+      @Override
+      public void requestClose(WritableMemory memoryToClose, WritableMemory newMemory) {
+        memoryToClose.getHandle().close();
+      }
+    };
+    long[] alignments = {1, 8, 64, 4096};
+    for (long alignment : alignments) {
+      WritableMemory wMem;
+      try (WritableDirectHandle wh = memMgr.allocateDirect(1000, alignment)) {
+        wMem = wh.get();
+        assertEquals(wMem.getCapacity(), 1000);
+        assertEquals(wMem.getCumulativeOffset(0) % alignment, 0);
+        wMem.fill((byte) 1);
+        assertEquals(wMem.getByte(999), 1);
+      }
+      assertFalse(wMem.isValid());
+    }
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkPooledAllocateDirectAligned() {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    for (int i = 0; i < 3; i++) {
+      try (WritableDirectHandle wh = pool.allocateDirect(100, 4096)) {
+        assertEquals(wh.get().getCumulativeOffset(0) % 4096, 0);
+        wh.get().putLong(92, i);
+      }
+    }
+    assertEquals(pool.getPooledBlocks(), 1);
+    assertEquals(pool.getPooledBytes(), 8192);
+    pool.trim();
+  }
+
+  @Test
+  public void checkReallocatingRequest() {
+    MemoryManager memMgr = ReallocatingMemoryManager.getInstance();
+    WritableMemory wMem1 = memMgr.allocateDirect(64).get();
+    for (int i = 0; i < 8; i++) { wMem1.putLong(i << 3, i); }
+    MemoryRequestServer memReqSvr = wMem1.getMemoryRequestServer();
+    WritableMemory wMem2 = memReqSvr.request(wMem1, 1 << 20);
+    assertFalse(wMem1.isValid());
+    assertTrue(wMem2.isDirect());
+    assertEquals(wMem2.getCapacity(), 1 << 20);
+    for (int i = 0; i < 8; i++) { assertEquals(wMem2.getLong(i << 3), i); }
+    memReqSvr.requestClose(wMem1, wMem2);
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 1);
+    assertEquals(Memory.getCurrentDirectMemoryAllocated(), 1 << 20);
+
+    //shrink
+    WritableMemory wMem3 = memReqSvr.request(wMem2, 32);
+    memReqSvr.requestClose(wMem2, wMem3);
+    assertEquals(wMem3.getLong(24), 3);
+    assertEquals(Memory.getCurrentDirectMemoryAllocated(), 32);
+    wMem3.getHandle().close();
+    assertFalse(wMem3.isValid());
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkReallocatingRequestFallback() {
+    MemoryManager memMgr = ReallocatingMemoryManager.getInstance();
+    try (WritableDirectHandle wh = memMgr.allocateDirect(64, 64)) { //aligned, copied instead
+      WritableMemory wMem1 = wh.get();
+      wMem1.putLong(56, 5L);
+      WritableMemory wMem2 = memMgr.request(wMem1, 128);
+      assertTrue(wMem1.isValid());
+      assertEquals(wMem2.getLong(56), 5L);
+      memMgr.requestClose(wMem1, wMem2);
+      assertFalse(wMem1.isValid());
+      memMgr.requestClose(wMem2, null);
+    }
+    WritableMemory heap = WritableMemory.allocate(16);
+    heap.putLong(8, 9L);
+    WritableMemory wMem3 = memMgr.request(heap, 32);
+    assertEquals(wMem3.getLong(8), 9L);
+    memMgr.requestClose(wMem3, null);
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkDefaultRequestCopies() {
+    try (WritableDirectHandle wh = WritableMemory.allocateDirect(64)) {
+      WritableMemory wMem1 = wh.get();
+      wMem1.putLong(0, 3L);
+      WritableMemory wMem2 = wMem1.getMemoryRequestServer().request(wMem1, 128);
+      assertFalse(wMem2.isDirect());
+      assertEquals(wMem2.getLong(0), 3L);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkBadAlignment() {
+    WritableMemory.allocateDirect(64, 48);
+  }
+
+  @Test
+  public void checkConcurrentAccounting() throws Exception {
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 1000; i++) {
+            try (WritableDirectHandle wh = WritableMemory.allocateDirect(8 + i)) {
+              wh.get().putLong(0, i);
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    try (WritableDirectHandle wh = WritableMemory.allocateDirect(100)) {
+      for (int t = 0; t < threads.length; t++) {
+        threads[t].join();
+      }
+      //exact once all allocations and closes have completed
+      assertEquals(Memory.getCurrentDirectMemoryAllocations(), 1);
+      assertEquals(Memory.getCurrentDirectMemoryAllocated(), 100);
+    }
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+    assertEquals(Memory.getCurrentDirectMemoryAllocated(), 0);
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: "+this.getClass().getName());
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class AllocationTagTest {
+
+  @Test
+  public void checkDirectAccounting() {
+    AllocationTag tag = AllocationTag.get("checkDirectAccounting");
+    assertTrue(AllocationTag.get("checkDirectAccounting") == tag);
+    try (WritableDirectHandle wh1 = WritableMemory.allocateDirect(100, tag)) {
+      assertEquals(tag.getLiveBytes(), 100);
+      assertEquals(tag.getLiveCount(), 1);
+      try (WritableDirectHandle wh2 = WritableMemory.allocateDirect(50, tag)) {
+        assertEquals(tag.getLiveBytes(), 150);
+        assertEquals(tag.getLiveCount(), 2);
+        assertEquals(Memory.getCurrentDirectMemoryAllocated(), 150);
+      }
+      assertEquals(tag.getLiveBytes(), 100);
+    }
+    AllocationTag.Snapshot snap = tag.snapshot();
+    assertEquals(snap.getName(), "checkDirectAccounting");
+    assertEquals(snap.getLiveBytes(), 0);
+    assertEquals(snap.getLiveCount(), 0);
+    assertEquals(snap.getHighWaterBytes(), 150);
+    tag.resetHighWaterBytes();
+    assertEquals(tag.getHighWaterBytes(), 0);
+    println(snap.toString());
+  }
+
+  @Test
+  public void checkPooledAndReallocated() {
+    AllocationTag tag = AllocationTag.get("checkPooledAndReallocated");
+    PooledMemoryManager pool = new PooledMemoryManager();
+    try (WritableDirectHandle wh = pool.allocateDirect(200, tag)) {
+      assertEquals(tag.getLiveBytes(), 200);
+    }
+    assertEquals(tag.getLiveBytes(), 0);
+    pool.trim();
+
+    MemoryManager memMgr = ReallocatingMemoryManager.getInstance();
+    WritableMemory wMem1 = memMgr.allocateDirect(64, tag).get();
+    WritableMemory wMem2 = memMgr.request(wMem1, 128);
+    assertEquals(tag.getLiveBytes(), 128); //the tag follows the memory
+    assertEquals(tag.getLiveCount(), 1);
+    memMgr.requestClose(wMem2, null);
+    assertEquals(tag.getLiveBytes(), 0);
+    assertEquals(tag.getHighWaterBytes(), 200);
+  }
+
+  @Test
+  public void checkMapAccounting() throws Exception {
+    AllocationTag tag = AllocationTag.get("checkMapAccounting");
+    File file = new File(getClass().getClassLoader().getResource("GettysburgAddress.txt").getFile());
+    long capacity = file.length();
+    try (MapHandle rh = Memory.map(file, 0, capacity, ByteOrder.nativeOrder(), tag)) {
+      assertEquals(tag.getLiveBytes(), capacity);
+      assertEquals(tag.getLiveCount(), 1);
+    }
+    assertEquals(tag.getLiveBytes(), 0);
+    assertEquals(tag.getHighWaterBytes(), capacity);
+  }
+
+  @Test
+  public void checkSnapshotAll() {
+    AllocationTag tag = AllocationTag.get("checkSnapshotAll");
+    List<AllocationTag.Snapshot> snaps = AllocationTag.snapshotAll();
+    boolean found = false;
+    for (AllocationTag.Snapshot snap : snaps) {
+      found |= snap.getName().equals(tag.getName());
+    }
+    assertTrue(found);
+  }
+
+  @SuppressWarnings("resource")
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void checkTagOnlyOnce() {
+    AllocationTag tag = AllocationTag.get("checkTagOnlyOnce");
+    WritableDirectHandle wh = WritableMemory.allocateDirect(8, tag);
+    try {
+      wh.direct.tag(tag);
+    } finally {
+      wh.close();
+    }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+
+import org.testng.annotations.Test;
+
+public class BackgroundReclaimerTest {
+
+  @Test
+  public void checkLargeBlocksAreFreedInBackground() {
+    try (BackgroundReclaimer reclaimer = BackgroundReclaimer.start(1024, 16)) {
+      assertTrue(BackgroundReclaimer.getRunning() == reclaimer);
+      WritableDirectHandle wh = WritableMemory.allocateDirect(4096);
+      WritableMemory wMem = wh.get();
+      wh.close();
+      assertFalse(wMem.isValid()); //invalidated before the free
+      assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+
+      try (WritableDirectHandle small = WritableMemory.allocateDirect(64)) {
+        small.get().putLong(0, 1L);
+      }
+      PooledMemoryManager pool = new PooledMemoryManager();
+      try (WritableDirectHandle pooled = pool.allocateDirect(2048)) {
+        pooled.get().putLong(0, 1L);
+      }
+      assertEquals(pool.getPooledBlocks(), 1); //returned to the pool, not queued
+      pool.trim();
+      reclaimer.close();
+      assertEquals(reclaimer.getReclaimedCount(), 1);
+      assertEquals(reclaimer.getReclaimedBytes(), 4096);
+      assertEquals(reclaimer.getPendingBytes(), 0);
+      assertEquals(reclaimer.getQueuedCount(), 0);
+      assertEquals(reclaimer.getFailureCount(), 0);
+    }
+    assertTrue(BackgroundReclaimer.getRunning() == null);
+  }
+
+  @Test
+  public void checkMapsAreUnmappedInBackground() throws Exception {
+    File file = new File(getClass().getClassLoader().getResource("GettysburgAddress.txt").getFile());
+    BackgroundReclaimer reclaimer = BackgroundReclaimer.start(0, 16);
+    try {
+      MapHandle mh = Memory.map(file);
+      Memory mem = mh.get();
+      assertEquals(mem.getCapacity(), file.length());
+      mh.close();
+      assertFalse(mem.isValid());
+    } finally {
+      reclaimer.close();
+    }
+    assertEquals(reclaimer.getReclaimedCount(), 1);
+    assertEquals(reclaimer.getReclaimedBytes(), file.length());
+  }
+
+  @Test
+  public void checkFullQueueFallsBack() {
+    try (BackgroundReclaimer reclaimer = BackgroundReclaimer.start(0, 1)) {
+      assertTrue(BackgroundReclaimer.submit(8, new Blocker()));
+      for (int i = 0; i < 3; i++) {
+        try (WritableDirectHandle wh = WritableMemory.allocateDirect(64)) {
+          wh.get().putLong(0, i);
+        }
+      }
+      Blocker.release();
+      assertTrue(reclaimer.getSyncFallbackCount() >= 2);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void checkOnlyOneRunning() {
+    try (BackgroundReclaimer reclaimer = BackgroundReclaimer.start(0, 1)) {
+      BackgroundReclaimer.start(0, 1);
+    }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+  //Occupies the reclaimer thread until released
+  private static final class Blocker implements Runnable {
+    private static final Object lock = new Object();
+    private static boolean released = false;
+
+    static void release() {
+      synchronized (lock) {
+        released = true;
+        lock.notifyAll();
+      }
+    }
+
+    @Override
+    public void run() {
+      synchronized (lock) {
+        while (!released) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class BitPackingTest {
+
+  @Test
+  public void checkPackedBytes() {
+    assertEquals(BitPacking.packedBytes(0, 1), 0);
+    assertEquals(BitPacking.packedBytes(1, 1), 8);
+    assertEquals(BitPacking.packedBytes(64, 1), 8);
+    assertEquals(BitPacking.packedBytes(65, 1), 16);
+    assertEquals(BitPacking.packedBytes(3, 21), 8);
+    assertEquals(BitPacking.packedBytes(4, 21), 16);
+    assertEquals(BitPacking.packedBytes(10, 64), 80);
+    try {
+      BitPacking.packedBytes(1, 0);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+    try {
+      BitPacking.packedBytes(1, 65);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void checkRoundTripAllWidths() {
+    Random rand = new Random(1);
+    int[] lengths = {1, 7, 63, 64, 65, 200};
+    for (int bits = 1; bits <= 64; bits++) {
+      long mask = -1L >>> (64 - bits);
+      for (int len : lengths) {
+        long[] src = new long[len + 2];
+        for (int i = 0; i < src.length; i++) { src[i] = rand.nextLong(); }
+        long bytes = BitPacking.packedBytes(len, bits);
+        WritableMemory wmem = WritableMemory.allocate((int) bytes + 16);
+        wmem.fill((byte) -1);
+        BitPacking.pack(src, 1, len, bits, wmem, 8);
+        assertEquals(wmem.getLong(0), -1L); //guard words untouched
+        assertEquals(wmem.getLong(bytes + 8), -1L);
+        long[] dst = new long[len + 2];
+        BitPacking.unpack(wmem, 8, bits, dst, 1, len);
+        assertEquals(dst[0], 0);
+        assertEquals(dst[len + 1], 0);
+        for (int i = 0; i < len; i++) {
+          assertEquals(dst[i + 1], src[i + 1] & mask);
+          assertEquals(BitPacking.get(wmem, 8, bits, i), src[i + 1] & mask);
+        }
+        long lastBit = (long) len * bits;
+        if ((lastBit & 63) != 0) { //unused high bits of the last word are cleared
+          assertEquals(wmem.getLong(bytes) >>> (lastBit & 63), 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void checkSetLeavesNeighbors() {
+    Random rand = new Random(2);
+    int len = 130;
+    for (int bits = 1; bits <= 64; bits++) {
+      long mask = -1L >>> (64 - bits);
+      long[] vals = new long[len];
+      for (int i = 0; i < len; i++) { vals[i] = rand.nextLong() & mask; }
+      WritableMemory wmem = WritableMemory.allocate((int) BitPacking.packedBytes(len, bits));
+      for (int i = 0; i < len; i++) {
+        BitPacking.set(wmem, 0, bits, i, vals[i]);
+      }
+      for (int n = 0; n < 200; n++) {
+        int i = rand.nextInt(len);
+        vals[i] = rand.nextLong() & mask;
+        BitPacking.set(wmem, 0, bits, i, vals[i] | ~mask); //high bits are ignored
+      }
+      long[] dst = new long[len];
+      BitPacking.unpack(wmem, 0, bits, dst, 0, len);
+      for (int i = 0; i < len; i++) {
+        assertEquals(dst[i], vals[i]);
+      }
+    }
+  }
+
+  @Test
+  public void checkDirectMemory() {
+    Random rand = new Random(3);
+    int bits = 13;
+    int len = 1000;
+    long[] src = new long[len];
+    for (int i = 0; i < len; i++) { src[i] = rand.nextLong(); }
+    long bytes = BitPacking.packedBytes(len, bits);
+    WritableMemory heap = WritableMemory.allocate((int) bytes);
+    BitPacking.pack(src, 0, len, bits, heap, 0);
+    try (WritableDirectHandle h = WritableMemory.allocateDirect(bytes)) {
+      WritableMemory wmem = h.get();
+      BitPacking.pack(src, 0, len, bits, wmem, 0);
+      assertEquals(wmem.compareTo(0, bytes, heap, 0, bytes), 0);
+      long[] dst = new long[len];
+      BitPacking.unpack(wmem, 0, bits, dst, 0, len);
+      for (int i = 0; i < len; i++) {
+        assertEquals(dst[i], src[i] & 0X1FFFL);
+      }
+    }
+  }
+
+  @Test
+  public void checkLittleEndianLayout() {
+    WritableMemory wmem = WritableMemory.allocate(16);
+    BitPacking.pack(new long[] {1, 2, 3}, 0, 3, 4, wmem, 0);
+    assertEquals(wmem.getByte(0), 0X21);
+    assertEquals(wmem.getByte(1), 0X03);
+    BitPacking.set(wmem, 0, 60, 1, 0XFL);
+    assertEquals(wmem.getByte(7) & 0XF0, 0XF0);
+    assertEquals(BitPacking.get(wmem, 0, 60, 1), 0XFL);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+
+public class BitwiseTest {
+  private static final ByteOrder NON_NATIVE = (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN)
+      ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+  @Test
+  public void checkOperationsAllLengths() {
+    Random rand = new Random(1);
+    for (int len = 1; len <= 80; len++) {
+      byte[] a = new byte[len + 3];
+      byte[] b = new byte[len + 5];
+      rand.nextBytes(a);
+      rand.nextBytes(b);
+      for (int op = 0; op < 4; op++) {
+        WritableMemory dst = WritableMemory.wrap(a.clone());
+        Memory src = Memory.wrap(b);
+        switch (op) {
+          case 0: dst.and(3, src, 5, len); break;
+          case 1: dst.or(3, src, 5, len); break;
+          case 2: dst.xor(3, src, 5, len); break;
+          default: dst.andNot(3, src, 5, len); break;
+        }
+        for (int i = 0; i < 3; i++) {
+          assertEquals(dst.getByte(i), a[i]);
+        }
+        for (int i = 0; i < len; i++) {
+          assertEquals(dst.getByte(i + 3), combine(op, a[i + 3], b[i + 5]));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void checkSameRange() {
+    WritableMemory wmem = WritableMemory.allocate(40);
+    for (int i = 0; i < 5; i++) { wmem.putLong(i << 3, i + 1); }
+    wmem.or(0, wmem, 0, 40);
+    assertEquals(wmem.getLong(32), 5);
+    wmem.xor(0, wmem, 0, 40);
+    assertEquals(wmem.popCount(0, 40), 0);
+  }
+
+  @Test
+  public void checkByteOrderIndependent() {
+    WritableMemory dst = WritableMemory.wrap(ByteBuffer.allocate(24).order(NON_NATIVE));
+    WritableMemory src = WritableMemory.allocate(24);
+    dst.putLong(0, 0X00FF00FF00FF00FFL);
+    src.putLong(0, 0X0F0F0F0F0F0F0F0FL);
+    byte[] expected = new byte[8];
+    for (int i = 0; i < 8; i++) {
+      expected[i] = (byte) (dst.getByte(i) & src.getByte(i));
+    }
+    dst.and(0, src, 0, 8);
+    for (int i = 0; i < 8; i++) {
+      assertEquals(dst.getByte(i), expected[i]);
+    }
+  }
+
+  @Test
+  public void checkPopCount() {
+    Random rand = new Random(2);
+    byte[] arr = new byte[200];
+    rand.nextBytes(arr);
+    Memory mem = Memory.wrap(arr);
+    for (int off = 0; off < 10; off++) {
+      for (int len = 0; len <= (arr.length - off); len += 7) {
+        long expected = 0;
+        for (int i = off; i < (off + len); i++) { expected += Integer.bitCount(arr[i] & 0XFF); }
+        assertEquals(mem.popCount(off, len), expected);
+        assertEquals(mem.parallelPopCount(off, len), expected);
+      }
+    }
+  }
+
+  @Test
+  public void checkParallelDirect() {
+    long len = (2 * CompareAndCopy.PARALLEL_LEAF_BYTES) + 13; //large enough to split
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try (WritableDirectHandle h1 = WritableMemory.allocateDirect(len);
+        WritableDirectHandle h2 = WritableMemory.allocateDirect(len)) {
+      WritableMemory dst = h1.get();
+      WritableMemory src = h2.get();
+      dst.fill((byte) 0X55);
+      src.fill((byte) 0X0F);
+      dst.parallelOr(0, src, 0, len, pool);
+      assertEquals(dst.getByte(0), 0X5F);
+      assertEquals(dst.getByte(len - 1), 0X5F);
+      assertEquals(dst.parallelPopCount(0, len, pool), 6 * len);
+      dst.parallelAndNot(0, src, 0, len, pool);
+      assertEquals(dst.parallelPopCount(0, len, pool), 2 * len);
+      dst.parallelXor(0, src, 0, len, pool);
+      assertEquals(dst.getLong(len - 8), 0X5F5F5F5F5F5F5F5FL);
+      dst.parallelAnd(0, src, 0, len, pool);
+      assertEquals(dst.popCount(0, len), 4 * len);
+      assertEquals(dst.getByte(len / 2), 0X0F);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static byte combine(int op, byte a, byte b) {
+    switch (op) {
+      case 0: return (byte) (a & b);
+      case 1: return (byte) (a | b);
+      case 2: return (byte) (a ^ b);
+      default: return (byte) (a & ~b);
+    }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
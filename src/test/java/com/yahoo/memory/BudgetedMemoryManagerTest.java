@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+public class BudgetedMemoryManagerTest {
+
+  @SuppressWarnings("resource")
+  @Test
+  public void checkFailFast() {
+    BudgetedMemoryManager budget =
+        new BudgetedMemoryManager(DefaultMemoryManager.getInstance(), 1024, 0);
+    WritableDirectHandle wh1 = budget.allocateDirect(600);
+    assertEquals(budget.getAvailableBytes(), 424);
+    assertTrue(wh1.get().getMemoryRequestServer() == budget);
+    assertTrue(wh1.get().getHandle() == wh1);
+    try {
+      budget.allocateDirect(600);
+      fail();
+    } catch (MemoryBudgetException e) {
+      //expected
+    }
+    assertEquals(budget.getAvailableBytes(), 424);
+    wh1.close();
+    assertFalse(wh1.get().isValid());
+    assertEquals(budget.getAvailableBytes(), 1024);
+    wh1.close(); //must not refund twice
+    assertEquals(budget.getAvailableBytes(), 1024);
+    try (WritableDirectHandle wh2 = budget.allocateDirect(1024)) {
+      assertEquals(budget.getAvailableBytes(), 0);
+    }
+    assertEquals(budget.getAvailableBytes(), 1024);
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkTimeout() {
+    BudgetedMemoryManager budget =
+        new BudgetedMemoryManager(DefaultMemoryManager.getInstance(), 1024, 20);
+    try (WritableDirectHandle wh = budget.allocateDirect(1000)) {
+      budget.allocateDirect(100);
+      fail();
+    } catch (MemoryBudgetException e) {
+      //expected
+    }
+    assertEquals(budget.getWaitingThreads(), 0);
+    assertEquals(budget.getAvailableBytes(), 1024);
+  }
+
+  @Test
+  public void checkRequestAndRequestClose() {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    BudgetedMemoryManager budget = new BudgetedMemoryManager(pool, 1024, 0);
+    WritableMemory wMem1 = budget.request(256);
+    wMem1.putLong(0, 7L);
+    MemoryRequestServer memReqSvr = wMem1.getMemoryRequestServer();
+    assertTrue(memReqSvr == budget);
+    WritableMemory wMem2 = memReqSvr.request(wMem1, 512);
+    assertEquals(wMem2.getLong(0), 7L);
+    assertEquals(budget.getAvailableBytes(), 256);
+    memReqSvr.requestClose(wMem1, wMem2);
+    assertFalse(wMem1.isValid());
+    assertEquals(budget.getAvailableBytes(), 512);
+    memReqSvr.requestClose(wMem2, null);
+    assertEquals(budget.getAvailableBytes(), 1024);
+    assertEquals(pool.getPooledBlocks(), 2);
+    pool.trim();
+  }
+
+  @SuppressWarnings("resource")
+  @Test
+  public void checkBlockedCallersAreAdmittedInOrder() throws Exception {
+    final BudgetedMemoryManager budget =
+        new BudgetedMemoryManager(DefaultMemoryManager.getInstance(), 1024, -1);
+    final WritableDirectHandle wh = budget.allocateDirect(1024);
+    final AtomicLong order = new AtomicLong();
+    final long[] admitted = new long[2];
+    Thread large = new Thread() {
+      @Override
+      public void run() {
+        try (WritableDirectHandle h = budget.allocateDirect(1020)) {
+          admitted[0] = order.incrementAndGet();
+        }
+      }
+    };
+    Thread small = new Thread() {
+      @Override
+      public void run() {
+        try (WritableDirectHandle h = budget.allocateDirect(8)) {
+          admitted[1] = order.incrementAndGet();
+        }
+      }
+    };
+    large.start();
+    while (budget.getWaitingThreads() < 1) { Thread.sleep(1); }
+    small.start();
+    while (budget.getWaitingThreads() < 2) { Thread.sleep(1); }
+    wh.close();
+    large.join();
+    small.join();
+    assertEquals(admitted[0], 1); //the large request arrived first and is not overtaken
+    assertEquals(admitted[1], 2);
+    assertEquals(budget.getAvailableBytes(), 1024);
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkRequestLargerThanBudget() {
+    new BudgetedMemoryManager(DefaultMemoryManager.getInstance(), 1024, -1).allocateDirect(1025);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class ByteSearchTest {
+
+  @Test
+  public void checkIndexOfByte() {
+    Random rand = new Random(1);
+    byte[] arr = new byte[100];
+    for (int i = 0; i < arr.length; i++) { arr[i] = (byte) rand.nextInt(8); }
+    Memory mem = Memory.wrap(arr);
+    for (int from = 0; from <= arr.length; from += 3) {
+      for (int to = from; to <= arr.length; to += 5) {
+        for (int v = -1; v < 9; v++) {
+          assertEquals(mem.indexOf((byte) v, from, to), naiveIndexOf(arr, (byte) v, from, to));
+          assertEquals(mem.lastIndexOf((byte) v, from, to),
+              naiveLastIndexOf(arr, (byte) v, from, to));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void checkHighBitBytes() {
+    //lanes of 0x80 and 0xFF must not be mistaken for zero lanes
+    byte[] arr = new byte[24];
+    Arrays.fill(arr, (byte) 0x80);
+    arr[17] = (byte) 0xFF;
+    arr[3] = 0;
+    Memory mem = Memory.wrap(arr);
+    assertEquals(mem.indexOf((byte) 0xFF, 0, 24), 17);
+    assertEquals(mem.lastIndexOf((byte) 0xFF, 0, 24), 17);
+    assertEquals(mem.indexOf((byte) 0, 0, 24), 3);
+    assertEquals(mem.lastIndexOf((byte) 0, 0, 24), 3);
+    assertEquals(mem.indexOf((byte) 0x7F, 0, 24), -1);
+    assertEquals(mem.indexOf((byte) 0x80, 3, 24), 4);
+    assertEquals(mem.lastIndexOf((byte) 0x80, 0, 24), 23);
+  }
+
+  @Test
+  public void checkIndexOfPattern() {
+    Random rand = new Random(2);
+    byte[] arr = new byte[300];
+    for (int i = 0; i < arr.length; i++) { arr[i] = (byte) rand.nextInt(3); }
+    Memory mem = Memory.wrap(arr);
+    for (int patLen = 1; patLen <= 12; patLen++) {
+      for (int n = 0; n < 50; n++) {
+        byte[] pat = new byte[patLen];
+        for (int i = 0; i < patLen; i++) { pat[i] = (byte) rand.nextInt(3); }
+        int from = rand.nextInt(arr.length);
+        int to = from + rand.nextInt((arr.length - from) + 1);
+        assertEquals(mem.indexOf(Memory.wrap(pat), from, to), naiveIndexOf(arr, pat, from, to));
+      }
+    }
+  }
+
+  @Test
+  public void checkDirectAndRegion() {
+    Random rand = new Random(3);
+    byte[] arr = new byte[1000];
+    rand.nextBytes(arr);
+    try (WritableDirectHandle h = WritableMemory.allocateDirect(arr.length + 5)) {
+      WritableMemory wmem = h.get();
+      wmem.putByteArray(5, arr, 0, arr.length);
+      Memory reg = wmem.region(5, arr.length);
+      for (int n = 0; n < 100; n++) {
+        byte v = (byte) rand.nextInt();
+        assertEquals(reg.indexOf(v, 0, arr.length), naiveIndexOf(arr, v, 0, arr.length));
+        assertEquals(reg.lastIndexOf(v, 0, arr.length), naiveLastIndexOf(arr, v, 0, arr.length));
+      }
+      byte[] pat = {arr[700], arr[701], arr[702]};
+      long expected = naiveIndexOf(arr, pat, 0, arr.length);
+      assertEquals(reg.indexOf(Memory.wrap(pat), 0, arr.length), expected);
+      assertEquals(wmem.indexOf(Memory.wrap(pat), 0, arr.length + 5), expected + 5);
+    }
+  }
+
+  @Test
+  public void checkMappedFile() throws Exception {
+    File file =
+        new File(getClass().getClassLoader().getResource("GettysburgAddress.txt").getFile());
+    try (MapHandle rh = Memory.map(file, 0, file.length(), ByteOrder.nativeOrder())) {
+      Memory map = rh.get();
+      int len = (int) file.length();
+      byte[] arr = new byte[len];
+      map.getByteArray(0, arr, 0, len);
+      Memory heap = Memory.wrap(arr);
+      for (byte v : new byte[] {'\n', ' ', '.', ',', 'z'}) {
+        assertEquals(map.indexOf(v, 0, len), heap.indexOf(v, 0, len));
+        assertEquals(map.indexOf(v, 0, len), naiveIndexOf(arr, v, 0, len));
+        assertEquals(map.lastIndexOf(v, 0, len), naiveLastIndexOf(arr, v, 0, len));
+      }
+      Memory pat = Memory.wrap("nation".getBytes(UTF_8));
+      assertEquals(map.indexOf(pat, 0, len), naiveIndexOf(arr, "nation".getBytes(UTF_8), 0, len));
+    }
+  }
+
+  private static long naiveIndexOf(byte[] arr, byte v, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (arr[i] == v) { return i; }
+    }
+    return -1;
+  }
+
+  private static long naiveLastIndexOf(byte[] arr, byte v, int from, int to) {
+    for (int i = to - 1; i >= from; i--) {
+      if (arr[i] == v) { return i; }
+    }
+    return -1;
+  }
+
+  private static long naiveIndexOf(byte[] arr, byte[] pat, int from, int to) {
+    outer:
+    for (int i = from; i <= (to - pat.length); i++) {
+      for (int j = 0; j < pat.length; j++) {
+        if (arr[i + j] != pat[j]) { continue outer; }
+      }
+      return i;
+    }
+    return -1;
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
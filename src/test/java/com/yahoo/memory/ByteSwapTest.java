@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.testng.annotations.Test;
+
+public class ByteSwapTest {
+  private static final ByteOrder NON_NATIVE = (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN)
+      ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+  @Test
+  public void checkLongArrays() {
+    int n = 7; //exercises the unrolled loop and the tail
+    ByteBuffer bb = ByteBuffer.allocate(8 * (n + 1)).order(NON_NATIVE);
+    for (int i = 0; i < n; i++) { bb.putLong(8 + (8 * i), (i * 0x0101010101010101L) + 1); }
+    try (WritableDirectHandle wh = WritableMemory.allocateDirect(bb.capacity())) {
+      WritableMemory wmem = wh.get();
+      wmem.putByteArray(0, bb.array(), 0, bb.capacity());
+      long[] arr = new long[n + 1];
+      wmem.getLongArray(8, arr, 1, n, NON_NATIVE);
+      for (int i = 0; i < n; i++) { assertEquals(arr[i + 1], bb.getLong(8 + (8 * i))); }
+
+      wmem.clear();
+      wmem.putLongArray(8, arr, 1, n, NON_NATIVE);
+      byte[] bytes = new byte[bb.capacity()];
+      wmem.getByteArray(0, bytes, 0, bytes.length);
+      assertEquals(ByteBuffer.wrap(bytes).order(NON_NATIVE).getLong(8 * n), bb.getLong(8 * n));
+
+      long[] arr2 = new long[n];
+      wmem.getLongArray(8, arr2, 0, n, ByteOrder.nativeOrder());
+      assertEquals(arr2[0], Long.reverseBytes(arr[1]));
+    }
+  }
+
+  @Test
+  public void checkAllTypes() {
+    ByteBuffer bb = ByteBuffer.allocate(256).order(NON_NATIVE);
+    WritableMemory wmem = WritableMemory.wrap(new byte[256]); //native order
+
+    wmem.putIntArray(0, new int[] {1, -2, 3, 4, 5}, 0, 5, NON_NATIVE);
+    wmem.putShortArray(32, new short[] {7, -8, 9, 10, 11}, 0, 5, NON_NATIVE);
+    wmem.putCharArray(48, new char[] {'a', 'b', 'c', 'd', 'e'}, 0, 5, NON_NATIVE);
+    wmem.putFloatArray(64, new float[] {1.5F, -2.5F, 3.5F, 4.5F, Float.NaN}, 0, 5, NON_NATIVE);
+    wmem.putDoubleArray(96, new double[] {0.5, -0.25, 8, 9, 10}, 0, 5, NON_NATIVE);
+    byte[] bytes = new byte[256];
+    wmem.getByteArray(0, bytes, 0, 256);
+    bb.put(bytes).rewind();
+    assertEquals(bb.getInt(4), -2);
+    assertEquals(bb.getInt(16), 5);
+    assertEquals(bb.getShort(34), -8);
+    assertEquals(bb.getChar(56), 'e');
+    assertEquals(bb.getFloat(68), -2.5F);
+    assertEquals(bb.getDouble(128), 10.0);
+
+    int[] ints = new int[5];
+    wmem.getIntArray(0, ints, 0, 5, NON_NATIVE);
+    assertEquals(ints[4], 5);
+    short[] shorts = new short[5];
+    wmem.getShortArray(32, shorts, 0, 5, NON_NATIVE);
+    assertEquals(shorts[1], -8);
+    char[] chars = new char[5];
+    wmem.getCharArray(48, chars, 0, 5, NON_NATIVE);
+    assertEquals(chars[4], 'e');
+    float[] floats = new float[5];
+    wmem.getFloatArray(64, floats, 0, 5, NON_NATIVE);
+    assertEquals(floats[0], 1.5F);
+    assertEquals(Float.floatToRawIntBits(floats[4]), Float.floatToRawIntBits(Float.NaN));
+    double[] doubles = new double[5];
+    wmem.getDoubleArray(96, doubles, 0, 5, NON_NATIVE);
+    assertEquals(doubles[1], -0.25);
+  }
+
+  @Test
+  public void checkNonNativeResource() {
+    //an explicit order overrides the order of the resource
+    ByteBuffer bb = ByteBuffer.allocate(32).order(NON_NATIVE);
+    WritableMemory wmem = WritableMemory.wrap(bb);
+    wmem.putLongArray(0, new long[] {1L, 2L}, 0, 2, ByteOrder.nativeOrder());
+    assertEquals(bb.getLong(0), Long.reverseBytes(1L));
+    long[] arr = new long[2];
+    wmem.getLongArray(0, arr, 0, 2);
+    assertEquals(arr[1], Long.reverseBytes(2L));
+    wmem.getLongArray(0, arr, 0, 2, ByteOrder.nativeOrder());
+    assertEquals(arr[1], 2L);
+    wmem.putIntArray(16, new int[] {3, 4}, 0, 2, ByteOrder.nativeOrder());
+    assertEquals(bb.getInt(20), Integer.reverseBytes(4));
+    int[] ints = new int[2];
+    wmem.getIntArray(16, ints, 0, 2, ByteOrder.nativeOrder());
+    assertEquals(ints[1], 4);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/**
+ * CHECK_BOUNDS is a constant read once from a system property, so the checked mode is exercised
+ * in a separate JVM started with -Dcom.yahoo.memory.checkBounds=true and with assertions
+ * disabled. Any exception must then come from the checked mode, not from an assert.
+ */
+public class CheckBoundsModeTest {
+
+  @Test
+  public void checkBoundsModeInForkedJvm() throws Exception {
+    String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator
+        + "java";
+    //the classpath of the test JVM may be a manifest-only jar, so use the class locations
+    String cp = location(Memory.class) + File.pathSeparator + location(Child.class);
+    ProcessBuilder pb = new ProcessBuilder(javaBin, "-da", "-Dcom.yahoo.memory.checkBounds=true",
+        "-cp", cp, Child.class.getName());
+    pb.redirectErrorStream(true);
+    Process p = pb.start();
+    String out = readAll(p.getInputStream());
+    int exit = p.waitFor();
+    println(out);
+    assertEquals(exit, 0, out);
+  }
+
+  /**
+   * Runs in the forked JVM. The exit status is the number of failed checks.
+   */
+  static final class Child {
+    private static final List<String> failures = new ArrayList<>();
+
+    public static void main(final String[] args) {
+      boolean assertsEnabled = false;
+      assert assertsEnabled = true;
+      if (assertsEnabled) { failures.add("assertions are enabled"); }
+      if (!UnsafeUtil.CHECK_BOUNDS) { failures.add("CHECK_BOUNDS is not set"); }
+
+      final WritableMemory heap = WritableMemory.allocate(16);
+      expect(IllegalArgumentException.class, "heap getLong past end", new Runnable() {
+        @Override public void run() { heap.getLong(12); }
+      });
+      expect(IllegalArgumentException.class, "heap putInt negative offset", new Runnable() {
+        @Override public void run() { heap.putInt(-1, 0); }
+      });
+      expect(IllegalArgumentException.class, "heap putLongArray too long", new Runnable() {
+        @Override public void run() { heap.putLongArray(8, new long[2], 0, 2); }
+      });
+      final WritableBuffer buf = heap.asWritableBuffer();
+      expect(IllegalArgumentException.class, "buffer getLong past end", new Runnable() {
+        @Override public void run() { buf.setPosition(9); buf.getLong(); }
+      });
+      expect(IllegalArgumentException.class, "memory region negative offset", new Runnable() {
+        @Override public void run() { heap.region(-1, 4); }
+      });
+      expect(IllegalArgumentException.class, "memory region past end", new Runnable() {
+        @Override public void run() { heap.writableRegion(8, 16); }
+      });
+      expect(IllegalArgumentException.class, "buffer region past end", new Runnable() {
+        @Override public void run() { buf.writableRegion(12, 8); }
+      });
+      final WritableBuffer dup = buf.writableDuplicate();
+      dup.setStartPositionEnd(0, 0, 8);
+      expect(IllegalArgumentException.class, "duplicate position past end", new Runnable() {
+        @Override public void run() { dup.setPosition(12); }
+      });
+      expect(IllegalArgumentException.class, "duplicate increment past end", new Runnable() {
+        @Override public void run() { dup.setPosition(4); dup.incrementPosition(8); }
+      });
+      expect(IllegalArgumentException.class, "duplicate getLong past end", new Runnable() {
+        @Override public void run() { dup.setPosition(4); dup.getLong(); }
+      });
+      expect(IllegalArgumentException.class, "duplicate putInt past end", new Runnable() {
+        @Override public void run() { dup.setPosition(6); dup.putInt(1); }
+      });
+      if (heap.getInt(6) != 0) { failures.add("duplicate putInt past end wrote the memory"); }
+
+      final WritableDirectHandle h = WritableMemory.allocateDirect(16);
+      final WritableMemory direct = h.get();
+      final WritableBuffer directBuf = direct.asWritableBuffer();
+      direct.putLong(8, 1L); //in bounds and valid
+      expect(IllegalArgumentException.class, "direct putLong past end", new Runnable() {
+        @Override public void run() { direct.putLong(9, 1L); }
+      });
+      h.close();
+      expect(IllegalStateException.class, "memory get after close", new Runnable() {
+        @Override public void run() { direct.getLong(0); }
+      });
+      expect(IllegalStateException.class, "memory put after close", new Runnable() {
+        @Override public void run() { direct.putLong(0, 1L); }
+      });
+      expect(IllegalStateException.class, "buffer get after close", new Runnable() {
+        @Override public void run() { directBuf.getLong(); }
+      });
+
+      for (String f : failures) { System.out.println("FAILED: " + f); }
+      System.exit(failures.size());
+    }
+
+    private static void expect(final Class<? extends Exception> type, final String name,
+        final Runnable r) {
+      try {
+        r.run();
+        failures.add(name + ": nothing thrown");
+      } catch (final Exception e) {
+        if (!type.isInstance(e)) { failures.add(name + ": threw " + e); }
+      }
+    }
+  }
+
+  private static String location(Class<?> c) throws Exception {
+    return new File(c.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+  }
+
+  private static String readAll(InputStream in) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] b = new byte[4096];
+    int n;
+    while ((n = in.read(b)) > 0) { bytes.write(b, 0, n); }
+    return new String(bytes.toByteArray(), UTF_8);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
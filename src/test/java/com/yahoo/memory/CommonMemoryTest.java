@@ -12,6 +12,7 @@ import static com.yahoo.memory.Util.isAnyBitsSet;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import org.testng.annotations.Test;
 
@@ -294,6 +295,131 @@ public class CommonMemoryTest {
     assertEquals(newLong, 501);
   }
 
+  @Test
+  public void checkIntAtomicAndVolatileMethods() {
+    try (WritableDirectHandle wrh = WritableMemory.allocateDirect(16)) {
+      WritableMemory mem = wrh.get();
+      mem.clear();
+      mem.putInt(4, 500);
+      assertEquals(mem.getAndAddInt(4, 1), 501);
+      assertEquals(mem.getInt(4), 501);
+      assertTrue(mem.compareAndSwapInt(4, 501, 502));
+      assertFalse(mem.compareAndSwapInt(4, 501, 503));
+      assertEquals(mem.getAndSetInt(4, 600), 502);
+      assertEquals(mem.getIntVolatile(4), 600);
+      assertEquals(mem.getInt(0), 0); //neighbors untouched
+      assertEquals(mem.getInt(8), 0);
+
+      mem.putIntVolatile(12, -7);
+      assertEquals(mem.getInt(12), -7);
+      mem.putIntOrdered(12, 7);
+      assertEquals(mem.getIntVolatile(12), 7);
+      mem.putLongVolatile(0, Long.MIN_VALUE);
+      assertEquals(mem.getLongVolatile(0), Long.MIN_VALUE);
+      mem.putLongOrdered(8, 123456789012L);
+      assertEquals(mem.getLong(8), 123456789012L);
+      try {
+        mem.compareAndSwapLong(12, 0, 1); //long must fit
+        fail();
+      } catch (final AssertionError e) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  public void checkAtomicBitMethods() {
+    WritableMemory mem = WritableMemory.allocate(24);
+    assertEquals(mem.getAndSetBits(8, 0xF0L), 0L);
+    assertEquals(mem.getAndSetBits(8, 0x30L), 0xF0L); //no change
+    assertEquals(mem.getAndClearBits(8, 0x11L), 0xF0L);
+    assertEquals(mem.getAndFlipBits(8, -1L), 0xE0L);
+    assertEquals(mem.getLong(8), ~0xE0L);
+    assertEquals(mem.getAndClearBits(8, 0xE0L), ~0xE0L); //no change
+    mem.putLong(8, 0);
+
+    assertFalse(mem.testAndSetBit(0));
+    assertTrue(mem.testAndSetBit(0));
+    assertFalse(mem.testAndSetBit(127));
+    assertEquals(mem.getLong(0), 1L);
+    assertEquals(mem.getLong(8), Long.MIN_VALUE);
+    assertTrue(mem.testAndClearBit(127));
+    assertFalse(mem.testAndClearBit(127));
+    assertEquals(mem.getLong(8), 0L);
+
+    WritableMemory src = WritableMemory.allocate(16);
+    src.putLong(0, 0x0FL);
+    src.putLong(8, 0x300L);
+    mem.putLong(16, 0x1000L);
+    mem.atomicOr(8, src, 0, 16);
+    assertEquals(mem.getLong(0), 1L);
+    assertEquals(mem.getLong(8), 0x0FL);
+    assertEquals(mem.getLong(16), 0x1300L);
+    mem.atomicAndNot(8, src, 0, 16);
+    assertEquals(mem.getLong(8), 0L);
+    assertEquals(mem.getLong(16), 0x1000L);
+    try {
+      mem.atomicOr(0, src, 0, 12);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void checkConcurrentBitmap() throws Exception {
+    final int bits = 1 << 16;
+    final int threads = 4;
+    try (WritableDirectHandle wrh = WritableMemory.allocateDirect(bits >>> 3)) {
+      final WritableMemory mem = wrh.get();
+      mem.clear();
+      Thread[] workers = new Thread[threads];
+      for (int t = 0; t < threads; t++) {
+        final int first = t;
+        workers[t] = new Thread() {
+          @Override
+          public void run() {
+            //interleaved bits, so every thread writes to every long
+            for (int i = first; i < bits; i += threads) {
+              assertFalse(mem.testAndSetBit(i));
+            }
+          }
+        };
+        workers[t].start();
+      }
+      for (Thread w : workers) { w.join(); }
+      for (int i = 0; i < (bits >>> 3); i += 8) {
+        assertEquals(mem.getLong(i), -1L);
+      }
+    }
+  }
+
+  @Test
+  public void checkConcurrentIntAtomics() throws Exception {
+    final WritableMemory mem = WritableMemory.allocate(8);
+    final int threads = 4;
+    final int adds = 10000;
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      workers[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < adds; i++) {
+            mem.getAndAddInt(0, 1);
+            int v;
+            do {
+              v = mem.getIntVolatile(4);
+            } while (!mem.compareAndSwapInt(4, v, v + 2));
+          }
+        }
+      };
+      workers[t].start();
+    }
+    for (Thread w : workers) { w.join(); }
+    assertEquals(mem.getIntVolatile(0), threads * adds);
+    assertEquals(mem.getIntVolatile(4), 2 * threads * adds);
+  }
+
   @Test
   public void checkSetClearMemoryRegions() {
     int memCapacity = 64; //must be 64
@@ -8,6 +8,8 @@ package com.yahoo.memory;
 import static org.testng.Assert.assertEquals;
 //import static org.testng.Assert.assertTrue;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.testng.annotations.Test;
 
 
@@ -98,6 +100,52 @@ public class CopyMemoryTest {
     }
   }
 
+  @Test
+  public void copyStopsAtLength() {
+    long lenBytes = (2 * UnsafeUtil.UNSAFE_COPY_THRESHOLD) + 5;
+    WritableMemory srcMem = WritableMemory.allocate((int) lenBytes + 64);
+    srcMem.fill((byte) 1);
+    WritableMemory dstMem = WritableMemory.allocate((int) lenBytes + 64);
+    srcMem.copyTo(0, dstMem, 0, lenBytes);
+    assertEquals(dstMem.getByte(lenBytes - 1), 1);
+    for (long i = lenBytes; i < dstMem.getCapacity(); i++) {
+      assertEquals(dstMem.getByte(i), 0);
+    }
+  }
+
+  @Test
+  public void parallelCopyDirect() {
+    int k1 = 5 << 20; //longs, 40MB is split across threads
+    try (WritableDirectHandle srcH = genWRH(k1, false);
+        WritableDirectHandle dstH = genWRH(k1 + 1, true)) {
+      Memory srcMem = srcH.get();
+      WritableMemory dstMem = dstH.get();
+      srcMem.parallelCopyTo(0, dstMem, 8, (long) k1 << 3);
+      assertEquals(dstMem.getLong(0), 0);
+      check(dstMem, 1, k1, 1);
+    }
+  }
+
+  @Test
+  public void parallelCopyHeapWithPool() {
+    int k1 = 1 << 10; //longs, too small to split
+    Memory srcMem = genMem(k1, false);
+    WritableMemory dstMem = genMem(k1, true);
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      srcMem.parallelCopyTo(0, dstMem, 0, k1 << 3, pool);
+    } finally {
+      pool.shutdown();
+    }
+    check(dstMem, 0, k1, 1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void parallelCopyOverlap() {
+    WritableMemory mem = genMem(64, false);
+    mem.region(0, 256).parallelCopyTo(0, mem, 8, 256);
+  }
+
   private static void check(Memory mem, int offsetLongs, int lengthLongs, int startValue) {
     int offBytes = offsetLongs << 3;
     for (long i = 0; i < lengthLongs; i++) {
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.testng.annotations.Test;
+
+public class HashTest {
+  private static final int[] LENGTHS = {0, 1, 3, 8, 9, 15, 16, 17, 31, 32, 33, 100};
+
+  //Published xxHash64 values with seed 0
+  @Test
+  public void checkXxHash64KnownStrings() {
+    assertEquals(xxHash64("", 0), 0xEF46DB3751D8E999L);
+    assertEquals(xxHash64("a", 0), 0xD24EC4F1A98C6E5BL);
+    assertEquals(xxHash64("abc", 0), 0x44BC2CF5AD770999L);
+  }
+
+  @Test
+  public void checkXxHash64Vectors() {
+    long[][] exp = { //seed, length, hash
+        {0, 4, 0x22EDA2CF6AF4C124L},
+        {0, 7, 0x34084D91A233A751L},
+        {0, 8, 0xC6F1803A5E0B3222L},
+        {0, 12, 0x9178B724DCE384C0L},
+        {0, 31, 0x6AB1C40E29F50073L},
+        {0, 32, 0x5A0756FBE9ECD3D1L},
+        {0, 33, 0xDC50CDC37BB9C183L},
+        {0, 100, 0xD248BFC5208B0B16L},
+        {42, 0, 0x98B1582B0977E704L},
+        {42, 1, 0x5C8A87F68BC4934AL},
+        {42, 3, 0x5BBFBC9449838B0EL},
+        {42, 32, 0x451036E0E11A31D1L},
+        {42, 100, 0x1A14D1B72F915932L}
+    };
+    for (long[] e : exp) {
+      Memory mem = Memory.wrap(genBytes((int) e[1]));
+      assertEquals(mem.xxHash64(0, e[1], e[0]), e[2], "seed " + e[0] + ", length " + e[1]);
+    }
+  }
+
+  @Test
+  public void checkMurmurHash3Vectors() {
+    long[][] exp = { //seed, length, h1, h2
+        {0, 0, 0L, 0L},
+        {0, 1, 0x7ACE5C908374FE16L, 0x778867E4430E6785L},
+        {0, 3, 0xC897BE15B329C16EL, 0xE52349BBA7277B32L},
+        {0, 8, 0xC3993D2F1366930CL, 0xDB552F05CCDCC293L},
+        {0, 9, 0xD9B7B4B05200A47AL, 0x7422944AC7A1D27AL},
+        {0, 15, 0x4C26A3980BB4ACB7L, 0x8AC2E76DA12371B5L},
+        {0, 16, 0x52EB3281DE4BCDA9L, 0xA6A71737E43793E0L},
+        {0, 17, 0x4017FF9F41BB9DB0L, 0x682F4C63B5603785L},
+        {0, 100, 0x4A96A77B7AD03C9CL, 0xDD7C1B277137FC1FL},
+        {42, 0, 0xF02AA77DFA1B8523L, 0xD1016610DA11CBB9L},
+        {42, 31, 0x7634F88E500CEB84L, 0xBC0124B83DF7624FL},
+        {42, 32, 0x83DF6A8926EAA9A4L, 0xF922B48DBEAE5E8DL},
+        {42, 33, 0x1A6CA856C428AB0BL, 0x64269A027F85B55FL}
+    };
+    long[] out = new long[2];
+    for (long[] e : exp) {
+      Memory mem = Memory.wrap(genBytes((int) e[1]));
+      mem.murmurHash3(0, e[1], e[0], out);
+      assertEquals(out[0], e[2], "seed " + e[0] + ", length " + e[1]);
+      assertEquals(out[1], e[3], "seed " + e[0] + ", length " + e[1]);
+    }
+  }
+
+  @Test
+  public void checkSameHashForAllResources() {
+    for (int len : LENGTHS) {
+      byte[] arr = genBytes(len);
+      Memory heap = Memory.wrap(arr);
+      long xx = heap.xxHash64(0, len, 7);
+      long[] mm = heap.murmurHash3(0, len, 7, new long[2]);
+
+      //offset region of a larger array
+      WritableMemory big = WritableMemory.allocate(len + 11);
+      big.putByteArray(5, arr, 0, len);
+      checkHashes(big.region(5, len + 1), len, xx, mm);
+      checkHashes(big, 5, len, xx, mm);
+
+      //ByteBuffers in both byte orders
+      ByteBuffer bb = ByteBuffer.allocate(len + 4).order(ByteOrder.BIG_ENDIAN);
+      bb.position(3);
+      bb.put(arr);
+      bb.position(3);
+      checkHashes(Memory.wrap(bb.slice().order(ByteOrder.BIG_ENDIAN)), len, xx, mm);
+      checkHashes(Memory.wrap(bb.slice().order(ByteOrder.LITTLE_ENDIAN)), len, xx, mm);
+
+      //direct
+      try (WritableDirectHandle h = WritableMemory.allocateDirect(len + 1)) {
+        WritableMemory wmem = h.get();
+        wmem.putByteArray(1, arr, 0, len);
+        checkHashes(wmem, 1, len, xx, mm);
+      }
+    }
+  }
+
+  @Test
+  public void checkMappedFile() throws Exception {
+    File file = new File(getClass().getClassLoader().getResource("GettysburgAddress.txt").getFile());
+    byte[] arr = Files.readAllBytes(file.toPath());
+    Memory heap = Memory.wrap(arr);
+    try (MapHandle rh = Memory.map(file)) {
+      Memory mem = rh.get();
+      assertEquals(mem.xxHash64(0, arr.length, 0), heap.xxHash64(0, arr.length, 0));
+      assertEquals(mem.murmurHash3(10, arr.length - 10, 0, new long[2]),
+          heap.murmurHash3(10, arr.length - 10, 0, new long[2]));
+    }
+  }
+
+  private static void checkHashes(Memory mem, long len, long xx, long[] mm) {
+    checkHashes(mem, 0, len, xx, mm);
+  }
+
+  private static void checkHashes(Memory mem, long off, long len, long xx, long[] mm) {
+    assertEquals(mem.xxHash64(off, len, 7), xx);
+    assertEquals(mem.murmurHash3(off, len, 7, new long[2]), mm);
+  }
+
+  private static long xxHash64(String s, long seed) {
+    byte[] arr = s.getBytes(StandardCharsets.UTF_8);
+    WritableMemory mem = WritableMemory.allocate(arr.length + 1); //cannot wrap an empty array
+    mem.putByteArray(0, arr, 0, arr.length);
+    return mem.xxHash64(0, arr.length, seed);
+  }
+
+  //One byte longer than len, because an empty array cannot be wrapped
+  private static byte[] genBytes(int len) {
+    byte[] arr = new byte[len + 1];
+    for (int i = 0; i <= len; i++) { arr[i] = (byte) ((i * 7) + 1); }
+    return arr;
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
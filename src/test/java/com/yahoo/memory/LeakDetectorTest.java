@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.testng.annotations.Test;
+
+public class LeakDetectorTest {
+
+  @Test
+  public void checkUnclosedHandlesAreReported() throws Exception {
+    final ConcurrentLinkedQueue<LeakDetector.AllocationSite> sites = new ConcurrentLinkedQueue<>();
+    LeakDetector.setLeakListener(new LeakDetector.LeakListener() {
+      @Override
+      public void leaked(LeakDetector.AllocationSite site) {
+        sites.add(site);
+      }
+    });
+    LeakDetector.setSampleInterval(1);
+    try {
+      long leaks = LeakDetector.getLeakCount();
+      try (WritableDirectHandle wh = WritableMemory.allocateDirect(64)) {
+        wh.get().putLong(0, 1L);
+      }
+      allocateAndForget(100);
+      mapAndForget();
+      for (int i = 0; (i < 100) && (sites.size() < 2); i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+      assertEquals(sites.size(), 2); //the closed handle is not reported
+      assertEquals(LeakDetector.getLeakCount(), leaks + 2);
+      for (LeakDetector.AllocationSite site : sites) {
+        assertTrue(site.getStackTrace().length > 0);
+        println(site.getMessage() + " " + site.getStackTrace()[0]);
+      }
+      //reclaimed memory is no longer counted
+      assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+      assertEquals(Memory.getCurrentDirectMemoryMapAllocations(), 0);
+    } finally {
+      LeakDetector.setSampleInterval(0);
+      LeakDetector.setLeakListener(LeakDetector.PRINT_STACK_TRACE);
+    }
+  }
+
+  @Test
+  public void checkDisabledSamplesNothing() {
+    assertEquals(LeakDetector.getSampleInterval(), 0);
+    assertTrue(LeakDetector.sample("Direct memory", 8) == null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkBadSampleInterval() {
+    LeakDetector.setSampleInterval(-1);
+  }
+
+  @SuppressWarnings("resource")
+  private static void allocateAndForget(long capacity) {
+    WritableMemory.allocateDirect(capacity).get().putLong(0, 1L);
+  }
+
+  @SuppressWarnings("resource")
+  private void mapAndForget() throws Exception {
+    File file = new File(getClass().getClassLoader().getResource("GettysburgAddress.txt").getFile());
+    Memory.map(file, 0, file.length(), ByteOrder.nativeOrder()).get().getByte(0);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class MemoryArenaTest {
+
+  @Test
+  public void checkBumpAllocation() {
+    WritableMemory wmem1;
+    WritableMemory wmem2;
+    try (MemoryArena arena = new MemoryArena(1024)) {
+      wmem1 = arena.allocate(20);
+      wmem2 = arena.allocate(100);
+      assertEquals(wmem1.getCapacity(), 20);
+      assertEquals(wmem2.getCapacity(), 100);
+      assertTrue(wmem1.isDirect());
+      //8-byte aligned and adjacent
+      assertEquals(wmem2.getCumulativeOffset(0) - wmem1.getCumulativeOffset(0), 24);
+      assertEquals(arena.getBlockCount(), 1);
+
+      wmem1.putLong(8, 1L);
+      wmem2.putLong(0, 2L);
+      assertEquals(wmem1.getLong(8), 1L);
+      assertEquals(wmem2.getLong(0), 2L);
+
+      for (int i = 0; i < 100; i++) {
+        arena.allocate(64).putLong(56, i);
+      }
+      assertTrue(arena.getBlockCount() > 1);
+      assertEquals(Memory.getCurrentDirectMemoryAllocations(), arena.getBlockCount());
+    }
+    assertFalse(wmem1.isValid());
+    assertFalse(wmem2.isValid());
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkLargeAllocation() {
+    try (MemoryArena arena = new MemoryArena(256)) {
+      arena.allocate(8);
+      WritableMemory big = arena.allocate(1000);
+      assertEquals(big.getCapacity(), 1000);
+      assertEquals(arena.getBlockCount(), 2);
+      //the current chunk is still used after a dedicated block
+      WritableMemory small = arena.allocate(8);
+      assertEquals(arena.getBlockCount(), 2);
+      small.putLong(0, 3L);
+    }
+  }
+
+  @Test
+  public void checkPooledArena() {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    for (int i = 0; i < 3; i++) {
+      try (MemoryArena arena = new MemoryArena(pool, 4096)) {
+        arena.allocate(4000).fill((byte) i);
+      }
+      assertEquals(pool.getPooledBlocks(), 1);
+    }
+    pool.trim();
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void checkAllocateAfterClose() {
+    MemoryArena arena = new MemoryArena(64);
+    arena.close();
+    assertFalse(arena.isValid());
+    arena.close();
+    arena.allocate(8);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkBadChunkSize() {
+    new MemoryArena(0);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.testng.annotations.Test;
+
+public class NonNativeWritableMemoryImplTest {
+  private static final ByteOrder NON_NATIVE = (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN)
+      ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+  @Test
+  public void checkImplementationChoice() {
+    WritableMemory wmem = WritableMemory.wrap(ByteBuffer.allocate(64).order(NON_NATIVE));
+    assertTrue(wmem instanceof NonNativeWritableMemoryImpl);
+    assertTrue(wmem.swapBytes());
+    assertTrue(wmem.writableRegion(8, 16) instanceof NonNativeWritableMemoryImpl);
+    assertTrue(wmem.asWritableBuffer() instanceof NonNativeWritableBufferImpl);
+    assertTrue(wmem.asWritableBuffer().asWritableMemory() instanceof NonNativeWritableMemoryImpl);
+
+    WritableMemory nmem = WritableMemory.wrap(ByteBuffer.allocate(64).order(ByteOrder.nativeOrder()));
+    assertFalse(nmem instanceof NonNativeWritableMemoryImpl);
+    assertFalse(WritableMemory.allocate(64) instanceof NonNativeWritableMemoryImpl);
+  }
+
+  @Test
+  public void checkPrimitivesMatchByteBuffer() {
+    ByteBuffer bb = ByteBuffer.allocate(64).order(NON_NATIVE);
+    WritableMemory wmem = WritableMemory.wrap(bb);
+    wmem.putChar(0, 'X');
+    wmem.putShort(2, (short) 0x1234);
+    wmem.putInt(4, 0x12345678);
+    wmem.putLong(8, 0x0102030405060708L);
+    wmem.putFloat(16, 1.5F);
+    wmem.putDouble(24, -2.25);
+    assertEquals(bb.getChar(0), 'X');
+    assertEquals(bb.getShort(2), 0x1234);
+    assertEquals(bb.getInt(4), 0x12345678);
+    assertEquals(bb.getLong(8), 0x0102030405060708L);
+    assertEquals(bb.getFloat(16), 1.5F);
+    assertEquals(bb.getDouble(24), -2.25);
+
+    bb.putLong(32, -7L);
+    bb.putInt(40, 99);
+    assertEquals(wmem.getLong(32), -7L);
+    assertEquals(wmem.getInt(40), 99);
+    assertEquals(wmem.getChar(0), 'X');
+    assertEquals(wmem.getShort(2), 0x1234);
+    assertEquals(wmem.getFloat(16), 1.5F);
+    assertEquals(wmem.getDouble(24), -2.25);
+  }
+
+  @Test
+  public void checkArrays() {
+    ByteBuffer bb = ByteBuffer.allocate(128).order(NON_NATIVE);
+    WritableMemory wmem = WritableMemory.wrap(bb);
+    long[] longs = {1L, -2L, 3L};
+    wmem.putLongArray(8, longs, 0, 3);
+    assertEquals(bb.getLong(16), -2L);
+    long[] longs2 = new long[4];
+    wmem.getLongArray(8, longs2, 1, 3);
+    assertEquals(longs2[3], 3L);
+
+    int[] ints = {5, 6};
+    wmem.putIntArray(64, ints, 0, 2);
+    assertEquals(bb.getInt(68), 6);
+    int[] ints2 = new int[2];
+    wmem.getIntArray(64, ints2, 0, 2);
+    assertEquals(ints2[0], 5);
+
+    double[] doubles = {0.5, -0.25};
+    wmem.putDoubleArray(80, doubles, 0, 2);
+    assertEquals(bb.getDouble(88), -0.25);
+    double[] doubles2 = new double[2];
+    wmem.getDoubleArray(80, doubles2, 0, 2);
+    assertEquals(doubles2[0], 0.5);
+
+    char[] chars = {'a', 'b'};
+    wmem.putCharArray(96, chars, 0, 2);
+    assertEquals(bb.getChar(98), 'b');
+    short[] shorts = {-1, 300};
+    wmem.putShortArray(100, shorts, 0, 2);
+    assertEquals(bb.getShort(102), 300);
+    float[] floats = {3.5F};
+    wmem.putFloatArray(104, floats, 0, 1);
+    float[] floats2 = new float[1];
+    wmem.getFloatArray(104, floats2, 0, 1);
+    assertEquals(floats2[0], 3.5F);
+    assertEquals(bb.getFloat(104), 3.5F);
+  }
+
+  @Test
+  public void checkAtomics() {
+    ByteBuffer bb = ByteBuffer.allocate(16).order(NON_NATIVE);
+    WritableMemory wmem = WritableMemory.wrap(bb);
+    wmem.putLong(0, 255L);
+    assertEquals(wmem.getAndAddLong(0, 1L), 256L); //returns the new value as the native impl does
+    assertEquals(bb.getLong(0), 256L);
+    assertEquals(wmem.getAndSetLong(0, 1000L), 256L);
+    assertEquals(bb.getLong(0), 1000L);
+    assertTrue(wmem.compareAndSwapLong(0, 1000L, -1L));
+    assertFalse(wmem.compareAndSwapLong(0, 1000L, 5L));
+    assertEquals(bb.getLong(0), -1L);
+
+    wmem.putInt(8, 255);
+    assertEquals(wmem.getAndAddInt(8, 1), 256);
+    assertEquals(bb.getInt(8), 256);
+    assertEquals(wmem.getAndSetInt(8, 1000), 256);
+    assertTrue(wmem.compareAndSwapInt(8, 1000, -2));
+    assertFalse(wmem.compareAndSwapInt(8, 1000, 5));
+    assertEquals(bb.getInt(8), -2);
+    wmem.putIntVolatile(12, 77);
+    assertEquals(bb.getInt(12), 77);
+    wmem.putIntOrdered(12, 78);
+    assertEquals(wmem.getIntVolatile(12), 78);
+    wmem.putLongVolatile(0, 1L << 40);
+    assertEquals(bb.getLong(0), 1L << 40);
+    wmem.putLongOrdered(0, 3L);
+    assertEquals(wmem.getLongVolatile(0), 3L);
+
+    assertEquals(wmem.getAndSetBits(0, 0x100L), 3L);
+    assertEquals(bb.getLong(0), 0x103L);
+    assertEquals(wmem.getAndClearBits(0, 0x1L), 0x103L);
+    assertEquals(wmem.getAndFlipBits(0, 0x3L), 0x102L);
+    assertEquals(bb.getLong(0), 0x101L);
+    assertFalse(wmem.testAndSetBit(63));
+    assertEquals(bb.getLong(0), 0x101L | Long.MIN_VALUE);
+    assertTrue(wmem.testAndClearBit(8));
+    assertEquals(bb.getLong(0), 0x1L | Long.MIN_VALUE);
+  }
+
+  @Test
+  public void checkBuffer() {
+    ByteBuffer bb = ByteBuffer.allocate(64).order(NON_NATIVE);
+    WritableBuffer wbuf = WritableBuffer.wrap(bb);
+    assertTrue(wbuf instanceof NonNativeWritableBufferImpl);
+    wbuf.putInt(7);
+    wbuf.putLong(8L);
+    wbuf.putShortArray(new short[] {1, 2}, 0, 2);
+    wbuf.putDouble(1.25);
+    assertEquals(wbuf.getPosition(), 24);
+    assertEquals(bb.getInt(0), 7);
+    assertEquals(bb.getLong(4), 8L);
+    assertEquals(bb.getShort(14), 2);
+    assertEquals(bb.getDouble(16), 1.25);
+    wbuf.setPosition(0);
+    assertEquals(wbuf.getInt(), 7);
+    assertEquals(wbuf.getLong(), 8L);
+    short[] shorts = new short[2];
+    wbuf.getShortArray(shorts, 0, 2);
+    assertEquals(shorts[1], 2);
+    assertEquals(wbuf.getDouble(), 1.25);
+    assertEquals(wbuf.getPosition(), 24);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
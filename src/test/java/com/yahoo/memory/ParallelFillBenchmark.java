@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares serial fill() with parallelFill() over a large direct region. This is run by hand with
+ * <i>main</i> and is not part of the unit tests.
+ *
+ * <p>Arguments: the capacity in megabytes (default 1024) and the number of trials (default 5).
+ * The best time of the trials is reported for each.</p>
+ *
+ * @author Lee Rhodes
+ */
+public final class ParallelFillBenchmark {
+
+  private ParallelFillBenchmark() { }
+
+  /**
+   * Runs the benchmark
+   * @param args optional capacity in megabytes and number of trials
+   */
+  public static void main(final String[] args) {
+    final long cap = ((args.length > 0) ? Long.parseLong(args[0]) : 1024L) << 20;
+    final int trials = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+    try (WritableDirectHandle h = WritableMemory.allocateDirect(cap)) {
+      final WritableMemory wmem = h.get();
+      wmem.parallelClear(); //touches every page before timing
+      long serial = Long.MAX_VALUE;
+      long parallel = Long.MAX_VALUE;
+      for (int trial = 0; trial < trials; trial++) {
+        long start = System.nanoTime();
+        wmem.fill((byte) trial);
+        serial = Math.min(serial, System.nanoTime() - start);
+        start = System.nanoTime();
+        wmem.parallelFill(0, cap, (byte) trial);
+        parallel = Math.min(parallel, System.nanoTime() - start);
+      }
+      System.out.println("Fill " + (cap >>> 20) + "MB, best of " + trials + ": serial "
+          + (serial / 1000000) + " ms, parallel " + (parallel / 1000000) + " ms on "
+          + ForkJoinPool.commonPool().getParallelism() + " threads, "
+          + Runtime.getRuntime().availableProcessors() + " processors");
+    }
+  }
+
+}
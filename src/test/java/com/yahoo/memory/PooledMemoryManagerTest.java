@@ -0,0 +1,376 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.Test;
+
+public class PooledMemoryManagerTest {
+
+  @Test
+  public void checkClassIndex() {
+    assertEquals(PooledMemoryManager.classIndex(1), 0);
+    assertEquals(PooledMemoryManager.classIndex(64), 0);
+    assertEquals(PooledMemoryManager.classIndex(65), 1);
+    assertEquals(PooledMemoryManager.classIndex(128), 1);
+    assertEquals(PooledMemoryManager.classIndex(1L << 20), 14);
+    assertEquals(PooledMemoryManager.classIndex((1L << 20) + 1), 15);
+  }
+
+  @Test
+  public void checkBlockIsRecycled() {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    long address;
+    try (WritableDirectHandle wh = WritableMemory.allocateDirect(1000, pool)) {
+      WritableMemory wmem = wh.get();
+      assertEquals(wmem.getCapacity(), 1000);
+      assertTrue(wmem.isDirect());
+      wmem.putLong(992, 42L);
+      address = wmem.getCumulativeOffset(0);
+    }
+    assertEquals(pool.getPooledBlocks(), 1);
+    assertEquals(pool.getPooledBytes(), 1024);
+
+    //same size class gets the same block back
+    try (WritableDirectHandle wh = pool.allocateDirect(600)) {
+      assertEquals(wh.get().getCumulativeOffset(0), address);
+      assertEquals(pool.getPooledBlocks(), 0);
+    }
+    assertEquals(pool.getPooledBlocks(), 1);
+    pool.trim();
+    assertEquals(pool.getPooledBlocks(), 0);
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @SuppressWarnings("resource")
+  @Test
+  public void checkCloseInvalidatesMemory() {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    WritableDirectHandle wh = pool.allocateDirect(64);
+    WritableMemory wmem = wh.get();
+    assertTrue(wmem.isValid());
+    wh.close();
+    assertFalse(wmem.isValid());
+    wh.close(); //must not return the block twice
+    assertEquals(pool.getPooledBlocks(), 1);
+    pool.trim();
+  }
+
+  @SuppressWarnings("resource")
+  @Test
+  public void checkFreeListBound() {
+    PooledMemoryManager pool = new PooledMemoryManager(2, 1024);
+    WritableDirectHandle wh1 = pool.allocateDirect(256);
+    WritableDirectHandle wh2 = pool.allocateDirect(256);
+    WritableDirectHandle wh3 = pool.allocateDirect(256);
+    wh1.close();
+    wh2.close();
+    wh3.close(); //freed, the free list is full
+    assertEquals(pool.getPooledBlocks(), 2);
+    try (WritableDirectHandle wh = pool.allocateDirect(2048)) { //too large to be pooled
+      wh.get().putLong(2040, 1L);
+    }
+    assertEquals(pool.getPooledBlocks(), 2);
+    pool.trim();
+  }
+
+  @Test
+  public void checkRequestAndRequestClose() {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    try (WritableDirectHandle wh = pool.allocateDirect(256)) {
+      WritableMemory wMem1 = wh.get();
+      wMem1.putLong(0, 7L);
+      MemoryRequestServer memReqSvr = wMem1.getMemoryRequestServer();
+      assertTrue(memReqSvr == pool);
+      WritableMemory wMem2 = memReqSvr.request(512);
+      assertTrue(wMem2.isDirect());
+      wMem1.copyTo(0, wMem2, 0, 256);
+      memReqSvr.requestClose(wMem1, wMem2);
+      assertFalse(wMem1.isValid());
+      assertEquals(wMem2.getLong(0), 7L);
+      assertEquals(pool.getPooledBlocks(), 1);
+      memReqSvr.requestClose(wMem2, null);
+      assertEquals(pool.getPooledBlocks(), 2);
+    }
+    pool.trim();
+  }
+
+  @SuppressWarnings("resource")
+  @Test
+  public void checkThreadMagazines() {
+    PooledMemoryManager pool = new PooledMemoryManager(4, 1024, 4);
+    WritableDirectHandle[] handles = new WritableDirectHandle[10];
+    for (int i = 0; i < handles.length; i++) {
+      handles[i] = pool.allocateDirect(128);
+    }
+    long lastAddress = handles[9].get().getCumulativeOffset(0);
+    for (int i = 0; i < handles.length; i++) {
+      handles[i].close();
+    }
+    //full magazines spill half their blocks to the shared free list, which holds at most 4
+    assertEquals(pool.getPooledBlocks(), 8);
+
+    //the most recently freed block comes back first from the magazine
+    try (WritableDirectHandle wh = pool.allocateDirect(100)) {
+      assertEquals(wh.get().getCumulativeOffset(0), lastAddress);
+    }
+    pool.trim();
+    assertEquals(pool.getPooledBlocks(), 0);
+  }
+
+  @Test
+  public void checkThreadMagazinesAcrossThreads() throws Exception {
+    final PooledMemoryManager pool = new PooledMemoryManager(64, 1024, 8);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 1000; i++) {
+            try (WritableDirectHandle wh = pool.allocateDirect(64 + (i % 512))) {
+              wh.get().putLong(0, i);
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (int t = 0; t < threads.length; t++) {
+      threads[t].join();
+    }
+    assertTrue(pool.getPooledBlocks() > 0);
+    pool.trim(); //also frees the magazines of the finished threads
+    assertEquals(pool.getPooledBlocks(), 0);
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkThreadChurn() throws Exception {
+    final PooledMemoryManager pool = new PooledMemoryManager(2, 1024, 8);
+    for (int t = 0; t < 50; t++) { //each short-lived thread leaves 3 blocks in its magazine
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          WritableDirectHandle[] handles = new WritableDirectHandle[3];
+          for (int i = 0; i < handles.length; i++) {
+            handles[i] = pool.allocateDirect(100);
+          }
+          for (int i = 0; i < handles.length; i++) {
+            handles[i].close();
+          }
+        }
+      };
+      thread.start();
+      thread.join();
+      //the next thread returns the dead magazines to the shared free list of 2 blocks
+      assertTrue(pool.getPooledBlocks() <= 5, "pooled: " + pool.getPooledBlocks());
+    }
+    try (WritableDirectHandle wh = pool.allocateDirect(100)) {
+      wh.get().putLong(0, 1);
+    }
+    assertTrue(pool.getPooledBlocks() <= 2);
+    pool.trim();
+    assertEquals(pool.getPooledBlocks(), 0);
+    assertEquals(Memory.getCurrentDirectMemoryAllocations(), 0);
+  }
+
+  @Test
+  public void checkDeadMagazinesReturnedOnMiss() throws Exception {
+    final PooledMemoryManager pool = new PooledMemoryManager(4, 1024, 8);
+    try (WritableDirectHandle wh = pool.allocateDirect(64)) { //this thread gets its magazines
+      wh.get().putLong(0, 1);
+    }
+    final long[] addresses = new long[3];
+    Thread thread = new Thread() { //leaves 3 blocks of 128 bytes in its magazine and dies
+      @Override
+      public void run() {
+        WritableDirectHandle[] handles = new WritableDirectHandle[addresses.length];
+        for (int i = 0; i < handles.length; i++) {
+          handles[i] = pool.allocateDirect(100);
+          addresses[i] = handles[i].get().getCumulativeOffset(0);
+        }
+        for (int i = 0; i < handles.length; i++) {
+          handles[i].close();
+        }
+      }
+    };
+    thread.start();
+    thread.join();
+    Thread.sleep(2); //past the sweep interval
+    //no new thread allocates, so the miss on the shared free list returns the dead magazine
+    try (WritableDirectHandle wh = pool.allocateDirect(100)) {
+      final long address = wh.get().getCumulativeOffset(0);
+      assertTrue((address == addresses[0]) || (address == addresses[1])
+          || (address == addresses[2]));
+    }
+    pool.trim();
+    assertEquals(pool.getPooledBlocks(), 0);
+  }
+
+  @Test
+  public void checkTrimOfLiveThreadMagazines() throws Exception {
+    final PooledMemoryManager pool = new PooledMemoryManager(4, 1024, 8);
+    final CountDownLatch filled = new CountDownLatch(1);
+    final CountDownLatch trimmed = new CountDownLatch(1);
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          WritableDirectHandle[] handles = new WritableDirectHandle[3];
+          for (int i = 0; i < handles.length; i++) {
+            handles[i] = pool.allocateDirect(100);
+          }
+          for (int i = 0; i < handles.length; i++) {
+            handles[i].close();
+          }
+          filled.countDown();
+          trimmed.await();
+          //the owner frees its magazines here, before it takes a new block
+          try (WritableDirectHandle wh = pool.allocateDirect(100)) {
+            wh.get().putLong(0, 1);
+          }
+        } catch (final InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    thread.start();
+    filled.await();
+    try {
+      pool.trim(); //only flags the magazines of the live thread
+      assertEquals(pool.getPooledBlocks(), 3);
+    } finally {
+      trimmed.countDown();
+      thread.join();
+    }
+    assertEquals(pool.getPooledBlocks(), 1);
+    pool.trim();
+    assertEquals(pool.getPooledBlocks(), 0);
+  }
+
+  @Test
+  public void checkRecycleFromOtherThread() throws Exception {
+    final PooledMemoryManager pool = new PooledMemoryManager(4, 1024, 4);
+    final WritableDirectHandle wh = pool.allocateDirect(100);
+    long address = wh.get().getCumulativeOffset(0);
+    Thread closer = new Thread() { //like the Cleaner, it never allocates from the pool
+      @Override
+      public void run() {
+        wh.close();
+      }
+    };
+    closer.start();
+    closer.join();
+    //the block went to the shared free list, not to a magazine of the closing thread
+    try (WritableDirectHandle wh2 = pool.allocateDirect(100)) {
+      assertEquals(wh2.get().getCumulativeOffset(0), address);
+    }
+    pool.trim();
+    assertEquals(pool.getPooledBlocks(), 0);
+  }
+
+  @Test
+  public void checkZeroedAllocation() {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    try (WritableDirectHandle wh = pool.allocateDirect(256)) {
+      wh.get().fill((byte) -1);
+    }
+    try (WritableDirectHandle wh = pool.allocateDirect(256, AllocationMode.ZEROED)) {
+      checkZeros(wh.get());
+    }
+    try (WritableDirectHandle wh = WritableMemory.allocateDirect(100, AllocationMode.ZEROED)) {
+      checkZeros(wh.get());
+    }
+    pool.trim();
+  }
+
+  @Test
+  public void checkBackgroundZeroing() throws Exception {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    pool.startBackgroundZeroing(4);
+    try {
+      long address;
+      try (WritableDirectHandle wh = pool.allocateDirect(1000)) {
+        wh.get().fill((byte) -1);
+        address = wh.get().getCumulativeOffset(0);
+      }
+      for (int i = 0; (i < 1000) && (pool.getZeroedBlocks() == 0); i++) {
+        Thread.sleep(1);
+      }
+      assertEquals(pool.getZeroedBlocks(), 1);
+      assertEquals(pool.getPooledBlocks(), 1);
+      assertEquals(pool.getPooledBytes(), 1024);
+      try (WritableDirectHandle wh = pool.allocateDirect(1000, AllocationMode.ZEROED)) {
+        assertEquals(wh.get().getCumulativeOffset(0), address);
+        checkZeros(wh.get());
+        assertEquals(pool.getZeroedBlocks(), 0);
+      }
+    } finally {
+      pool.stopBackgroundZeroing();
+    }
+    assertEquals(pool.getPooledBlocks(), 1);
+    pool.trim();
+    assertEquals(pool.getPooledBlocks(), 0);
+  }
+
+  @Test
+  public void checkIdleZeroerIsParked() throws Exception {
+    PooledMemoryManager pool = new PooledMemoryManager();
+    pool.startBackgroundZeroing(4);
+    try {
+      Thread zeroer = null;
+      for (Thread t : Thread.getAllStackTraces().keySet()) {
+        if (t.getName().equals("PooledMemoryManager-Zeroer")) { zeroer = t; }
+      }
+      assertTrue(zeroer != null);
+      for (int i = 0; (i < 1000) && (zeroer.getState() != Thread.State.WAITING); i++) {
+        Thread.sleep(1);
+      }
+      //parked without a timeout, so it does not wake up while there is nothing to zero
+      assertEquals(zeroer.getState(), Thread.State.WAITING);
+
+      try (WritableDirectHandle wh = pool.allocateDirect(1000)) {
+        wh.get().fill((byte) -1);
+      }
+      for (int i = 0; (i < 1000) && (pool.getZeroedBlocks() == 0); i++) {
+        Thread.sleep(1);
+      }
+      assertEquals(pool.getZeroedBlocks(), 1);
+    } finally {
+      pool.stopBackgroundZeroing();
+    }
+    pool.trim();
+  }
+
+  private static void checkZeros(WritableMemory wMem) {
+    for (long i = 0; i < wMem.getCapacity(); i++) {
+      assertEquals(wMem.getByte(i), 0);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void checkBadMaxPooledBlockBytes() {
+    new PooledMemoryManager(8, 32);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+public class Utf8Test {
+  private static final String[] STRINGS = {
+      "",
+      "a",
+      "abcdefg",
+      "abcdefgh",
+      "The quick brown fox jumps over the lazy dog",
+      "caf\u00e9 cr\u00e8me br\u00fbl\u00e9e",
+      "\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8",
+      "emoji \ud83d\ude00 and \ud83c\udf89 in ASCII text of some length",
+      "\u007f\u0080\u07ff\u0800\uffff\ud800\udc00\udbff\udfff",
+      "mixed 12345678\u00e912345678\u4e2d12345678\ud83d\ude00"
+  };
+
+  @Test
+  public void checkMatchesJdkEncoding() throws Exception {
+    for (String s : STRINGS) {
+      byte[] exp = s.getBytes(StandardCharsets.UTF_8);
+      assertEquals(Utf8.utf8Length(s), exp.length);
+      for (int off = 0; off < 9; off++) {
+        WritableMemory wmem = WritableMemory.allocate(exp.length + 18);
+        assertEquals(wmem.putUtf8(off, s), exp.length);
+        byte[] act = new byte[exp.length];
+        wmem.getByteArray(off, act, 0, exp.length);
+        assertEquals(act, exp, s);
+
+        StringBuilder sb = new StringBuilder();
+        wmem.getUtf8(off, exp.length, sb);
+        assertEquals(sb.toString(), s);
+      }
+    }
+  }
+
+  @Test
+  public void checkDecodesJdkEncodingDirect() throws Exception {
+    for (String s : STRINGS) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      try (WritableDirectHandle h = WritableMemory.allocateDirect(bytes.length + 1)) {
+        WritableMemory wmem = h.get();
+        wmem.putByteArray(1, bytes, 0, bytes.length);
+        CharBuffer cb = CharBuffer.allocate(s.length());
+        wmem.getUtf8(1, bytes.length, cb); //any Appendable
+        cb.flip();
+        assertEquals(cb.toString(), s);
+      }
+    }
+  }
+
+  @Test
+  public void checkBuffer() {
+    WritableBuffer wbuf = WritableMemory.allocate(1024).asWritableBuffer();
+    long[] lengths = new long[STRINGS.length];
+    for (int i = 0; i < STRINGS.length; i++) {
+      long start = wbuf.getPosition();
+      wbuf.putUtf8(STRINGS[i]);
+      lengths[i] = wbuf.getPosition() - start;
+    }
+    long end = wbuf.getPosition();
+    wbuf.resetPosition();
+    for (int i = 0; i < STRINGS.length; i++) {
+      StringBuilder sb = new StringBuilder();
+      wbuf.getUtf8(lengths[i], sb);
+      assertEquals(sb.toString(), STRINGS[i]);
+    }
+    assertEquals(wbuf.getPosition(), end);
+  }
+
+  @Test
+  public void checkMalformed() {
+    int[][] bad = {
+        {0x80},                   //lone continuation
+        {0xC0, 0x80},             //overlong
+        {0xE0, 0x80, 0x80},       //overlong
+        {0xED, 0xA0, 0x80},       //encoded surrogate
+        {0xF4, 0x90, 0x80, 0x80}, //above U+10FFFF
+        {0xC3},                   //truncated
+        {0xE6, 0x97},             //truncated
+        {0xC3, 0x41},             //bad continuation
+        {0xFF}
+    };
+    for (int[] b : bad) {
+      WritableMemory wmem = WritableMemory.allocate(b.length + 1);
+      for (int i = 0; i < b.length; i++) { wmem.putByte(i, (byte) b[i]); }
+      try {
+        wmem.getUtf8(0, b.length, new StringBuilder());
+        fail();
+      } catch (final IllegalArgumentException e) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  public void checkUnpairedSurrogates() {
+    WritableMemory wmem = WritableMemory.allocate(16);
+    for (String s : new String[] {"a\ud800", "a\ud800b", "\udc00", "\udc00\ud800"}) {
+      try {
+        wmem.putUtf8(0, s);
+        fail();
+      } catch (final IllegalArgumentException e) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
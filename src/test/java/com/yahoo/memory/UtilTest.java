@@ -9,6 +9,7 @@ import static com.yahoo.memory.Util.characterPad;
 import static com.yahoo.memory.Util.zeroPad;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import org.testng.annotations.Test;
 
@@ -34,6 +35,44 @@ public class UtilTest {
     UnsafeUtil.checkBounds(999, 2, 1000);
   }
 
+  @Test
+  public void checkBoundsMessage() {
+    try {
+      UnsafeUtil.checkBounds(999, 2, 1000);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("reqLength: 2,"));
+    }
+  }
+
+  @Test
+  public void checkValidAndBounds() {
+    WritableDirectHandle wh = WritableMemory.allocateDirect(64);
+    WritableMemory wmem = wh.get();
+    wmem.checkValidAndBounds(0, 64);
+    wmem.checkValidAndBounds(64, 0);
+    wmem.region(8, 16).checkValidAndBounds(0, 16);
+    try {
+      wmem.region(8, 16).checkValidAndBounds(1, 16);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+    try {
+      wmem.checkValidAndBounds(-1, 8);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+    wh.close();
+    try {
+      wmem.checkValidAndBounds(0, 8);
+      fail();
+    } catch (final IllegalStateException e) {
+      //expected
+    }
+  }
+
   @Test
   public void checkPadding() {
     String s = "123";
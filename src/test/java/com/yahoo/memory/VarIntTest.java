@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017, Yahoo! Inc. Licensed under the terms of the
+ * Apache License 2.0. See LICENSE file at the project root for terms.
+ */
+
+package com.yahoo.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class VarIntTest {
+
+  @Test
+  public void checkKnownEncodings() {
+    WritableMemory wmem = WritableMemory.allocate(16);
+    assertEquals(wmem.putVarLong(0, 0), 1);
+    assertEquals(wmem.getByte(0), 0);
+    assertEquals(wmem.putVarLong(0, 300), 2);
+    assertEquals(wmem.getByte(0) & 0XFF, 0XAC);
+    assertEquals(wmem.getByte(1), 0X02);
+    assertEquals(wmem.getVarLong(0), 300);
+    assertEquals(wmem.putVarLong(0, -1L), 10);
+    assertEquals(wmem.getByte(9), 1);
+    assertEquals(wmem.getVarLength(0), 10);
+    assertEquals(wmem.getVarLong(0), -1L);
+    assertEquals(wmem.putVarInt(0, -1), 5);
+    assertEquals(wmem.getVarInt(0), -1);
+    assertEquals(wmem.putZigZagVarLong(0, -1L), 1);
+    assertEquals(wmem.getByte(0), 1);
+    assertEquals(wmem.getZigZagVarLong(0), -1L);
+    assertEquals(wmem.putZigZagVarInt(0, Integer.MIN_VALUE), 5);
+    assertEquals(wmem.getZigZagVarInt(0), Integer.MIN_VALUE);
+  }
+
+  @Test
+  public void checkSizes() {
+    for (int bits = 0; bits <= 64; bits++) {
+      long v = (bits == 0) ? 0 : (-1L >>> (64 - bits));
+      assertEquals(VarInt.varLongSize(v), Math.max(1, (bits + 6) / 7), "bits " + bits);
+    }
+  }
+
+  @Test
+  public void checkRoundTripAllLengthsAndOffsets() {
+    Random rand = new Random(1);
+    WritableMemory wmem = WritableMemory.allocate(32);
+    for (int bits = 0; bits <= 64; bits++) {
+      long v = (bits == 0) ? 0 : ((rand.nextLong() >>> (64 - bits)) | (1L << (bits - 1)));
+      int size = VarInt.varLongSize(v);
+      //offsets near the end take the byte at a time path
+      for (int off = 0; off <= (32 - size); off++) {
+        wmem.fill((byte) 0XFF);
+        assertEquals(wmem.putVarLong(off, v), size);
+        assertEquals(wmem.getVarLength(off), size);
+        assertEquals(wmem.getVarLong(off), v, "bits " + bits + ", offset " + off);
+        if (off > 0) { assertEquals(wmem.getByte(off - 1), -1); }
+        if ((off + size) < 32) { assertEquals(wmem.getByte(off + size), -1); }
+        int zzSize = VarInt.varLongSize(VarInt.encodeZigZag(v));
+        if ((off + zzSize) <= 32) {
+          assertEquals(wmem.putZigZagVarLong(off, v), zzSize);
+          assertEquals(wmem.getZigZagVarLong(off), v);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void checkBufferSequence() {
+    Random rand = new Random(2);
+    long[] values = new long[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = rand.nextLong() >> rand.nextInt(64);
+    }
+    try (WritableDirectHandle h = WritableMemory.allocateDirect(values.length * 21)) {
+      WritableBuffer wbuf = h.get().asWritableBuffer();
+      for (long v : values) {
+        wbuf.putVarLong(v);
+        wbuf.putZigZagVarLong(v);
+        wbuf.putVarInt((int) v);
+        wbuf.putZigZagVarInt((int) v);
+      }
+      long end = wbuf.getPosition();
+      wbuf.setPosition(0);
+      for (long v : values) {
+        assertEquals(wbuf.getVarLong(), v);
+        assertEquals(wbuf.getZigZagVarLong(), v);
+        assertEquals(wbuf.getVarInt(), (int) v);
+        assertEquals(wbuf.getZigZagVarInt(), (int) v);
+      }
+      assertEquals(wbuf.getPosition(), end);
+    }
+  }
+
+  @Test
+  public void checkMalformed() {
+    WritableMemory wmem = WritableMemory.allocate(16);
+    wmem.fill((byte) 0X80);
+    try {
+      wmem.getVarLong(0); //more than 10 bytes
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+    try {
+      wmem.getVarLong(12); //runs off the end
+      fail();
+    } catch (final IllegalArgumentException e) {
+      //expected
+    }
+    wmem.putByte(12, (byte) 0);
+    WritableBuffer wbuf = wmem.asWritableBuffer();
+    wbuf.setStartPositionEnd(0, 10, 12);
+    try {
+      wbuf.getVarLong(); //stops at the end position, not the capacity
+      fail();
+    } catch (final IllegalArgumentException e) {
+      assertEquals(wbuf.getPosition(), 10);
+    }
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -12,6 +12,8 @@ import static org.testng.Assert.fail;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.Test;
 
@@ -629,6 +631,97 @@ public class WritableMemoryImplTest {
     }
   }
 
+  @Test
+  public void checkCompareToWordAtATime() {
+    Random rand = new Random(1);
+    for (int len = 0; len < 40; len++) {
+      for (int diff = 0; diff < len; diff++) {
+        byte[] arr1 = new byte[len + 3];
+        rand.nextBytes(arr1);
+        byte[] arr2 = arr1.clone();
+        arr2[diff + 3] = (byte) (arr1[diff + 3] ^ 0x80); //flips the sign
+        Memory mem1 = Memory.wrap(arr1);
+        Memory mem2 = Memory.wrap(arr2);
+        int exp = (arr1[diff + 3] < arr2[diff + 3]) ? -1 : 1;
+        assertEquals(mem1.compareTo(3, len, mem2, 3, len), exp);
+        assertEquals(mem2.compareTo(3, len, mem1, 3, len), -exp);
+        assertEquals(mem1.mismatch(3, len, mem2, 3, len), diff);
+        assertFalse(mem1.equalTo(3, mem2, 3, len));
+        assertTrue(mem1.equalTo(3, mem2, 3, diff));
+      }
+    }
+  }
+
+  @Test
+  public void checkMismatch() {
+    byte[] arr1 = new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    byte[] arr2 = new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 11};
+    Memory mem1 = Memory.wrap(arr1);
+    Memory mem2 = Memory.wrap(arr2);
+    assertEquals(mem1.mismatch(0, 11, mem2, 0, 11), 10);
+    assertEquals(mem1.mismatch(0, 10, mem2, 0, 10), -1);
+    assertEquals(mem1.mismatch(0, 10, mem2, 0, 11), 10); //prefix
+    assertEquals(mem1.mismatch(0, 0, mem2, 0, 5), 0);
+    assertEquals(mem1.mismatch(1, 9, mem2, 1, 9), -1);
+    assertEquals(mem1.mismatch(1, 9, mem2, 0, 9), 0);
+
+    try (WritableDirectHandle h = WritableMemory.allocateDirect(11)) {
+      WritableMemory wmem = h.get();
+      wmem.putByteArray(0, arr2, 0, 11);
+      assertEquals(mem1.mismatch(0, 11, wmem, 0, 11), 10);
+      assertEquals(wmem.mismatch(0, 11, mem1, 0, 11), 10);
+      assertEquals(wmem.mismatch(0, 11, mem2, 0, 11), -1);
+    }
+  }
+
+  @Test
+  public void checkEqualTo() {
+    byte[] arr = new byte[100];
+    for (int i = 0; i < 100; i++) { arr[i] = (byte) (i % 50); }
+    Memory mem = Memory.wrap(arr);
+    assertTrue(mem.equalTo(0, mem, 0, 100));
+    assertTrue(mem.equalTo(0, mem, 50, 50));
+    assertFalse(mem.equalTo(0, mem, 1, 50));
+    assertTrue(mem.equalTo(7, mem.region(50, 50), 7, 43));
+    try {
+      mem.equalTo(0, mem, 1, 100);
+      fail();
+    } catch (final AssertionError | IllegalArgumentException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void checkParallelFill() {
+    long cap = (5L << 23) + 3; //40MB is split across threads
+    try (WritableDirectHandle h = WritableMemory.allocateDirect(cap)) {
+      WritableMemory wmem = h.get();
+      wmem.fill((byte) 1);
+      wmem.parallelFill(1, cap - 2, (byte) 2);
+      assertEquals(wmem.getByte(0), 1);
+      assertEquals(wmem.getByte(cap - 1), 1);
+      for (long i = 1; i < (cap - 1); i += 4093) {
+        assertEquals(wmem.getByte(i), 2);
+      }
+      assertEquals(wmem.getByte(cap - 2), 2);
+      wmem.parallelClear();
+      assertEquals(wmem.getByte(0), 0);
+      assertEquals(wmem.getByte(cap / 2), 0);
+      assertEquals(wmem.getByte(cap - 1), 0);
+    }
+    WritableMemory wmem = WritableMemory.allocate(64);
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      wmem.parallelFill(8, 48, (byte) 3, pool);
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(wmem.getByte(7), 0);
+    assertEquals(wmem.getByte(8), 3);
+    assertEquals(wmem.getByte(55), 3);
+    assertEquals(wmem.getByte(56), 0);
+  }
+
   @Test
   public void checkAsBuffer() {
     WritableMemory wmem = WritableMemory.allocate(64);